@@ -0,0 +1,31 @@
+package com.safetrack.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.event.FleetDirectoryChangedEvent;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lote de mensajes enviado en una sola notificación entre nodos.
+ *
+ * @param node     Identificador del nodo emisor, para que ignore sus propias notificaciones.
+ * @param events   Eventos de fatiga a difundir.
+ * @param messages Mensajes para otros temas STOMP.
+ * @param changes   Rangos de días cuyos datos cambiaron fuera de la ingesta en tiempo real.
+ * @param directory Conductores y vehículos modificados, para descartarlos del directorio en memoria.
+ */
+record ClusterBatch(String node, List<VehicleEventDTO> events, List<TopicMessage> messages, List<DataChange> changes,
+                    List<DirectoryChange> directory) {
+
+    record TopicMessage(String destination, JsonNode payload) {
+    }
+
+    record DataChange(LocalDate startDate, LocalDate endDate) {
+    }
+
+    record DirectoryChange(FleetDirectoryChangedEvent.EntryType type, UUID id) {
+    }
+}
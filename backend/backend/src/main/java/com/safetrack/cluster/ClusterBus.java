@@ -0,0 +1,43 @@
+package com.safetrack.cluster;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.event.FleetDirectoryChangedEvent;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Bus entre nodos del backend para que todos los paneles reciban lo publicado en cualquier nodo.
+ * El SimpleBroker de STOMP solo entrega dentro de su propia JVM: cada nodo reenvía al bus lo que difunde
+ * y vuelve a difundir localmente lo que llega de los demás.
+ * La implementación se elige con {@code safetrack.cluster.bus} (NONE o POSTGRES).
+ */
+public interface ClusterBus {
+
+    /**
+     * Reenvía a los demás nodos un evento de fatiga ya difundido en este nodo.
+     * Los nodos receptores lo reciben como {@link com.safetrack.domain.event.RemoteVehicleEventsReceivedEvent}.
+     */
+    void publishEvent(VehicleEventDTO event);
+
+    /**
+     * Reenvía a los demás nodos un mensaje para un tema STOMP, que cada nodo entrega a sus suscriptores.
+     * @param destination El tema, p. ej. "/topic/notifications".
+     * @param payload     Objeto serializable a JSON.
+     */
+    void publishTopic(String destination, Object payload);
+
+    /**
+     * Avisa a los demás nodos de que cambiaron los datos de un rango de días por una vía distinta de la ingesta
+     * en tiempo real, para que invaliden sus cachés. Debe llamarse tras el commit.
+     * Los nodos receptores lo reciben como {@link com.safetrack.domain.event.RemoteAnalyticsDataChangedEvent}.
+     */
+    void publishDataChanged(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Avisa a los demás nodos de que cambió un conductor o vehículo, para que lo descarten de su directorio en
+     * memoria. Debe llamarse tras el commit.
+     * Los nodos receptores lo reciben como {@link com.safetrack.domain.event.RemoteFleetDirectoryChangedEvent}.
+     */
+    void publishDirectoryChanged(FleetDirectoryChangedEvent.EntryType type, UUID id);
+}
@@ -0,0 +1,11 @@
+package com.safetrack.cluster;
+
+/**
+ * Implementación del bus entre nodos.
+ */
+public enum ClusterBusType {
+    /** Un solo nodo: no se reenvía nada. */
+    NONE,
+    /** LISTEN/NOTIFY de PostgreSQL, sin servicios adicionales. */
+    POSTGRES
+}
@@ -0,0 +1,33 @@
+package com.safetrack.cluster;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.event.FleetDirectoryChangedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Bus para un despliegue de un solo nodo: no hay a quién reenviar.
+ */
+@Component
+@ConditionalOnProperty(name = "safetrack.cluster.bus", havingValue = "NONE", matchIfMissing = true)
+public class LocalOnlyClusterBus implements ClusterBus {
+
+    @Override
+    public void publishEvent(VehicleEventDTO event) {
+    }
+
+    @Override
+    public void publishTopic(String destination, Object payload) {
+    }
+
+    @Override
+    public void publishDataChanged(LocalDate startDate, LocalDate endDate) {
+    }
+
+    @Override
+    public void publishDirectoryChanged(FleetDirectoryChangedEvent.EntryType type, UUID id) {
+    }
+}
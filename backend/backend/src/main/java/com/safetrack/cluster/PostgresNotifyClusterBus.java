@@ -0,0 +1,319 @@
+package com.safetrack.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.event.AnalyticsDataChangedEvent;
+import com.safetrack.domain.event.FleetDirectoryChangedEvent;
+import com.safetrack.domain.event.RemoteAnalyticsDataChangedEvent;
+import com.safetrack.domain.event.RemoteFleetDirectoryChangedEvent;
+import com.safetrack.domain.event.RemoteVehicleEventsReceivedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus entre nodos sobre LISTEN/NOTIFY de PostgreSQL: todos los nodos ya comparten la base de datos,
+ * así que no hace falta ningún broker externo y varios nodos en la misma máquina funcionan tal cual.
+ * <p>
+ * Lo publicado se acumula en una cola acotada y se envía cada {@code batch-interval-ms} agrupado en
+ * notificaciones de hasta {@code max-payload-bytes} (PostgreSQL limita el payload a 8000 bytes).
+ * Un hilo dedicado escucha el canal con su propia conexión del pool, descarta las notificaciones del propio nodo
+ * y difunde localmente las de los demás. NOTIFY no guarda nada: un nodo desconectado pierde lo publicado mientras
+ * tanto, igual que un panel que pierde la conexión WebSocket.
+ * <p>
+ * Los {@link AnalyticsDataChangedEvent} y {@link FleetDirectoryChangedEvent} de este nodo se reenvían tras su
+ * commit, para que los demás invaliden también sus cachés y su directorio en memoria.
+ */
+@Component
+@ConditionalOnProperty(name = "safetrack.cluster.bus", havingValue = "POSTGRES")
+@Slf4j
+public class PostgresNotifyClusterBus implements ClusterBus {
+
+    private static final long RECONNECT_DELAY_MS = 2000;
+    /** Bytes del envoltorio JSON de un lote, además del prefijo con el nodo y de los elementos. */
+    private static final int ENVELOPE_BYTES = 64;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final String channel;
+    private final int maxPayloadBytes;
+    private final int pollTimeoutMs;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final BlockingQueue<Outgoing> outbound;
+
+    private final Counter sentNotifications;
+    private final Counter receivedNotifications;
+    private final Counter forwardedMessages;
+    private final Counter droppedMessages;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresNotifyClusterBus(DataSource dataSource,
+                                    ObjectMapper objectMapper,
+                                    ApplicationEventPublisher eventPublisher,
+                                    SimpMessagingTemplate messagingTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${safetrack.cluster.postgres.channel:safetrack_broadcast}") String channel,
+                                    @Value("${safetrack.cluster.postgres.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${safetrack.cluster.postgres.max-payload-bytes:7500}") int maxPayloadBytes,
+                                    @Value("${safetrack.cluster.postgres.poll-timeout-ms:500}") int pollTimeoutMs) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            // El canal se concatena en LISTEN, que no admite parámetros.
+            throw new IllegalArgumentException("Nombre de canal no válido: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.messagingTemplate = messagingTemplate;
+        this.channel = channel;
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.sentNotifications = Counter.builder("safetrack.cluster.notifications")
+                .tag("direction", "sent")
+                .description("Notificaciones enviadas a los demás nodos")
+                .register(meterRegistry);
+        this.receivedNotifications = Counter.builder("safetrack.cluster.notifications")
+                .tag("direction", "received")
+                .description("Notificaciones recibidas de otros nodos")
+                .register(meterRegistry);
+        this.forwardedMessages = Counter.builder("safetrack.cluster.forwarded")
+                .description("Mensajes reenviados a los demás nodos")
+                .register(meterRegistry);
+        this.droppedMessages = Counter.builder("safetrack.cluster.dropped")
+                .description("Mensajes no reenviados por cola llena, tamaño excesivo o error al notificar")
+                .register(meterRegistry);
+        Gauge.builder("safetrack.cluster.queue.size", outbound, BlockingQueue::size)
+                .description("Mensajes pendientes de reenviar a los demás nodos")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listener = new Thread(this::runListenLoop, "cluster-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("Bus entre nodos activo en el canal '{}' (nodo {})", channel, nodeId);
+    }
+
+    @Override
+    public void publishEvent(VehicleEventDTO event) {
+        enqueue(Kind.EVENT, event);
+    }
+
+    @Override
+    public void publishTopic(String destination, Object payload) {
+        enqueue(Kind.MESSAGE, new ClusterBatch.TopicMessage(destination, objectMapper.valueToTree(payload)));
+    }
+
+    @Override
+    public void publishDataChanged(LocalDate startDate, LocalDate endDate) {
+        enqueue(Kind.CHANGE, new ClusterBatch.DataChange(startDate, endDate));
+    }
+
+    @Override
+    public void publishDirectoryChanged(FleetDirectoryChangedEvent.EntryType type, UUID id) {
+        enqueue(Kind.DIRECTORY, new ClusterBatch.DirectoryChange(type, id));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDataChanged(AnalyticsDataChangedEvent changed) {
+        publishDataChanged(changed.startDate(), changed.endDate());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDirectoryChanged(FleetDirectoryChangedEvent changed) {
+        publishDirectoryChanged(changed.type(), changed.id());
+    }
+
+    private void enqueue(Kind kind, Object value) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar un mensaje para el bus: {}", e.getMessage(), e);
+            droppedMessages.increment();
+            return;
+        }
+        if (!outbound.offer(new Outgoing(kind, json))) {
+            droppedMessages.increment();
+        }
+    }
+
+    /**
+     * Envía lo acumulado desde el último envío, agrupado en el menor número de notificaciones posible.
+     */
+    @Scheduled(fixedDelayString = "${safetrack.cluster.postgres.batch-interval-ms:50}")
+    void flush() {
+        List<Outgoing> pending = new ArrayList<>(outbound.size());
+        outbound.drainTo(pending);
+        if (pending.isEmpty()) {
+            return;
+        }
+        String prefix = "{\"node\":\"" + nodeId + "\",";
+        List<String> events = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        List<String> changes = new ArrayList<>();
+        List<String> directory = new ArrayList<>();
+        int size = 0;
+        for (Outgoing item : pending) {
+            int itemBytes = item.json().getBytes(StandardCharsets.UTF_8).length + 1;
+            if (prefix.length() + itemBytes + ENVELOPE_BYTES > maxPayloadBytes) {
+                log.warn("Mensaje de {} bytes demasiado grande para el bus, no se reenvía", itemBytes);
+                droppedMessages.increment();
+                continue;
+            }
+            if (prefix.length() + size + itemBytes + ENVELOPE_BYTES > maxPayloadBytes) {
+                notify(prefix, events, messages, changes, directory);
+                events.clear();
+                messages.clear();
+                changes.clear();
+                directory.clear();
+                size = 0;
+            }
+            switch (item.kind()) {
+                case EVENT -> events.add(item.json());
+                case MESSAGE -> messages.add(item.json());
+                case CHANGE -> changes.add(item.json());
+                case DIRECTORY -> directory.add(item.json());
+            }
+            size += itemBytes;
+        }
+        notify(prefix, events, messages, changes, directory);
+    }
+
+    private void notify(String prefix, List<String> events, List<String> messages, List<String> changes,
+                        List<String> directory) {
+        int count = events.size() + messages.size() + changes.size() + directory.size();
+        if (count == 0) {
+            return;
+        }
+        // Los elementos ya están serializados: se componen sin volver a pasar por Jackson.
+        String payload = prefix + "\"events\":[" + String.join(",", events) + "],\"messages\":[" + String.join(",", messages) +
+                "],\"changes\":[" + String.join(",", changes) + "],\"directory\":[" + String.join(",", directory) + "]}";
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload);
+            sentNotifications.increment();
+            forwardedMessages.increment(count);
+        } catch (Exception e) {
+            log.warn("No se pudo notificar a los demás nodos: {}", e.getMessage());
+            droppedMessages.increment(count);
+        }
+    }
+
+    private void runListenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Conexión de escucha del bus perdida, reintentando en {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        ClusterBatch batch;
+        try {
+            batch = objectMapper.readValue(payload, ClusterBatch.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Notificación del bus ilegible, se descarta: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(batch.node())) {
+            return;
+        }
+        receivedNotifications.increment();
+        try {
+            if (batch.events() != null && !batch.events().isEmpty()) {
+                eventPublisher.publishEvent(new RemoteVehicleEventsReceivedEvent(batch.node(), batch.events()));
+            }
+            if (batch.messages() != null) {
+                batch.messages().forEach(message -> messagingTemplate.convertAndSend(message.destination(), message.payload()));
+            }
+            if (batch.changes() != null) {
+                batch.changes().forEach(change -> eventPublisher.publishEvent(
+                        new RemoteAnalyticsDataChangedEvent(batch.node(), change.startDate(), change.endDate())));
+            }
+            if (batch.directory() != null) {
+                batch.directory().forEach(change -> eventPublisher.publishEvent(
+                        new RemoteFleetDirectoryChangedEvent(batch.node(), change.type(), change.id())));
+            }
+        } catch (Exception e) {
+            log.error("Error al difundir una notificación del nodo {}: {}", batch.node(), e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flush();
+        running = false;
+        if (listener != null) {
+            listener.join(pollTimeoutMs * 2L);
+        }
+    }
+
+    private enum Kind {
+        EVENT,
+        MESSAGE,
+        CHANGE,
+        DIRECTORY
+    }
+
+    private record Outgoing(Kind kind, String json) {
+    }
+}
@@ -1,16 +1,63 @@
 package com.safetrack.config;
 
+import com.safetrack.ingestion.IngestionAdmissionInterceptor;
+import com.safetrack.ingestion.ReceiptSender;
+import com.safetrack.ingestion.ShardedIngestionDispatcher;
+import com.safetrack.ingestion.VehicleEventBinaryConverter;
+import com.safetrack.security.StompAuthenticationInterceptor;
+import com.safetrack.websocket.SlowConsumerGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
 
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ObjectProvider<ShardedIngestionDispatcher> ingestionDispatcher;
+    private final ObjectProvider<ReceiptSender> receiptSender;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final SlowConsumerGuard slowConsumerGuard;
+    private final StompAuthenticationInterceptor stompAuthenticationInterceptor;
+
+    @Value("${safetrack.websocket.inbound.pool-size:8}")
+    private int inboundPoolSize;
+    @Value("${safetrack.websocket.inbound.queue-capacity:2000}")
+    private int inboundQueueCapacity;
+    @Value("${safetrack.websocket.inbound.admission-threshold:1500}")
+    private int inboundAdmissionThreshold;
+    @Value("${safetrack.websocket.inbound.shard-admission-threshold:0.9}")
+    private double shardAdmissionThreshold;
+    @Value("${safetrack.websocket.outbound.pool-size:8}")
+    private int outboundPoolSize;
+    @Value("${safetrack.websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+
+    public WebSocketConfig(ObjectProvider<ShardedIngestionDispatcher> ingestionDispatcher,
+                           ObjectProvider<ReceiptSender> receiptSender,
+                           ObjectProvider<MeterRegistry> meterRegistry,
+                           SlowConsumerGuard slowConsumerGuard,
+                           StompAuthenticationInterceptor stompAuthenticationInterceptor) {
+        this.ingestionDispatcher = ingestionDispatcher;
+        this.receiptSender = receiptSender;
+        this.meterRegistry = meterRegistry;
+        this.slowConsumerGuard = slowConsumerGuard;
+        this.stompAuthenticationInterceptor = stompAuthenticationInterceptor;
+    }
+
 
     /**
      * @param registry
@@ -32,14 +79,73 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      * Configura el MessageBroker.
      * Establece el prefijo "/app" para los destinos de las aplicaciones, lo que significa que los mensajes
      * enviados a destinos que comienzan con "/app" serán enrutados a los métodos @MessageMapping.
-     * Habilita un SimpleBroker para el prefijo "/topic", permitiendo que los clientes se suscriban a temas.
+     * Habilita un SimpleBroker para el prefijo "/topic", permitiendo que los clientes se suscriban a temas,
+     * y "/queue" para los destinos privados de cada sesión (ej. "/user/queue/replay").
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // "/app" los mensajes llegara al backend
         config.setApplicationDestinationPrefixes("/app");
         // "/topic" los mensajes llegara al frontend
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic", "/queue");
+    }
+
+    /**
+     * @param registration
+     * Canal de entrada (cliente -> servidor) con pool y cola acotados.
+     * El interceptor de admisión rechaza los SEND de ingesta antes de que la cola se llene, con un RECEIPT de reintento;
+     * si aun así se llena, el mensaje se procesa en el hilo que lee la sesión (contrapresión sobre ese cliente)
+     * en lugar de rechazarse con un frame ERROR que cerraría la sesión.
+     * Antes se autentica el CONNECT y se comprueban los permisos de los comandos de reproducción
+     * (ver StompAuthenticationInterceptor).
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        ThreadPoolTaskExecutor executor = boundedExecutor("ws-inbound-", inboundPoolSize, inboundQueueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        registration.taskExecutor(executor);
+        registration.interceptors(stompAuthenticationInterceptor, new IngestionAdmissionInterceptor(executor, ingestionDispatcher, receiptSender,
+                meterRegistry.getObject(), inboundAdmissionThreshold, shardAdmissionThreshold));
+    }
+
+    /**
+     * @param registration
+     * Canal de salida (servidor -> cliente) con pool y cola acotados.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(boundedExecutor("ws-outbound-", outboundPoolSize, outboundQueueCapacity));
+    }
+
+    /**
+     * @param registration
+     * Cada sesión envía de forma asíncrona con un buffer acotado (ver SlowConsumerGuard), de modo que un
+     * cliente lento no bloquea los hilos del canal de salida ni retrasa al resto de suscriptores.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(slowConsumerGuard::decorate);
+    }
+
+    /**
+     * @param messageConverters
+     * Añade la codificación binaria compacta de eventos, que solo se aplica a frames con
+     * content-type "application/x-safetrack-event". Se conservan los conversores por defecto (JSON).
+     */
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new VehicleEventBinaryConverter());
+        return true;
+    }
+
+    private static ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
     }
 
 
@@ -0,0 +1,155 @@
+package com.safetrack.config.boot;
+
+import com.safetrack.domain.dto.request.VehicleEventFilterRequest;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.repository.VehicleEventRepository;
+import com.safetrack.repository.specification.VehicleEventSpecification;
+import com.safetrack.service.Impl.EventReplayServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Comprueba al arrancar que las consultas de los repositorios sobre {@code vehicle_events} usan los índices creados
+ * en {@code V3__vehicle_events_indexes}. Cada consulta se ejecuta de verdad, a través del mismo repositorio,
+ * especificación o SQL que usa la aplicación, con parámetros que no devuelven casi nada (un conductor o vehículo
+ * inexistente, la última hora), y se mira en las estadísticas de la propia transacción
+ * ({@code pg_stat_get_xact_numscans}) si su índice se recorrió. Así se comprueba el SQL real y el plan que el
+ * planificador elige con el recorrido secuencial permitido, no una copia de la consulta.
+ * <p>
+ * Con pocas filas el planificador prefiere con razón el recorrido secuencial, así que la comprobación solo se hace
+ * cuando {@code vehicle_events} tiene al menos {@code min-rows} filas estimadas. Cada consulta se limita a
+ * {@code statement-timeout-ms}: sin su índice no debe alargar el arranque.
+ */
+@Component
+@ConditionalOnProperty(name = "safetrack.db.index-check.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class EventIndexUsageVerifier {
+
+    private static final String ESTIMATED_ROWS_SQL = "SELECT COALESCE(SUM(GREATEST(c.reltuples, 0)), 0) FROM pg_class c " +
+            "WHERE c.oid = to_regclass('vehicle_events') " +
+            "OR c.oid IN (SELECT i.inhrelid FROM pg_inherits i WHERE i.inhparent = to_regclass('vehicle_events'))";
+
+    /** Recorridos del índice (o de sus copias en cada partición) hechos en la transacción actual. */
+    private static final String INDEX_SCANS_SQL = "SELECT COALESCE(SUM(pg_stat_get_xact_numscans(c.oid)), 0) FROM pg_class c " +
+            "WHERE c.oid = to_regclass(?) " +
+            "OR c.oid IN (SELECT i.inhrelid FROM pg_inherits i WHERE i.inhparent = to_regclass(?))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final VehicleEventRepository vehicleEventRepository;
+    private final VehicleEventSpecification vehicleEventSpecification;
+    private final boolean failOnUnused;
+    private final long minRows;
+    private final long statementTimeoutMillis;
+
+    public EventIndexUsageVerifier(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   VehicleEventRepository vehicleEventRepository,
+                                   VehicleEventSpecification vehicleEventSpecification,
+                                   @Value("${safetrack.db.index-check.fail-on-unused:false}") boolean failOnUnused,
+                                   @Value("${safetrack.db.index-check.min-rows:100000}") long minRows,
+                                   @Value("${safetrack.db.index-check.statement-timeout-ms:5000}") long statementTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.vehicleEventRepository = vehicleEventRepository;
+        this.vehicleEventSpecification = vehicleEventSpecification;
+        this.failOnUnused = failOnUnused;
+        this.minRows = minRows;
+        this.statementTimeoutMillis = statementTimeoutMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        Long estimatedRows = jdbcTemplate.queryForObject(ESTIMATED_ROWS_SQL, Long.class);
+        if (estimatedRows == null || estimatedRows < minRows) {
+            log.info("Comprobación de índices de vehicle_events omitida: {} filas estimadas (mínimo {})", estimatedRows, minRows);
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant hourAgo = now.minus(1, ChronoUnit.HOURS);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate weekAgo = today.minusDays(7);
+        UUID unknownId = UUID.randomUUID();
+        Pageable firstPage = PageRequest.of(0, 20, Sort.by("timestamp"));
+
+        List<IndexCheck> checks = List.of(
+                new IndexCheck("métricas en vivo al arrancar", "idx_vehicle_events_timestamp_brin",
+                        () -> vehicleEventRepository.countByMinuteTypeAndLevelSince(hourAgo)),
+                new IndexCheck("estado de la flota al arrancar", "idx_vehicle_events_timestamp_brin",
+                        () -> vehicleEventRepository.findByTimestampGreaterThanEqualOrderByTimestampAsc(now)),
+                new IndexCheck("búsqueda de eventos de un conductor por fechas", "idx_vehicle_events_driver_timestamp",
+                        () -> vehicleEventRepository.findAll(vehicleEventSpecification.getSpecification(
+                                filter(weekAgo, today, unknownId, null)), firstPage)),
+                new IndexCheck("reproducción del historial de un vehículo", "idx_vehicle_events_vehicle_timestamp",
+                        () -> jdbcTemplate.queryForList(EventReplayServiceImpl.REPLAY_SQL, unknownId,
+                                Timestamp.from(hourAgo), Timestamp.from(now), 200, 0)),
+                new IndexCheck("búsqueda de eventos críticos por fechas", "idx_vehicle_events_critical_timestamp",
+                        () -> vehicleEventRepository.findAll(vehicleEventSpecification.getSpecification(
+                                filter(today, today, null, FatigueLevel.ALTO)), firstPage)),
+                new IndexCheck("búsqueda de eventos críticos de un conductor", "idx_vehicle_events_critical_driver_timestamp",
+                        () -> vehicleEventRepository.findAll(vehicleEventSpecification.getSpecification(
+                                filter(weekAgo, today, unknownId, FatigueLevel.ALTO)), firstPage)));
+
+        List<String> unused = new ArrayList<>();
+        for (IndexCheck check : checks) {
+            try {
+                Long scans = readOnlyTransaction.execute(status -> {
+                    jdbcTemplate.execute("SET LOCAL statement_timeout = " + Math.max(1, statementTimeoutMillis));
+                    // Los recorridos de los procesos paralelos no cuentan en las estadísticas de esta transacción.
+                    jdbcTemplate.execute("SET LOCAL max_parallel_workers_per_gather = 0");
+                    check.query().run();
+                    return jdbcTemplate.queryForObject(INDEX_SCANS_SQL, Long.class, check.index(), check.index());
+                });
+                if (scans == null || scans == 0) {
+                    log.warn("La consulta de {} no usa el índice {}", check.description(), check.index());
+                    unused.add(check.index());
+                } else {
+                    log.debug("La consulta de {} usa el índice {}", check.description(), check.index());
+                }
+            } catch (RuntimeException e) {
+                log.warn("La consulta de {} no terminó en {} ms o falló; se da por no indexada: {}",
+                        check.description(), statementTimeoutMillis, e.getMessage());
+                unused.add(check.index());
+            }
+        }
+
+        if (unused.isEmpty()) {
+            log.info("Índices de vehicle_events verificados: {} consultas usan su índice", checks.size());
+        } else if (failOnUnused) {
+            throw new IllegalStateException("Consultas sobre vehicle_events sin su índice: " + unused);
+        }
+    }
+
+    private static VehicleEventFilterRequest filter(LocalDate startDate, LocalDate endDate, UUID driverId,
+                                                    FatigueLevel fatigueLevel) {
+        return new VehicleEventFilterRequest(startDate, endDate, driverId, null, fatigueLevel, null, null, null);
+    }
+
+    /**
+     * @param index Índice de la tabla padre; también cuentan los recorridos de su copia en cada partición.
+     * @param query Ejecución real de la consulta, con el mismo código que usa la aplicación.
+     */
+    private record IndexCheck(String description, String index, Runnable query) {
+    }
+}
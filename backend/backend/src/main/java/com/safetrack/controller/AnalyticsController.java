@@ -1,9 +1,13 @@
 package com.safetrack.controller;
 
+import com.safetrack.domain.dto.response.DashboardResponse;
 import com.safetrack.domain.dto.response.FleetSummaryDataPoint;
+import com.safetrack.domain.dto.response.RollupRebuildResponse;
 import com.safetrack.domain.dto.response.TimelineDataPoint;
 import com.safetrack.domain.dto.response.TopDriverResponse;
 import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.service.AnalyticsDashboardService;
+import com.safetrack.service.AnalyticsRollupService;
 import com.safetrack.service.AnalyticsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +22,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -34,6 +39,8 @@ import java.util.Map;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final AnalyticsDashboardService analyticsDashboardService;
 
     @GetMapping("/alert-distribution")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'GESTOR', 'AUDITOR')")
@@ -79,7 +86,8 @@ public class AnalyticsController {
 
     @GetMapping("/fleet-summary")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'GESTOR', 'AUDITOR')")
-    @Operation(summary = "Obtiene un resumen paginado del estado de la flota, agrupado por conductor")
+    @Operation(summary = "Obtiene un resumen paginado del estado de la flota, agrupado por conductor",
+            description = "Ordenable por alertCount, riskScore, criticalEventsCount, fatigueCount, distractionCount, driverName o vehicleIdentifier")
     public ResponseEntity<Page<FleetSummaryDataPoint>> getFleetSummary(
             @Parameter(description = "Fecha de inicio del filtro (formato YYYY-MM-DD)", example = "2025-01-01")
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -92,4 +100,36 @@ public class AnalyticsController {
         Page<FleetSummaryDataPoint> summaryPage = analyticsService.getFleetSummary(startDate, endDate, pageable);
         return ResponseEntity.ok(summaryPage);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'GESTOR', 'AUDITOR')")
+    @Operation(summary = "Obtiene todas las secciones del panel de analíticas en una sola petición",
+            description = "Calcula en paralelo la distribución de alertas, el top de conductores, la línea de tiempo de eventos críticos " +
+                    "y el resumen de flota. Una sección que falla o agota su tiempo llega vacía y se detalla en 'errors'")
+    public ResponseEntity<DashboardResponse> getDashboard(
+            @Parameter(description = "Fecha de inicio del filtro (formato YYYY-MM-DD)", example = "2025-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+
+            @Parameter(description = "Fecha de fin del filtro (formato YYYY-MM-DD)", example = "2025-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+
+            @PageableDefault(size = 10, sort = "alertCount", direction = Sort.Direction.DESC) Pageable pageable) {
+
+        DashboardResponse dashboard = analyticsDashboardService.getDashboard(startDate, endDate, pageable);
+        return ResponseEntity.ok(dashboard);
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    @Operation(summary = "Recalcula los agregados diarios de un rango de fechas a partir de los eventos en bruto")
+    public ResponseEntity<RollupRebuildResponse> rebuildRollups(
+            @Parameter(description = "Primer día a recalcular (formato YYYY-MM-DD)", example = "2025-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+
+            @Parameter(description = "Último día a recalcular (formato YYYY-MM-DD)", example = "2025-01-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        int days = analyticsRollupService.rebuild(startDate, endDate);
+        return ResponseEntity.ok(new RollupRebuildResponse(startDate, endDate, days));
+    }
+}
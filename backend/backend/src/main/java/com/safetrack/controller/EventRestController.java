@@ -1,17 +1,23 @@
 package com.safetrack.controller;
 
 import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.dto.response.BulkImportResponse;
 import com.safetrack.domain.entity.VehicleEvent;
 import com.safetrack.mapper.VehicleEventMapper;
 import com.safetrack.repository.VehicleEventRepository;
+import com.safetrack.service.EventBulkImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,6 +29,7 @@ public class EventRestController {
 
     private final VehicleEventRepository eventRepository;
     private final VehicleEventMapper eventMapper;
+    private final EventBulkImportService bulkImportService;
 
     @Operation(summary = "Obtener todos los eventos de fatiga")
     @ApiResponse(responseCode = "200", description = "Lista de eventos obtenida exitosamente")
@@ -35,4 +42,16 @@ public class EventRestController {
                 .map(eventMapper::toDto)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Importa en bloque eventos en formato NDJSON (un VehicleEventDTO por línea), por ejemplo
+     * la cola offline que el dispositivo edge acumula mientras no tiene conexión.
+     * El cuerpo se lee en streaming, por lo que su tamaño no está limitado por la memoria del servidor.
+     */
+    @Operation(summary = "Importar eventos de fatiga en bloque (NDJSON)")
+    @ApiResponse(responseCode = "200", description = "Importación completada con el conteo de líneas aceptadas y rechazadas")
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<BulkImportResponse> importEvents(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importNdjson(body));
+    }
+}
@@ -0,0 +1,50 @@
+package com.safetrack.controller;
+
+import com.safetrack.domain.dto.response.FleetStateDelta;
+import com.safetrack.domain.dto.response.FleetStateSnapshot;
+import com.safetrack.service.FleetStateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/fleet/state")
+@RequiredArgsConstructor
+@Tag(name = "Fleet State", description = "Estado actual de la flota en memoria (foto + deltas)")
+@SecurityRequirement(name = "bearerAuth")
+public class FleetStateController {
+
+    private final FleetStateService fleetStateService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'GESTOR', 'AUDITOR')")
+    @Operation(summary = "Obtiene la foto actual de la flota con su versión",
+            description = "Tras cargarla, el cliente aplica los deltas de /topic/fleet-state con versión mayor.")
+    public ResponseEntity<FleetStateSnapshot> getSnapshot() {
+        return ResponseEntity.ok(fleetStateService.getSnapshot());
+    }
+
+    @GetMapping("/deltas")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'GESTOR', 'AUDITOR')")
+    @Operation(summary = "Obtiene los deltas posteriores a una versión",
+            description = "Devuelve 410 Gone si esos deltas ya no se conservan; el cliente debe pedir otra foto.")
+    public ResponseEntity<List<FleetStateDelta>> getDeltas(
+            @Parameter(description = "Última versión aplicada por el cliente", example = "1024")
+            @RequestParam long since) {
+
+        return fleetStateService.getDeltasSince(since)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).build());
+    }
+}
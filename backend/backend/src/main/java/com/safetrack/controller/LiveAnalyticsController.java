@@ -0,0 +1,62 @@
+package com.safetrack.controller;
+
+import com.safetrack.domain.dto.response.LiveTimelinePoint;
+import com.safetrack.domain.dto.response.LiveWindowSummary;
+import com.safetrack.domain.dto.response.TopDriverResponse;
+import com.safetrack.service.LiveMetricsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics/live")
+@RequiredArgsConstructor
+@Tag(name = "Live Analytics", description = "Métricas de las últimas horas servidas desde memoria, sin consultar la base de datos")
+@SecurityRequirement(name = "bearerAuth")
+public class LiveAnalyticsController {
+
+    private final LiveMetricsService liveMetricsService;
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'GESTOR', 'AUDITOR')")
+    @Operation(summary = "Obtiene los conteos por tipo y por nivel de fatiga de la ventana reciente")
+    public ResponseEntity<LiveWindowSummary> getSummary(
+            @Parameter(description = "Tamaño de la ventana en minutos (60 = última hora, 1440 = últimas 24 h)", example = "60")
+            @RequestParam(defaultValue = "60") int windowMinutes) {
+
+        return ResponseEntity.ok(liveMetricsService.getSummary(windowMinutes));
+    }
+
+    @GetMapping("/timeline")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'GESTOR', 'AUDITOR')")
+    @Operation(summary = "Obtiene los conteos minuto a minuto de la ventana reciente")
+    public ResponseEntity<List<LiveTimelinePoint>> getTimeline(
+            @Parameter(description = "Tamaño de la ventana en minutos", example = "60")
+            @RequestParam(defaultValue = "60") int windowMinutes) {
+
+        return ResponseEntity.ok(liveMetricsService.getTimeline(windowMinutes));
+    }
+
+    @GetMapping("/top-drivers")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'GESTOR', 'AUDITOR')")
+    @Operation(summary = "Obtiene los conductores con más eventos en la ventana reciente")
+    public ResponseEntity<List<TopDriverResponse>> getTopDrivers(
+            @Parameter(description = "Tamaño de la ventana en minutos", example = "60")
+            @RequestParam(defaultValue = "60") int windowMinutes,
+
+            @Parameter(description = "Número máximo de conductores", example = "5")
+            @RequestParam(defaultValue = "5") int limit) {
+
+        return ResponseEntity.ok(liveMetricsService.getTopDrivers(windowMinutes, limit));
+    }
+}
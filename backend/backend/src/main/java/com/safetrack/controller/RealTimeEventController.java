@@ -1,13 +1,12 @@
 package com.safetrack.controller;
 
 import com.safetrack.domain.dto.VehicleEventDTO;
-import com.safetrack.domain.entity.VehicleEvent;
-import com.safetrack.mapper.VehicleEventMapper;
-import com.safetrack.service.EventService;
+import com.safetrack.ingestion.ReceiptTarget;
+import com.safetrack.ingestion.ShardedIngestionDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Controller;
 
 @Controller
@@ -15,28 +14,26 @@ import org.springframework.stereotype.Controller;
 @Slf4j
 public class RealTimeEventController {
 
-    private final EventService eventService;
-    private final VehicleEventMapper vehicleEventMapper;
+    private final ShardedIngestionDispatcher ingestionDispatcher;
 
     /**
      * Maneja los eventos de vehículos recibidos a través de WebSockets.
-     * Este método está configurado para escuchar mensajes en el destino "/vehicle-event"
-     * y enviar el resultado a todos los suscriptores del tema "/topic/vehicle-event".
+     * Este método está configurado para escuchar mensajes en el destino "/vehicle-event".
+     * El evento se entrega al shard de su vehículo, que lo persiste en orden y lo difunde
+     * a los suscriptores de "/topic/vehicle-event", "/topic/vehicles/{id}" y "/topic/drivers/{id}"
+     * (salvo que sea un duplicado).
      *
      * @param eventDTO El objeto VehicleEventDTO que contiene los datos del evento del vehículo.
      *                 Este DTO se recibe del cliente a través del WebSocket.
-     * @return Un VehicleEventDTO que representa el evento del vehículo guardado.
-     *         Este DTO se envía de vuelta a los clientes suscritos al tema.
+     * @param headers  Cabeceras STOMP del frame. Si trae la cabecera "receipt", se responde con un RECEIPT
+     *                 cuando el evento queda persistido.
      */
     @MessageMapping("/vehicle-event")
-    @SendTo("/topic/vehicle-event")
-    public VehicleEventDTO handleFatigueEvent(VehicleEventDTO eventDTO) {
+    public void handleFatigueEvent(VehicleEventDTO eventDTO, StompHeaderAccessor headers) {
 
         // Registra la información del evento de vehículo recibido para depuración.
         log.info("Recibido evento de vehículo: {}", eventDTO);
-        VehicleEvent savedEvent = eventService.saveEvent(eventDTO);
-        return vehicleEventMapper.toDto(savedEvent);
+        ingestionDispatcher.dispatch(eventDTO, ReceiptTarget.of(headers.getSessionId(), headers.getReceipt()));
 
     }
 }
-
@@ -0,0 +1,68 @@
+package com.safetrack.controller;
+
+import com.safetrack.domain.dto.request.ReplayRequest;
+import com.safetrack.domain.dto.request.ReplaySeekRequest;
+import com.safetrack.domain.dto.response.ReplayStatusMessage;
+import com.safetrack.service.EventReplayService;
+import com.safetrack.service.Impl.EventReplayServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.stream.Collectors;
+
+/**
+ * Controles STOMP de la reproducción de eventos históricos.
+ * El cliente se suscribe a "/user/queue/replay" (eventos) y "/user/queue/replay-status" (estado)
+ * y envía los comandos a "/app/replay/*".
+ * Un comando con campos obligatorios ausentes no llega al servicio: se responde con un estado FAILED y el detalle.
+ * Los comandos solo llegan aquí desde sesiones autenticadas con un rol autorizado (ver StompAuthenticationInterceptor).
+ */
+@Controller
+@RequiredArgsConstructor
+public class ReplayController {
+
+    private final EventReplayService eventReplayService;
+
+    @MessageMapping("/replay/start")
+    public void start(@Payload @Validated ReplayRequest request, SimpMessageHeaderAccessor headers) {
+        eventReplayService.start(headers.getSessionId(), request);
+    }
+
+    @MessageMapping("/replay/pause")
+    public void pause(SimpMessageHeaderAccessor headers) {
+        eventReplayService.pause(headers.getSessionId());
+    }
+
+    @MessageMapping("/replay/resume")
+    public void resume(SimpMessageHeaderAccessor headers) {
+        eventReplayService.resume(headers.getSessionId());
+    }
+
+    @MessageMapping("/replay/seek")
+    public void seek(@Payload @Validated ReplaySeekRequest request, SimpMessageHeaderAccessor headers) {
+        eventReplayService.seek(headers.getSessionId(), request);
+    }
+
+    @MessageMapping("/replay/stop")
+    public void stop(SimpMessageHeaderAccessor headers) {
+        eventReplayService.stop(headers.getSessionId());
+    }
+
+    @MessageExceptionHandler(MethodArgumentNotValidException.class)
+    @SendToUser(destinations = EventReplayServiceImpl.STATUS_DESTINATION, broadcast = false)
+    public ReplayStatusMessage handleInvalidRequest(MethodArgumentNotValidException ex) {
+        String message = ex.getBindingResult() == null ? "Petición de reproducción no válida"
+                : ex.getBindingResult().getFieldErrors().stream()
+                        .map(FieldError::getDefaultMessage)
+                        .collect(Collectors.joining("; "));
+        return new ReplayStatusMessage("FAILED", null, null, 0, 0, message);
+    }
+}
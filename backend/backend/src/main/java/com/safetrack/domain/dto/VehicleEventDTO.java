@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -15,14 +16,18 @@ import java.time.Instant;
 @AllArgsConstructor
 public class VehicleEventDTO {
 
-    private String driverId;
-    private String vehicleId;
+    private UUID driverId;
+    private UUID vehicleId;
     private Instant timestamp;
     private FatigueLevel fatigueLevel;
     private FatigueType fatigueType;
     private double eyeClosureDuration;
     private int yawnCount;
     private double blinkRate;
+    /** Eventos agrupados en este; null o 1 si no se agrupó. */
+    private Integer occurrenceCount;
+    private Instant windowStart;
+    private Instant windowEnd;
 
 
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.safetrack.domain.dto.directory;
+
+import com.safetrack.domain.entity.Driver;
+
+import java.util.UUID;
+
+/**
+ * Vista inmutable y ligera de un conductor, mantenida en el directorio en memoria.
+ *
+ * @param id     El ID del conductor.
+ * @param nombre El nombre del conductor.
+ * @param activo Si el conductor está activo.
+ */
+public record DriverDirectoryEntry(UUID id, String nombre, boolean activo) {
+
+    public static DriverDirectoryEntry from(Driver driver) {
+        return new DriverDirectoryEntry(driver.getId(), driver.getNombre(), driver.isActivo());
+    }
+}
@@ -0,0 +1,21 @@
+package com.safetrack.domain.dto.directory;
+
+import com.safetrack.domain.entity.Vehicle;
+
+import java.util.UUID;
+
+/**
+ * Vista inmutable y ligera de un vehículo, mantenida en el directorio en memoria.
+ *
+ * @param id       El ID del vehículo.
+ * @param placa    La matrícula del vehículo.
+ * @param activo   Si el vehículo está activo.
+ * @param driverId El conductor asignado actualmente, o null si no tiene.
+ */
+public record VehicleDirectoryEntry(UUID id, String placa, boolean activo, UUID driverId) {
+
+    public static VehicleDirectoryEntry from(Vehicle vehicle) {
+        UUID driverId = vehicle.getDriver() != null ? vehicle.getDriver().getId() : null;
+        return new VehicleDirectoryEntry(vehicle.getId(), vehicle.getPlaca(), vehicle.isActivo(), driverId);
+    }
+}
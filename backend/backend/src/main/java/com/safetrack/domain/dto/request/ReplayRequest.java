@@ -0,0 +1,28 @@
+package com.safetrack.domain.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Petición para reproducir los eventos históricos de un vehículo entre dos instantes.
+ */
+@Data
+public class ReplayRequest {
+
+    @NotNull(message = "El vehículo es obligatorio")
+    private UUID vehicleId;
+
+    @NotNull(message = "El inicio del rango es obligatorio")
+    private Instant from;
+
+    @NotNull(message = "El fin del rango es obligatorio")
+    private Instant to;
+
+    /**
+     * Factor de velocidad: 1, 10 o 100 veces el tiempo real.
+     */
+    private int speed = 1;
+}
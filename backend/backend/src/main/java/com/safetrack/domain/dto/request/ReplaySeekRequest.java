@@ -0,0 +1,21 @@
+package com.safetrack.domain.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Petición para saltar a otro instante de la reproducción en curso, opcionalmente cambiando la velocidad.
+ */
+@Data
+public class ReplaySeekRequest {
+
+    @NotNull(message = "La posición es obligatoria")
+    private Instant position;
+
+    /**
+     * Nueva velocidad, o null para conservar la actual.
+     */
+    private Integer speed;
+}
@@ -0,0 +1,26 @@
+package com.safetrack.domain.dto.response;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de eventos en formato NDJSON.
+ *
+ * @param accepted   Número de eventos nuevos escritos en la base de datos.
+ * @param duplicates Número de líneas válidas que ya existían y se ignoraron.
+ * @param rejected   Número de líneas descartadas por no ser válidas.
+ * @param errors     Detalle de las primeras líneas rechazadas (limitado para acotar la respuesta).
+ */
+public record BulkImportResponse(
+        long accepted,
+        long duplicates,
+        long rejected,
+        List<LineError> errors
+) {
+
+    /**
+     * @param line    Número de línea (empezando en 1) dentro del cuerpo NDJSON.
+     * @param message Motivo del rechazo.
+     */
+    public record LineError(long line, String message) {
+    }
+}
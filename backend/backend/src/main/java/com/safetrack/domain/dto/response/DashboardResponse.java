@@ -0,0 +1,21 @@
+package com.safetrack.domain.dto.response;
+
+import com.safetrack.domain.enums.FatigueType;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Las cuatro secciones del panel de analíticas calculadas en una sola petición.
+ * Una sección que falla o no termina a tiempo llega como null y su motivo aparece en {@code errors};
+ * el resto del panel se devuelve igualmente.
+ *
+ * @param errors Mensaje de error por nombre de sección; vacío si todas se calcularon.
+ */
+public record DashboardResponse(Map<FatigueType, Long> alertDistribution,
+                                List<TopDriverResponse> topDrivers,
+                                List<TimelineDataPoint> criticalEventsTimeline,
+                                Page<FleetSummaryDataPoint> fleetSummary,
+                                Map<String, String> errors) {
+}
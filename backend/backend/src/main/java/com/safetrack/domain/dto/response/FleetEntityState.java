@@ -0,0 +1,32 @@
+package com.safetrack.domain.dto.response;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Estado actual de un vehículo o de un conductor en el almacén de estado de la flota.
+ *
+ * @param id                 El ID del vehículo o del conductor.
+ * @param currentLevel       El nivel de fatiga de su último evento.
+ * @param lastFatigueType    El tipo de fatiga de su último evento.
+ * @param lastEventAt        La marca de tiempo de su último evento.
+ * @param lastEvent          El último evento completo.
+ * @param eventsLastHour     Eventos con fatiga (nivel distinto de NINGUNO) en la última hora.
+ * @param highAlertsLastHour Eventos de nivel ALTO en la última hora.
+ * @param version            Versión del almacén en la que cambió por última vez.
+ */
+public record FleetEntityState(
+        UUID id,
+        FatigueLevel currentLevel,
+        FatigueType lastFatigueType,
+        Instant lastEventAt,
+        VehicleEventDTO lastEvent,
+        int eventsLastHour,
+        int highAlertsLastHour,
+        long version
+) {
+}
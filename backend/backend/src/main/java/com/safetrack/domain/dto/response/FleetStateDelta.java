@@ -0,0 +1,11 @@
+package com.safetrack.domain.dto.response;
+
+/**
+ * Cambio del estado de la flota provocado por un evento, publicado en {@code /topic/fleet-state}.
+ *
+ * @param version Versión del almacén tras aplicar el cambio.
+ * @param vehicle El nuevo estado del vehículo, o null si el evento no traía vehículo.
+ * @param driver  El nuevo estado del conductor, o null si el evento no traía conductor.
+ */
+public record FleetStateDelta(long version, FleetEntityState vehicle, FleetEntityState driver) {
+}
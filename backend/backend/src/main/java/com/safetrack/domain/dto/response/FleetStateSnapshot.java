@@ -0,0 +1,13 @@
+package com.safetrack.domain.dto.response;
+
+import java.util.List;
+
+/**
+ * Foto del estado de toda la flota. El cliente aplica después los deltas con versión mayor que {@code version}.
+ *
+ * @param version  Versión del almacén en el momento de la foto.
+ * @param vehicles Estado por vehículo.
+ * @param drivers  Estado por conductor.
+ */
+public record FleetStateSnapshot(long version, List<FleetEntityState> vehicles, List<FleetEntityState> drivers) {
+}
@@ -24,4 +24,5 @@ public class FleetSummaryDataPoint {
 
     // Puntuación de riesgo
     private String riskScore; // "Alto", "Medio", "Bajo"
+    private long riskPoints; // Valor numérico del que se deriva riskScore; permite ordenar por riesgo
 }
\ No newline at end of file
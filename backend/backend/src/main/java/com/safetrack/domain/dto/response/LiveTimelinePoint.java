@@ -0,0 +1,13 @@
+package com.safetrack.domain.dto.response;
+
+import java.time.Instant;
+
+/**
+ * Conteo de un minuto de la ventana en vivo.
+ *
+ * @param minute   Inicio del minuto.
+ * @param total    Eventos del minuto.
+ * @param critical Eventos de nivel ALTO del minuto.
+ */
+public record LiveTimelinePoint(Instant minute, long total, long critical) {
+}
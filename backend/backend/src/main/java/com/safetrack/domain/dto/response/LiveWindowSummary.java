@@ -0,0 +1,18 @@
+package com.safetrack.domain.dto.response;
+
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Conteos de eventos de una ventana reciente, calculados en memoria.
+ *
+ * @param windowMinutes Minutos que abarca la ventana, incluido el minuto en curso.
+ * @param from          Inicio del primer minuto de la ventana.
+ * @param to            Instante de la consulta.
+ */
+public record LiveWindowSummary(int windowMinutes, Instant from, Instant to, long total,
+                                Map<FatigueType, Long> byType, Map<FatigueLevel, Long> byLevel) {
+}
@@ -0,0 +1,13 @@
+package com.safetrack.domain.dto.response;
+
+import java.time.Instant;
+
+/**
+ * Aviso enviado por WebSocket cuando el despachador del outbox crea nuevas notificaciones,
+ * para que los paneles refresquen su bandeja.
+ *
+ * @param alerts       Número de alertas repartidas en este lote.
+ * @param dispatchedAt Momento en que se crearon las notificaciones.
+ */
+public record NotificationsDispatchedMessage(int alerts, Instant dispatchedAt) {
+}
@@ -0,0 +1,17 @@
+package com.safetrack.domain.dto.response;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Estado de una reproducción, enviado a la sesión por {@code /user/queue/replay-status}.
+ *
+ * @param state     RUNNING, PAUSED, FINISHED, STOPPED o FAILED.
+ * @param vehicleId El vehículo reproducido.
+ * @param position  Marca de tiempo del último evento enviado (o del punto de inicio).
+ * @param speed     Factor de velocidad actual.
+ * @param sent      Eventos enviados hasta ahora.
+ * @param message   Detalle en caso de error.
+ */
+public record ReplayStatusMessage(String state, UUID vehicleId, Instant position, int speed, long sent, String message) {
+}
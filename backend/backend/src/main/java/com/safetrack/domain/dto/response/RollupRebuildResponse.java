@@ -0,0 +1,9 @@
+package com.safetrack.domain.dto.response;
+
+import java.time.LocalDate;
+
+/**
+ * Resultado de una reconstrucción de los agregados diarios.
+ */
+public record RollupRebuildResponse(LocalDate startDate, LocalDate endDate, int days) {
+}
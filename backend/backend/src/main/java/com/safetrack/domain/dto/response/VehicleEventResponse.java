@@ -25,6 +25,9 @@ public class VehicleEventResponse {
     private double eyeClosureDuration;
     private int yawnCount;
     private double blinkRate;
+    private int occurrenceCount;
+    private Instant windowStart;
+    private Instant windowEnd;
 
     private String driverName;
     private String vehicleIdentifier;
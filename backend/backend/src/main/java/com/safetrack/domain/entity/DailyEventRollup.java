@@ -0,0 +1,55 @@
+package com.safetrack.domain.entity;
+
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Agregado diario de toda la flota por tipo y nivel de fatiga.
+ * Se mantiene al insertar cada lote de eventos (ver AnalyticsRollupService), de modo que las analíticas
+ * leen unas pocas filas por día en lugar de recorrer {@code vehicle_events}. Los días son UTC.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_event_rollups")
+@IdClass(DailyEventRollup.Key.class)
+public class DailyEventRollup {
+
+    @Id
+    @Column(name = "event_date")
+    private LocalDate eventDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private FatigueType fatigueType;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private FatigueLevel fatigueLevel;
+
+    @Column(nullable = false)
+    private long eventCount;
+
+    /**
+     * Mayor duración de cierre de ojos del día, en segundos.
+     */
+    @Column(nullable = false)
+    private double maxEyeClosure;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate eventDate;
+        private FatigueType fatigueType;
+        private FatigueLevel fatigueLevel;
+    }
+}
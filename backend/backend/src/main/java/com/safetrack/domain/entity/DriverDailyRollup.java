@@ -0,0 +1,66 @@
+package com.safetrack.domain.entity;
+
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Agregado diario por conductor, tipo y nivel de fatiga. Días UTC.
+ * Guarda además el último vehículo en el que se vio al conductor ese día, para los resúmenes de flota.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "driver_daily_rollups")
+@IdClass(DriverDailyRollup.Key.class)
+public class DriverDailyRollup {
+
+    @Id
+    @Column(name = "event_date")
+    private LocalDate eventDate;
+
+    @Id
+    @Column(name = "driver_id")
+    private UUID driverId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private FatigueType fatigueType;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private FatigueLevel fatigueLevel;
+
+    @Column(nullable = false)
+    private long eventCount;
+
+    @Column(nullable = false)
+    private double maxEyeClosure;
+
+    /**
+     * Instante del último evento agregado en esta fila y vehículo en el que ocurrió.
+     */
+    @Column(nullable = false)
+    private Instant lastEventAt;
+
+    private UUID lastVehicleId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate eventDate;
+        private UUID driverId;
+        private FatigueType fatigueType;
+        private FatigueLevel fatigueLevel;
+    }
+}
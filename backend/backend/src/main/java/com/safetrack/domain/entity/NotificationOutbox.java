@@ -0,0 +1,40 @@
+package com.safetrack.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Alerta pendiente de convertirse en notificaciones (patrón transactional outbox).
+ * Se escribe en la misma transacción que el evento de fatiga y un despachador en segundo plano
+ * la reparte después a los administradores y gestores.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "notification_outbox")
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * El evento de fatiga que originó la alerta.
+     */
+    @Column(name = "event_id")
+    private UUID eventId;
+
+    @Column(nullable = false)
+    private String message;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -4,6 +4,7 @@ import com.safetrack.domain.enums.FatigueLevel;
 import com.safetrack.domain.enums.FatigueType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -18,8 +19,14 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "vehicle_events")
+@Table(name = "vehicle_events", uniqueConstraints = {
+        // Clave de deduplicación: el edge puede reenviar el mismo evento tras reconectar.
+        @UniqueConstraint(name = "uk_vehicle_events_dedup",
+                columnNames = {"vehicle_id", "driver_id", "timestamp", "fatigue_type"})
+})
 public class VehicleEvent {
+    // La tabla está particionada por mes de timestamp (ver EventPartitionServiceImpl): en la base de datos
+    // la clave primaria es (id, timestamp), aunque el id ya es único por sí solo.
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -74,4 +81,17 @@ public class VehicleEvent {
      * La tasa de parpadeo, otro indicador de fatiga.
      */
     private double blinkRate;
+    /**
+     * Número de eventos que representa esta fila. Es mayor que 1 cuando varios eventos del mismo conductor
+     * y tipo se agruparon en una ventana (ver AlertCoalescer).
+     */
+    @Builder.Default
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private int occurrenceCount = 1;
+    /**
+     * Marca de tiempo del primer y del último evento agrupados; null si el evento no se agrupó.
+     */
+    private Instant windowStart;
+    private Instant windowEnd;
 }
@@ -0,0 +1,13 @@
+package com.safetrack.domain.event;
+
+import java.time.LocalDate;
+
+/**
+ * Evento de aplicación publicado cuando cambian los datos de un rango de días por una vía distinta de la ingesta
+ * en tiempo real (importación masiva, reconstrucción de agregados). Los días son UTC.
+ *
+ * @param startDate Primer día afectado.
+ * @param endDate   Último día afectado.
+ */
+public record AnalyticsDataChangedEvent(LocalDate startDate, LocalDate endDate) {
+}
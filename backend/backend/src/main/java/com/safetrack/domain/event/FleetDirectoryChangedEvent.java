@@ -0,0 +1,18 @@
+package com.safetrack.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Evento de aplicación publicado cuando se crea, modifica o borra un conductor o vehículo, para que los demás nodos
+ * descarten su copia en el directorio en memoria tras el commit.
+ *
+ * @param type Tipo de entrada del directorio.
+ * @param id   ID del conductor o vehículo.
+ */
+public record FleetDirectoryChangedEvent(EntryType type, UUID id) {
+
+    public enum EntryType {
+        DRIVER,
+        VEHICLE
+    }
+}
@@ -0,0 +1,14 @@
+package com.safetrack.domain.event;
+
+import java.time.LocalDate;
+
+/**
+ * Evento de aplicación publicado cuando llega por el bus entre nodos un {@link AnalyticsDataChangedEvent}
+ * confirmado en otro nodo (importación masiva, reconstrucción de agregados). Los días son UTC.
+ *
+ * @param originNode Nodo donde cambiaron los datos.
+ * @param startDate  Primer día afectado.
+ * @param endDate    Último día afectado.
+ */
+public record RemoteAnalyticsDataChangedEvent(String originNode, LocalDate startDate, LocalDate endDate) {
+}
@@ -0,0 +1,14 @@
+package com.safetrack.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Evento de aplicación publicado cuando llega por el bus entre nodos un {@link FleetDirectoryChangedEvent}
+ * confirmado en otro nodo.
+ *
+ * @param originNode Nodo donde cambió el conductor o vehículo.
+ * @param type       Tipo de entrada del directorio.
+ * @param id         ID del conductor o vehículo.
+ */
+public record RemoteFleetDirectoryChangedEvent(String originNode, FleetDirectoryChangedEvent.EntryType type, UUID id) {
+}
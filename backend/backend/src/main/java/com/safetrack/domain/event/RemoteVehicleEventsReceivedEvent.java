@@ -0,0 +1,15 @@
+package com.safetrack.domain.event;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+
+import java.util.List;
+
+/**
+ * Evento de aplicación publicado cuando llegan por el bus entre nodos eventos de fatiga ingeridos en otro nodo.
+ * Los oyentes los tratan como los locales pero sin volver a reenviarlos al bus.
+ *
+ * @param originNode Nodo que ingirió los eventos.
+ * @param events     Los eventos, en el orden en que se difundieron en su nodo.
+ */
+public record RemoteVehicleEventsReceivedEvent(String originNode, List<VehicleEventDTO> events) {
+}
@@ -0,0 +1,21 @@
+package com.safetrack.domain.event;
+
+import com.safetrack.domain.entity.VehicleEvent;
+
+import java.util.List;
+
+/**
+ * Evento de aplicación publicado cuando un lote de eventos de fatiga se inserta en {@code vehicle_events}.
+ * Se publica dentro de la transacción de ingesta; los oyentes que solo deban reaccionar a datos confirmados
+ * usan {@code @TransactionalEventListener}.
+ *
+ * @param events     Los eventos realmente insertados (sin los duplicados descartados por el índice único).
+ * @param bulkImport true si vienen de una importación masiva, que ya sumó sus filas a los agregados diarios
+ *                   y cuyas claves no pasaron por el filtro de duplicados.
+ */
+public record VehicleEventsPersistedEvent(List<VehicleEvent> events, boolean bulkImport) {
+
+    public VehicleEventsPersistedEvent(List<VehicleEvent> events) {
+        this(events, false);
+    }
+}
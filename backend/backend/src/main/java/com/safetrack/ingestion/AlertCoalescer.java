@@ -0,0 +1,186 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa ráfagas de alertas repetidas de un mismo conductor y tipo de fatiga.
+ * Mientras un conductor se duerme, el edge emite CABECEO/MICROSUEÑO varias veces por segundo; dentro de una
+ * ventana configurable esos eventos se funden en uno solo con el número de ocurrencias, el máximo
+ * {@code eyeClosureDuration}, el nivel más alto y los límites de la ventana.
+ * Una escalada a ALTO no espera: la ventana se emite en el acto. Los eventos sin fatiga (tipo NINGUNO) no se agrupan.
+ * Solo se activa con {@code safetrack.ingestion.coalescing.enabled=true}.
+ */
+@Component
+public class AlertCoalescer {
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final Map<WindowKey, Window> windows = new ConcurrentHashMap<>();
+
+    private final Counter absorbed;
+
+    public AlertCoalescer(MeterRegistry meterRegistry,
+                          @Value("${safetrack.ingestion.coalescing.enabled:false}") boolean enabled,
+                          @Value("${safetrack.ingestion.coalescing.window-ms:2000}") long windowMillis) {
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.absorbed = Counter.builder("safetrack.ingestion.coalesced")
+                .description("Eventos fundidos en otro evento de su ventana en lugar de persistirse por separado")
+                .register(meterRegistry);
+        Gauge.builder("safetrack.ingestion.coalescing.windows", windows, Map::size)
+                .description("Ventanas de agrupación abiertas")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Añade un evento a la ventana de su conductor y tipo.
+     * @param event   El evento recibido.
+     * @param receipt Su confirmación pendiente, o null.
+     * @return Los eventos que deben persistirse ya: el propio evento si no es agrupable, la ventana emitida por
+     *         una escalada a ALTO o una ventana vencida que aún no recogió el barrido. Vacía si queda retenido.
+     */
+    public List<CoalescedEvent> offer(VehicleEventDTO event, ReceiptTarget receipt) {
+        if (event.getFatigueType() == null || event.getFatigueType() == FatigueType.NINGUNO) {
+            return List.of(CoalescedEvent.single(event, receipt));
+        }
+        WindowKey key = new WindowKey(event.getDriverId(), event.getFatigueType());
+        long now = System.nanoTime();
+        List<CoalescedEvent> ready = new ArrayList<>(2);
+        windows.compute(key, (k, window) -> {
+            if (window == null || window.isExpired(now, windowNanos)) {
+                if (window != null && window.hasPending()) {
+                    ready.add(window.drain());
+                }
+                window = new Window(now);
+            }
+            if (window.add(event, receipt)) {
+                absorbed.increment();
+            }
+            if (event.getFatigueLevel() == FatigueLevel.ALTO && !window.escalated) {
+                window.escalated = true;
+                ready.add(window.drain());
+            }
+            return window;
+        });
+        return ready;
+    }
+
+    /**
+     * Cierra las ventanas vencidas.
+     * @return Los eventos agrupados que deben persistirse.
+     */
+    public List<CoalescedEvent> drainExpired() {
+        return drain(System.nanoTime(), false);
+    }
+
+    /**
+     * Cierra todas las ventanas, vencidas o no (parada de la aplicación).
+     */
+    public List<CoalescedEvent> drainAll() {
+        return drain(System.nanoTime(), true);
+    }
+
+    private List<CoalescedEvent> drain(long now, boolean all) {
+        List<CoalescedEvent> ready = new ArrayList<>();
+        for (WindowKey key : windows.keySet()) {
+            windows.computeIfPresent(key, (k, window) -> {
+                if (!all && !window.isExpired(now, windowNanos)) {
+                    return window;
+                }
+                if (window.hasPending()) {
+                    ready.add(window.drain());
+                }
+                return null;
+            });
+        }
+        return ready;
+    }
+
+    private record WindowKey(UUID driverId, FatigueType fatigueType) {
+    }
+
+    /**
+     * Estado de una ventana. Solo se modifica dentro de {@code compute}, que serializa el acceso por clave.
+     */
+    private static final class Window {
+        private final long openedAtNanos;
+        private final List<ReceiptTarget> receipts = new ArrayList<>();
+        private final List<EventKey> keys = new ArrayList<>();
+        private VehicleEventDTO aggregate;
+        private boolean escalated;
+
+        private Window(long openedAtNanos) {
+            this.openedAtNanos = openedAtNanos;
+        }
+
+        private boolean isExpired(long now, long windowNanos) {
+            return now - openedAtNanos >= windowNanos;
+        }
+
+        private boolean hasPending() {
+            return aggregate != null;
+        }
+
+        /**
+         * @return true si el evento se fundió con otros ya retenidos.
+         */
+        private boolean add(VehicleEventDTO event, ReceiptTarget receipt) {
+            if (receipt != null) {
+                receipts.add(receipt);
+            }
+            keys.add(EventKey.of(event));
+            if (aggregate == null) {
+                aggregate = VehicleEventDTO.builder()
+                        .driverId(event.getDriverId())
+                        .vehicleId(event.getVehicleId())
+                        .timestamp(event.getTimestamp())
+                        .fatigueLevel(event.getFatigueLevel())
+                        .fatigueType(event.getFatigueType())
+                        .eyeClosureDuration(event.getEyeClosureDuration())
+                        .yawnCount(event.getYawnCount())
+                        .blinkRate(event.getBlinkRate())
+                        .occurrenceCount(1)
+                        .windowStart(event.getTimestamp())
+                        .windowEnd(event.getTimestamp())
+                        .build();
+                return false;
+            }
+            aggregate.setOccurrenceCount(aggregate.getOccurrenceCount() + 1);
+            aggregate.setWindowEnd(event.getTimestamp());
+            aggregate.setEyeClosureDuration(Math.max(aggregate.getEyeClosureDuration(), event.getEyeClosureDuration()));
+            aggregate.setYawnCount(Math.max(aggregate.getYawnCount(), event.getYawnCount()));
+            aggregate.setBlinkRate(event.getBlinkRate());
+            if (event.getFatigueLevel() != null
+                    && (aggregate.getFatigueLevel() == null || event.getFatigueLevel().compareTo(aggregate.getFatigueLevel()) > 0)) {
+                aggregate.setFatigueLevel(event.getFatigueLevel());
+            }
+            return true;
+        }
+
+        private CoalescedEvent drain() {
+            CoalescedEvent ready = new CoalescedEvent(aggregate, List.copyOf(receipts), List.copyOf(keys));
+            aggregate = null;
+            receipts.clear();
+            keys.clear();
+            return ready;
+        }
+    }
+}
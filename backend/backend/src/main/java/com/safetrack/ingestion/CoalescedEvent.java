@@ -0,0 +1,22 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+
+import java.util.List;
+
+/**
+ * Evento listo para persistirse junto con las confirmaciones de todos los frames que agrupa.
+ *
+ * @param event    El evento (agrupado o no).
+ * @param receipts Los RECEIPT pendientes de los frames que representa, en orden de llegada.
+ * @param keys     Las claves de deduplicación de los eventos que agrupa, pendientes hasta que se persista.
+ */
+public record CoalescedEvent(VehicleEventDTO event, List<ReceiptTarget> receipts, List<EventKey> keys) {
+
+    /**
+     * Un evento que no se agrupa con otros.
+     */
+    public static CoalescedEvent single(VehicleEventDTO event, ReceiptTarget receipt) {
+        return new CoalescedEvent(event, receipt == null ? List.of() : List.of(receipt), List.of(EventKey.of(event)));
+    }
+}
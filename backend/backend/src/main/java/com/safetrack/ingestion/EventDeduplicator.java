@@ -0,0 +1,237 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.domain.event.VehicleEventsPersistedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filtro de duplicados en memoria para la ingesta de eventos.
+ * El edge reenvía su cola offline tras reconectar, por lo que el mismo evento puede llegar varias veces.
+ * Cada clave (vehículo, conductor, instante, tipo) se recuerda durante una ventana de tiempo acotada,
+ * repartida en varios mapas (shards) que se purgan periódicamente. Lo que escapa a la ventana lo descarta
+ * el índice único de {@code vehicle_events} con {@code ON CONFLICT DO NOTHING}.
+ * <p>
+ * Una clave admitida queda pendiente hasta que su evento se confirma en base de datos ({@link #markPersisted})
+ * o falla ({@link #forget}). Solo las claves persistidas cuentan como duplicado; una copia que llega mientras
+ * el original está pendiente guarda su RECEIPT junto al del original y se confirma después que él.
+ */
+@Component
+@Slf4j
+public class EventDeduplicator {
+
+    private static final int SHARDS = 16;
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxEntriesPerShard;
+    private final List<Map<EventKey, Entry>> shards;
+
+    private final Counter hits;
+    private final Counter inFlightHits;
+    private final Counter misses;
+    private final Counter storeConflicts;
+
+    public EventDeduplicator(MeterRegistry meterRegistry,
+                             @Value("${safetrack.ingestion.dedup.enabled:true}") boolean enabled,
+                             @Value("${safetrack.ingestion.dedup.window-ms:600000}") long windowMillis,
+                             @Value("${safetrack.ingestion.dedup.max-entries:200000}") int maxEntries) {
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxEntriesPerShard = Math.max(1, maxEntries / SHARDS);
+        List<Map<EventKey, Entry>> maps = new ArrayList<>(SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            maps.add(new ConcurrentHashMap<>());
+        }
+        this.shards = List.copyOf(maps);
+
+        this.hits = Counter.builder("safetrack.ingestion.dedup")
+                .tag("result", "hit")
+                .description("Eventos duplicados descartados por el filtro en memoria")
+                .register(meterRegistry);
+        this.inFlightHits = Counter.builder("safetrack.ingestion.dedup")
+                .tag("result", "in_flight")
+                .description("Copias recibidas mientras el original aún no estaba persistido")
+                .register(meterRegistry);
+        this.misses = Counter.builder("safetrack.ingestion.dedup")
+                .tag("result", "miss")
+                .description("Eventos nuevos que superaron el filtro en memoria")
+                .register(meterRegistry);
+        this.storeConflicts = Counter.builder("safetrack.ingestion.dedup")
+                .tag("result", "store_conflict")
+                .description("Duplicados que escaparon al filtro y descartó el índice único")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Comprueba si el evento ya se vio dentro de la ventana y, si es nuevo, lo registra como pendiente.
+     * @param key     La clave del evento recibido.
+     * @param receipt Su confirmación, o null. Si el original está pendiente, queda retenida hasta
+     *                {@link #markPersisted} o {@link #forget}.
+     * @return NEW si debe persistirse; DUPLICATE si el original ya está persistido y puede confirmarse;
+     *         IN_FLIGHT si el original aún está pendiente.
+     */
+    public Admission admit(EventKey key, ReceiptTarget receipt) {
+        if (!enabled) {
+            return Admission.NEW;
+        }
+        Map<EventKey, Entry> shard = shardFor(key);
+        long now = System.currentTimeMillis();
+        // Shard lleno: no se recuerdan claves nuevas (el índice único sigue protegiendo).
+        boolean full = shard.size() >= maxEntriesPerShard;
+
+        Admission[] admission = {Admission.NEW};
+        shard.compute(key, (k, entry) -> {
+            if (entry == null || entry.expiresAt <= now) {
+                return full ? null : new Entry(now + windowMillis);
+            }
+            if (entry.persisted) {
+                admission[0] = Admission.DUPLICATE;
+            } else {
+                admission[0] = Admission.IN_FLIGHT;
+                if (receipt != null) {
+                    entry.waiting.add(receipt);
+                }
+            }
+            return entry;
+        });
+
+        switch (admission[0]) {
+            case NEW -> misses.increment();
+            case DUPLICATE -> hits.increment();
+            case IN_FLIGHT -> inFlightHits.increment();
+        }
+        return admission[0];
+    }
+
+    /**
+     * Marca como persistidos los eventos de estas claves, una vez confirmada la transacción que los insertó.
+     * A partir de aquí sus copias se descartan como duplicados.
+     * @return Los RECEIPT de las copias recibidas mientras estaban pendientes, que deben enviarse después
+     *         de los del original.
+     */
+    public List<ReceiptTarget> markPersisted(Collection<EventKey> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return List.of();
+        }
+        long now = System.currentTimeMillis();
+        List<ReceiptTarget> waiting = new ArrayList<>();
+        for (EventKey key : keys) {
+            shardFor(key).computeIfPresent(key, (k, entry) -> {
+                waiting.addAll(entry.waiting);
+                entry.waiting.clear();
+                entry.persisted = true;
+                entry.expiresAt = now + windowMillis;
+                return entry;
+            });
+        }
+        return waiting;
+    }
+
+    /**
+     * Recuerda como persistidos los eventos de una importación masiva, que no pasan por {@link #admit}: así una copia
+     * que el edge reenvíe después por WebSocket se confirma como duplicado sin llegar a la base de datos.
+     * Las claves ya presentes no se tocan; si están pendientes, las resuelve su propia ingesta.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventsPersisted(VehicleEventsPersistedEvent persisted) {
+        if (!enabled || !persisted.bulkImport()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (VehicleEvent event : persisted.events()) {
+            EventKey key = EventKey.of(event);
+            Map<EventKey, Entry> shard = shardFor(key);
+            if (shard.size() >= maxEntriesPerShard) {
+                continue;
+            }
+            shard.compute(key, (k, entry) -> {
+                if (entry != null && entry.expiresAt > now) {
+                    return entry;
+                }
+                Entry imported = new Entry(now + windowMillis);
+                imported.persisted = true;
+                return imported;
+            });
+        }
+    }
+
+    /**
+     * Olvida eventos que no llegaron a persistirse, para que su reenvío desde el edge no se tome por duplicado.
+     * @return Los RECEIPT de las copias que esperaban al original; no deben confirmarse.
+     */
+    public List<ReceiptTarget> forget(Collection<EventKey> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return List.of();
+        }
+        List<ReceiptTarget> waiting = new ArrayList<>();
+        for (EventKey key : keys) {
+            Entry removed = shardFor(key).remove(key);
+            if (removed != null) {
+                waiting.addAll(removed.waiting);
+            }
+        }
+        return waiting;
+    }
+
+    /**
+     * Contabiliza los duplicados detectados por la base de datos al insertar.
+     */
+    public void recordStoreConflicts(int count) {
+        if (count > 0) {
+            storeConflicts.increment(count);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${safetrack.ingestion.dedup.sweep-interval-ms:30000}")
+    void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int remaining = 0;
+        for (Map<EventKey, Entry> shard : shards) {
+            shard.values().removeIf(entry -> entry.expiresAt <= now);
+            remaining += shard.size();
+        }
+        log.debug("Ventana de deduplicación purgada, {} claves activas", remaining);
+    }
+
+    private Map<EventKey, Entry> shardFor(EventKey key) {
+        return shards.get(Math.floorMod(key.hashCode(), SHARDS));
+    }
+
+    /**
+     * Resultado de {@link #admit}.
+     */
+    public enum Admission {
+        NEW,
+        DUPLICATE,
+        IN_FLIGHT
+    }
+
+    /**
+     * Estado de una clave. Solo se modifica dentro de {@code compute}, que serializa el acceso por clave.
+     */
+    private static final class Entry {
+        private volatile long expiresAt;
+        private boolean persisted;
+        private final List<ReceiptTarget> waiting = new ArrayList<>(0);
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
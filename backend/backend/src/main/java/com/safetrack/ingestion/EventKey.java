@@ -0,0 +1,22 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.domain.enums.FatigueType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Identidad de un evento para la deduplicación: los mismos campos que el índice único de {@code vehicle_events}.
+ */
+public record EventKey(UUID vehicleId, UUID driverId, Instant timestamp, FatigueType fatigueType) {
+
+    public static EventKey of(VehicleEventDTO event) {
+        return new EventKey(event.getVehicleId(), event.getDriverId(), event.getTimestamp(), event.getFatigueType());
+    }
+
+    public static EventKey of(VehicleEvent event) {
+        return new EventKey(event.getVehicleId(), event.getDriverId(), event.getTimestamp(), event.getFatigueType());
+    }
+}
@@ -0,0 +1,109 @@
+package com.safetrack.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Control de admisión del canal de entrada STOMP.
+ * Rechaza los frames SEND de ingesta cuando la cola del canal o la de algún shard de ingesta supera el umbral
+ * configurado, antes de que el mensaje ocupe memoria en el servidor. El frame se descarta sin error y, si pidió
+ * confirmación, el cliente recibe un RECEIPT con {@code status:retry} y {@code retry-after-ms}: la sesión sigue
+ * abierta y el edge lo reenvía pasada la espera. Los demás frames (CONNECT, SUBSCRIBE, DISCONNECT y los SEND a
+ * otros destinos, como los comandos de reproducción) pasan sin cambios: sus clientes no reenvían lo rechazado.
+ * <p>
+ * Los frames de ingesta se anotan en el {@link ReceiptSender} en el orden en que llegan a su sesión
+ * (este interceptor corre en el hilo que lee la sesión), que es el orden que respetan las confirmaciones acumuladas.
+ */
+@Slf4j
+public class IngestionAdmissionInterceptor implements ChannelInterceptor {
+
+    /** Destino STOMP de los eventos del edge (ver RealTimeEventController). */
+    public static final String INGESTION_DESTINATION = "/app/vehicle-event";
+
+    private final ThreadPoolTaskExecutor inboundExecutor;
+    private final ObjectProvider<ShardedIngestionDispatcher> dispatcher;
+    private final ObjectProvider<ReceiptSender> receiptSender;
+    private final int inboundQueueThreshold;
+    private final double shardThreshold;
+
+    private final Counter inboundRejections;
+    private final Counter shardRejections;
+
+    /**
+     * @param inboundExecutor       El executor del canal de entrada, cuya cola se vigila.
+     * @param dispatcher            El dispatcher de ingesta; se resuelve de forma perezosa.
+     * @param receiptSender         El emisor de RECEIPT; se resuelve de forma perezosa.
+     * @param inboundQueueThreshold Número de mensajes en cola a partir del cual se rechaza.
+     * @param shardThreshold        Ocupación (0-1) del shard más cargado a partir de la cual se rechaza.
+     */
+    public IngestionAdmissionInterceptor(ThreadPoolTaskExecutor inboundExecutor,
+                                         ObjectProvider<ShardedIngestionDispatcher> dispatcher,
+                                         ObjectProvider<ReceiptSender> receiptSender,
+                                         MeterRegistry meterRegistry,
+                                         int inboundQueueThreshold,
+                                         double shardThreshold) {
+        this.inboundExecutor = inboundExecutor;
+        this.dispatcher = dispatcher;
+        this.receiptSender = receiptSender;
+        this.inboundQueueThreshold = inboundQueueThreshold;
+        this.shardThreshold = shardThreshold;
+        this.inboundRejections = rejectionCounter(meterRegistry, "inbound_queue");
+        this.shardRejections = rejectionCounter(meterRegistry, "shard_queue");
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("safetrack.websocket.admission.rejected")
+                .tag("reason", reason)
+                .description("Frames SEND rechazados por saturación del servidor")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SEND
+                || !INGESTION_DESTINATION.equals(accessor.getDestination())) {
+            return message;
+        }
+
+        ReceiptTarget target = ReceiptTarget.of(accessor.getSessionId(), accessor.getReceipt());
+        ReceiptSender receipts = receiptSender.getIfAvailable();
+        // También se anotan los frames rechazados: parten el tramo de confirmaciones acumuladas en que caen.
+        if (receipts != null) {
+            receipts.register(target);
+        }
+        int queued = inboundExecutor.getQueueSize();
+        if (queued >= inboundQueueThreshold) {
+            inboundRejections.increment();
+            return shed(target, "cola de entrada con " + queued + " mensajes");
+        }
+        ShardedIngestionDispatcher shards = dispatcher.getIfAvailable();
+        if (shards != null && shards.saturation() >= shardThreshold) {
+            shardRejections.increment();
+            return shed(target, "shard de ingesta saturado");
+        }
+        return message;
+    }
+
+    /**
+     * Descarta el frame sin pasar por el frame ERROR, que cerraría la sesión.
+     * @return null, para que el canal no entregue el mensaje.
+     */
+    private Message<?> shed(ReceiptTarget target, String detail) {
+        log.warn("Frame SEND rechazado por saturación: {}", detail);
+        ReceiptSender receipts = receiptSender.getIfAvailable();
+        if (receipts != null) {
+            receipts.retryLater(target);
+        }
+        return null;
+    }
+}
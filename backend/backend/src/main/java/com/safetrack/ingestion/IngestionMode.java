@@ -0,0 +1,11 @@
+package com.safetrack.ingestion;
+
+/**
+ * Estrategia de persistencia de los eventos recibidos por WebSocket.
+ */
+public enum IngestionMode {
+    /** Una transacción y un INSERT por evento, en el hilo que recibe el mensaje. */
+    DIRECT,
+    /** Buffer write-behind en memoria vaciado en lotes JDBC por tamaño o tiempo. */
+    BATCHED
+}
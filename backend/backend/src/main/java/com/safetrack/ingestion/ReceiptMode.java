@@ -0,0 +1,15 @@
+package com.safetrack.ingestion;
+
+/**
+ * Forma de confirmar al cliente los eventos persistidos.
+ */
+public enum ReceiptMode {
+    /** Un RECEIPT por cada frame SEND que lo pidió. */
+    PER_MESSAGE,
+    /**
+     * Un RECEIPT por tramo de frames consecutivos de una sesión, enviado cuando todos los frames anteriores de la
+     * sesión ya están resueltos. Lleva {@code receipt-mode:cumulative} y {@code receipt-from} con el primer frame
+     * del tramo; el cliente da por confirmados los frames enviados entre {@code receipt-from} y {@code receipt-id}.
+     */
+    CUMULATIVE
+}
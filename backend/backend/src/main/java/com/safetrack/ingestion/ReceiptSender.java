@@ -0,0 +1,324 @@
+package com.safetrack.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Envía frames RECEIPT a los clientes STOMP una vez que sus eventos están persistidos,
+ * de modo que el edge solo borre de su cola offline lo que el backend ya guardó (entrega al menos una vez).
+ * <p>
+ * Un frame que no puede persistirse ahora recibe un RECEIPT con {@code status:retry} y {@code retry-after-ms}:
+ * el edge lo conserva y lo reenvía más tarde, sin cerrar la sesión. Uno que no podrá persistirse nunca (p. ej. un
+ * conductor o vehículo inexistente) recibe {@code status:rejected} y el edge lo descarta.
+ * <p>
+ * En modo CUMULATIVE se registra el orden de llegada de los frames de cada sesión ({@link #register}) y solo se
+ * confirma el tramo inicial de frames ya resueltos, nunca uno con frames anteriores aún pendientes. Los frames
+ * pendientes más allá de {@code pending-timeout-ms} se devuelven con {@code status:retry} para no bloquear la sesión.
+ */
+@Component
+@Slf4j
+public class ReceiptSender {
+
+    public static final String MODE_HEADER = "receipt-mode";
+    public static final String FROM_HEADER = "receipt-from";
+    public static final String STATUS_HEADER = "status";
+    public static final String RETRY_AFTER_HEADER = "retry-after-ms";
+
+    private static final String RETRY = "retry";
+    private static final String REJECTED = "rejected";
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+    private final MessageChannel clientOutboundChannel;
+    private final ReceiptMode mode;
+    private final long retryAfterMillis;
+    private final long pendingTimeoutMillis;
+    private final Map<String, SessionReceipts> sessions = new ConcurrentHashMap<>();
+    private final Counter receiptsSent;
+    private final Counter retriesSent;
+    private final Counter rejectionsSent;
+
+    public ReceiptSender(@Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                         MeterRegistry meterRegistry,
+                         @Value("${safetrack.ingestion.receipts.mode:PER_MESSAGE}") ReceiptMode mode,
+                         @Value("${safetrack.ingestion.receipts.retry-after-ms:1000}") long retryAfterMillis,
+                         @Value("${safetrack.ingestion.receipts.pending-timeout-ms:60000}") long pendingTimeoutMillis) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.mode = mode;
+        this.retryAfterMillis = retryAfterMillis;
+        this.pendingTimeoutMillis = pendingTimeoutMillis;
+        this.receiptsSent = Counter.builder("safetrack.ingestion.receipts.sent")
+                .tag("mode", mode.name())
+                .description("Frames RECEIPT enviados a los clientes de ingesta")
+                .register(meterRegistry);
+        this.retriesSent = Counter.builder("safetrack.ingestion.receipts.retry")
+                .description("Frames devueltos al cliente para que los reenvíe más tarde")
+                .register(meterRegistry);
+        this.rejectionsSent = Counter.builder("safetrack.ingestion.receipts.rejected")
+                .description("Frames rechazados de forma definitiva por datos no válidos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Anota un frame de ingesta en el orden en que llegó a su sesión. Debe llamarse en el hilo que lee la sesión,
+     * antes de que el frame pase al canal de entrada. Solo tiene efecto en modo CUMULATIVE.
+     * @param target El destino del RECEIPT, o null si el frame no lo pidió.
+     */
+    public void register(ReceiptTarget target) {
+        if (mode == ReceiptMode.CUMULATIVE && target != null) {
+            sessions.computeIfAbsent(target.sessionId(), id -> new SessionReceipts())
+                    .add(target.receiptId(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Confirma un único frame.
+     * @param target El destino del RECEIPT, o null si el frame no lo pidió.
+     */
+    public void acknowledge(ReceiptTarget target) {
+        if (target != null) {
+            acknowledgeBatch(List.of(target));
+        }
+    }
+
+    /**
+     * Confirma los frames de un lote persistido según el modo configurado.
+     * @param targets Los destinos en el orden en que se recibieron los frames; los null se ignoran.
+     */
+    public void acknowledgeBatch(Collection<ReceiptTarget> targets) {
+        resolve(targets, null);
+    }
+
+    /**
+     * Devuelve al cliente frames que no pudieron procesarse, para que los reenvíe pasado {@code retry-after-ms}.
+     * @param targets Los destinos; los null se ignoran.
+     */
+    public void retryLater(Collection<ReceiptTarget> targets) {
+        resolve(targets, RETRY);
+    }
+
+    public void retryLater(ReceiptTarget target) {
+        if (target != null) {
+            retryLater(List.of(target));
+        }
+    }
+
+    /**
+     * Rechaza de forma definitiva frames cuyo evento nunca podrá persistirse; el cliente no debe reenviarlos.
+     * @param targets Los destinos; los null se ignoran.
+     */
+    public void reject(Collection<ReceiptTarget> targets) {
+        resolve(targets, REJECTED);
+    }
+
+    public void reject(ReceiptTarget target) {
+        if (target != null) {
+            reject(List.of(target));
+        }
+    }
+
+    /**
+     * @param status null si los frames se confirman; {@code retry} o {@code rejected} si se devuelven.
+     */
+    private void resolve(Collection<ReceiptTarget> targets, String status) {
+        Set<String> touched = new LinkedHashSet<>();
+        for (ReceiptTarget target : targets) {
+            if (target == null) {
+                continue;
+            }
+            if (status != null) {
+                sendStatus(target, status);
+            }
+            SessionReceipts session = mode == ReceiptMode.CUMULATIVE ? sessions.get(target.sessionId()) : null;
+            if (session != null && session.resolve(target.receiptId(), status != null)) {
+                touched.add(target.sessionId());
+            } else if (status == null) {
+                send(target, null);
+            }
+        }
+        touched.forEach(this::advance);
+    }
+
+    /**
+     * Confirma el tramo inicial de frames resueltos de una sesión, partido por los que se devolvieron.
+     */
+    private void advance(String sessionId) {
+        SessionReceipts session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        for (Run run : session.pollResolved()) {
+            send(new ReceiptTarget(sessionId, run.to()), run.from());
+        }
+    }
+
+    /**
+     * Devuelve los frames que llevan demasiado tiempo pendientes (p. ej. un frame que no llegó a procesarse),
+     * para que el edge los reenvíe y la sesión siga recibiendo confirmaciones.
+     */
+    @Scheduled(fixedDelayString = "${safetrack.ingestion.receipts.sweep-interval-ms:5000}")
+    void expireStalePending() {
+        if (mode != ReceiptMode.CUMULATIVE) {
+            return;
+        }
+        long staleBefore = System.currentTimeMillis() - pendingTimeoutMillis;
+        for (Map.Entry<String, SessionReceipts> entry : sessions.entrySet()) {
+            List<String> stale = entry.getValue().pendingSince(staleBefore);
+            if (!stale.isEmpty()) {
+                log.warn("{} frames de la sesión {} sin resolver tras {} ms, se devuelven al cliente",
+                        stale.size(), entry.getKey(), pendingTimeoutMillis);
+                retryLater(stale.stream().map(receiptId -> new ReceiptTarget(entry.getKey(), receiptId)).toList());
+            }
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    private void send(ReceiptTarget target, String cumulativeFrom) {
+        StompHeaderAccessor accessor = receipt(target);
+        if (cumulativeFrom != null) {
+            accessor.setNativeHeader(MODE_HEADER, "cumulative");
+            accessor.setNativeHeader(FROM_HEADER, cumulativeFrom);
+        }
+        if (deliver(target, accessor)) {
+            receiptsSent.increment();
+        }
+    }
+
+    private void sendStatus(ReceiptTarget target, String status) {
+        StompHeaderAccessor accessor = receipt(target);
+        accessor.setNativeHeader(STATUS_HEADER, status);
+        if (RETRY.equals(status)) {
+            accessor.setNativeHeader(RETRY_AFTER_HEADER, String.valueOf(retryAfterMillis));
+        }
+        if (deliver(target, accessor)) {
+            (RETRY.equals(status) ? retriesSent : rejectionsSent).increment();
+        }
+    }
+
+    private static StompHeaderAccessor receipt(ReceiptTarget target) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.RECEIPT);
+        accessor.setSessionId(target.sessionId());
+        accessor.setReceiptId(target.receiptId());
+        return accessor;
+    }
+
+    private boolean deliver(ReceiptTarget target, StompHeaderAccessor accessor) {
+        try {
+            clientOutboundChannel.send(MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders()));
+            return true;
+        } catch (Exception e) {
+            // Sin RECEIPT el cliente reenviará el evento y la deduplicación lo descartará.
+            log.warn("No se pudo enviar el RECEIPT {} a la sesión {}: {}", target.receiptId(), target.sessionId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Tramo de frames consecutivos confirmados con un único RECEIPT.
+     */
+    private record Run(String from, String to) {
+    }
+
+    /**
+     * Frames de una sesión pendientes de confirmar, en orden de llegada.
+     */
+    private static final class SessionReceipts {
+
+        private final LinkedHashMap<String, Frame> frames = new LinkedHashMap<>();
+
+        synchronized void add(String receiptId, long now) {
+            frames.put(receiptId, new Frame(now));
+        }
+
+        /**
+         * @param returned true si el frame se devolvió al cliente en lugar de confirmarse.
+         * @return false si el frame no estaba registrado (y debe confirmarse por separado).
+         */
+        synchronized boolean resolve(String receiptId, boolean returned) {
+            Frame frame = frames.get(receiptId);
+            if (frame == null) {
+                return false;
+            }
+            frame.state = returned ? FrameState.RETURNED : FrameState.CONFIRMED;
+            return true;
+        }
+
+        /**
+         * Retira los frames resueltos del inicio de la cola.
+         * @return Los tramos de frames confirmados, separados por los devueltos (que el cliente ya conoce).
+         */
+        synchronized List<Run> pollResolved() {
+            List<Run> runs = new ArrayList<>(1);
+            String from = null;
+            String to = null;
+            Iterator<Map.Entry<String, Frame>> it = frames.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Frame> frame = it.next();
+                if (frame.getValue().state == FrameState.PENDING) {
+                    break;
+                }
+                it.remove();
+                if (frame.getValue().state == FrameState.CONFIRMED) {
+                    from = from == null ? frame.getKey() : from;
+                    to = frame.getKey();
+                } else if (from != null) {
+                    runs.add(new Run(from, to));
+                    from = null;
+                }
+            }
+            if (from != null) {
+                runs.add(new Run(from, to));
+            }
+            return runs;
+        }
+
+        synchronized List<String> pendingSince(long staleBefore) {
+            List<String> stale = new ArrayList<>();
+            frames.forEach((receiptId, frame) -> {
+                if (frame.state == FrameState.PENDING && frame.receivedAtMillis < staleBefore) {
+                    stale.add(receiptId);
+                }
+            });
+            return stale;
+        }
+    }
+
+    private enum FrameState {
+        PENDING,
+        CONFIRMED,
+        RETURNED
+    }
+
+    private static final class Frame {
+        private final long receivedAtMillis;
+        private FrameState state = FrameState.PENDING;
+
+        private Frame(long receivedAtMillis) {
+            this.receivedAtMillis = receivedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.safetrack.ingestion;
+
+/**
+ * Destino de un RECEIPT STOMP: la sesión que envió el frame y el valor de su cabecera {@code receipt}.
+ *
+ * @param sessionId La sesión WebSocket del cliente.
+ * @param receiptId El identificador que el cliente puso en la cabecera {@code receipt}.
+ */
+public record ReceiptTarget(String sessionId, String receiptId) {
+
+    /**
+     * @return El destino, o null si el frame no pidió confirmación.
+     */
+    public static ReceiptTarget of(String sessionId, String receiptId) {
+        return sessionId == null || receiptId == null ? null : new ReceiptTarget(sessionId, receiptId);
+    }
+}
@@ -0,0 +1,13 @@
+package com.safetrack.ingestion;
+
+/**
+ * Comportamiento del dispatcher de ingesta cuando la cola de un shard está llena.
+ */
+public enum ShardFullPolicy {
+    /** El hilo que recibe el mensaje espera a que haya hueco (contrapresión hacia el canal STOMP). */
+    BLOCK,
+    /** El evento se procesa en el hilo que lo recibe; no garantiza el orden por vehículo. */
+    CALLER_RUNS,
+    /** El evento se descarta, se contabiliza y se pide al cliente que lo reenvíe más tarde (RECEIPT con status:retry). */
+    REJECT
+}
@@ -0,0 +1,197 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.service.EventIngestionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reparte los eventos recibidos por WebSocket entre N shards de un solo hilo según el {@code vehicleId}.
+ * Todos los eventos de un vehículo caen en el mismo shard y se procesan en orden de llegada,
+ * mientras que vehículos distintos avanzan en paralelo sin competir por los mismos recursos.
+ * Cada shard tiene su propia cola acotada; qué ocurre al llenarse lo decide {@link ShardFullPolicy}.
+ */
+@Component
+@Slf4j
+public class ShardedIngestionDispatcher {
+
+    private final EventIngestionService eventIngestionService;
+    private final AlertCoalescer alertCoalescer;
+    private final VehicleEventBroadcaster broadcaster;
+    private final ReceiptSender receiptSender;
+    private final ShardFullPolicy fullPolicy;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor[] shards;
+
+    private final Counter rejected;
+
+    public ShardedIngestionDispatcher(EventIngestionService eventIngestionService,
+                                      AlertCoalescer alertCoalescer,
+                                      VehicleEventBroadcaster broadcaster,
+                                      ReceiptSender receiptSender,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${safetrack.ingestion.shards:0}") int shardCount,
+                                      @Value("${safetrack.ingestion.shard-queue-capacity:1000}") int queueCapacity,
+                                      @Value("${safetrack.ingestion.shard-full-policy:BLOCK}") ShardFullPolicy fullPolicy) {
+        this.eventIngestionService = eventIngestionService;
+        this.alertCoalescer = alertCoalescer;
+        this.broadcaster = broadcaster;
+        this.receiptSender = receiptSender;
+        this.fullPolicy = fullPolicy;
+        this.queueCapacity = queueCapacity;
+
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new ThreadPoolExecutor[count];
+        RejectedExecutionHandler rejectionHandler = this::onShardFull;
+        for (int i = 0; i < count; i++) {
+            String threadName = "ingest-shard-" + i;
+            ThreadPoolExecutor shard = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    rejectionHandler);
+            shards[i] = shard;
+            Gauge.builder("safetrack.ingestion.shard.queue", shard, s -> s.getQueue().size())
+                    .tag("shard", String.valueOf(i))
+                    .description("Eventos pendientes en la cola del shard de ingesta")
+                    .register(meterRegistry);
+        }
+
+        this.rejected = Counter.builder("safetrack.ingestion.shard.rejected")
+                .tag("policy", fullPolicy.name())
+                .description("Eventos que encontraron llena la cola de su shard")
+                .register(meterRegistry);
+        log.info("Ingesta repartida en {} shards (cola={}, política={})", count, queueCapacity, fullPolicy);
+    }
+
+    /**
+     * Encola el evento en el shard de su vehículo. El shard lo ingiere y, si no era un duplicado,
+     * lo difunde a los temas de la flota, del vehículo y del conductor (ver VehicleEventBroadcaster).
+     * @param eventDTO El evento recibido.
+     * @param receipt  Confirmación pedida por el cliente, o null. Si el shard no acepta el evento, se le pide
+     *                 al cliente que lo reenvíe más tarde.
+     */
+    public void dispatch(VehicleEventDTO eventDTO, ReceiptTarget receipt) {
+        try {
+            shardFor(eventDTO.getVehicleId()).execute(() -> process(eventDTO, receipt));
+        } catch (RejectedExecutionException e) {
+            log.warn("Evento del vehículo {} no admitido: {}", eventDTO.getVehicleId(), e.getMessage());
+            receiptSender.retryLater(receipt);
+        }
+    }
+
+    /**
+     * Ocupación de la cola más cargada, entre 0 y 1. La usa el control de admisión del canal STOMP.
+     */
+    public double saturation() {
+        int deepest = 0;
+        for (ThreadPoolExecutor shard : shards) {
+            deepest = Math.max(deepest, shard.getQueue().size());
+        }
+        return (double) deepest / queueCapacity;
+    }
+
+    /**
+     * Persiste en el shard de cada vehículo las ventanas de agrupación vencidas, para que el evento agrupado
+     * respete el orden de los demás eventos del vehículo.
+     */
+    @Scheduled(fixedDelayString = "${safetrack.ingestion.coalescing.sweep-interval-ms:250}")
+    void flushCoalescedWindows() {
+        if (!alertCoalescer.isEnabled()) {
+            return;
+        }
+        alertCoalescer.drainExpired().forEach(this::dispatchCoalesced);
+    }
+
+    private void process(VehicleEventDTO eventDTO, ReceiptTarget receipt) {
+        try {
+            eventIngestionService.ingest(eventDTO, receipt).forEach(broadcaster::broadcast);
+        } catch (Exception e) {
+            log.error("Error al ingerir el evento del vehículo {}: {}", eventDTO.getVehicleId(), e.getMessage(), e);
+        }
+    }
+
+    private void dispatchCoalesced(CoalescedEvent coalesced) {
+        try {
+            shardFor(coalesced.event().getVehicleId()).execute(() -> processCoalesced(coalesced));
+        } catch (RejectedExecutionException e) {
+            log.warn("Evento agrupado del vehículo {} no admitido: {}", coalesced.event().getVehicleId(), e.getMessage());
+            eventIngestionService.discard(coalesced);
+        }
+    }
+
+    private void processCoalesced(CoalescedEvent coalesced) {
+        try {
+            VehicleEventDTO result = eventIngestionService.ingestCoalesced(coalesced);
+            if (result != null) {
+                broadcaster.broadcast(result);
+            }
+        } catch (Exception e) {
+            log.error("Error al persistir el evento agrupado del vehículo {}: {}",
+                    coalesced.event().getVehicleId(), e.getMessage(), e);
+        }
+    }
+
+    private ThreadPoolExecutor shardFor(UUID vehicleId) {
+        if (vehicleId == null) {
+            return shards[0];
+        }
+        int hash = vehicleId.hashCode();
+        // Mezcla los bits altos para que IDs parecidos no acaben en el mismo shard.
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    private void onShardFull(Runnable task, ThreadPoolExecutor shard) {
+        rejected.increment();
+        if (shard.isShutdown()) {
+            throw new RejectedExecutionException("Shard de ingesta detenido");
+        }
+        switch (fullPolicy) {
+            case BLOCK -> {
+                try {
+                    shard.getQueue().put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrumpido esperando hueco en el shard", e);
+                }
+            }
+            case CALLER_RUNS -> task.run();
+            case REJECT -> throw new RejectedExecutionException("Cola del shard llena");
+        }
+    }
+
+    /**
+     * Emite las ventanas de agrupación abiertas y deja que cada shard termine los eventos que tenga
+     * encolados antes de apagarse.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (alertCoalescer.isEnabled()) {
+            alertCoalescer.drainAll().forEach(this::dispatchCoalesced);
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            if (!shard.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("El shard de ingesta no terminó a tiempo, {} eventos pendientes", shard.getQueue().size());
+            }
+        }
+    }
+}
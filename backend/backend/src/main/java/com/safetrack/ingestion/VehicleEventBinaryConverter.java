@@ -0,0 +1,115 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Codificación binaria compacta de {@link VehicleEventDTO} para el endpoint STOMP.
+ * Se usa solo cuando el frame declara {@code content-type:application/x-safetrack-event}; JSON sigue siendo
+ * el formato por defecto. Formato fijo de 62 bytes, big-endian:
+ * <pre>
+ *  0  driverId            16 bytes (UUID, todo ceros = null)
+ * 16  vehicleId           16 bytes (UUID, todo ceros = null)
+ * 32  timestamp            8 bytes (epoch millis, 0 = null)
+ * 40  fatigueLevel         1 byte  (ordinal, 0xFF = null)
+ * 41  fatigueType          1 byte  (ordinal, 0xFF = null)
+ * 42  eyeClosureDuration   8 bytes (double)
+ * 50  yawnCount            4 bytes (int)
+ * 54  blinkRate            8 bytes (double)
+ * </pre>
+ * El orden de los enums forma parte del formato: añadir valores solo al final.
+ */
+public class VehicleEventBinaryConverter extends AbstractMessageConverter {
+
+    public static final MimeType MIME_TYPE = new MimeType("application", "x-safetrack-event");
+    public static final int FRAME_LENGTH = 62;
+
+    private static final FatigueLevel[] LEVELS = FatigueLevel.values();
+    private static final FatigueType[] TYPES = FatigueType.values();
+    private static final int NULL_ORDINAL = 0xFF;
+
+    public VehicleEventBinaryConverter() {
+        super(MIME_TYPE);
+        // Sin content-type explícito el frame se trata como JSON.
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return VehicleEventDTO.class == clazz;
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] payload)) {
+            return null;
+        }
+        if (payload.length != FRAME_LENGTH) {
+            throw new MessageConversionException(message,
+                    "Evento binario de " + payload.length + " bytes, se esperaban " + FRAME_LENGTH);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return VehicleEventDTO.builder()
+                .driverId(readUuid(buffer))
+                .vehicleId(readUuid(buffer))
+                .timestamp(readInstant(buffer))
+                .fatigueLevel(readEnum(buffer, LEVELS, message))
+                .fatigueType(readEnum(buffer, TYPES, message))
+                .eyeClosureDuration(buffer.getDouble())
+                .yawnCount(buffer.getInt())
+                .blinkRate(buffer.getDouble())
+                .build();
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        VehicleEventDTO event = (VehicleEventDTO) payload;
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_LENGTH);
+        writeUuid(buffer, event.getDriverId());
+        writeUuid(buffer, event.getVehicleId());
+        buffer.putLong(event.getTimestamp() != null ? event.getTimestamp().toEpochMilli() : 0L);
+        buffer.put((byte) (event.getFatigueLevel() != null ? event.getFatigueLevel().ordinal() : NULL_ORDINAL));
+        buffer.put((byte) (event.getFatigueType() != null ? event.getFatigueType().ordinal() : NULL_ORDINAL));
+        buffer.putDouble(event.getEyeClosureDuration());
+        buffer.putInt(event.getYawnCount());
+        buffer.putDouble(event.getBlinkRate());
+        return buffer.array();
+    }
+
+    private static Instant readInstant(ByteBuffer buffer) {
+        long millis = buffer.getLong();
+        return millis == 0L ? null : Instant.ofEpochMilli(millis);
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+
+    private static void writeUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id != null ? id.getMostSignificantBits() : 0L);
+        buffer.putLong(id != null ? id.getLeastSignificantBits() : 0L);
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer buffer, E[] values, Message<?> message) {
+        int ordinal = Byte.toUnsignedInt(buffer.get());
+        if (ordinal == NULL_ORDINAL) {
+            return null;
+        }
+        if (ordinal >= values.length) {
+            throw new MessageConversionException(message, "Ordinal de enum desconocido: " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
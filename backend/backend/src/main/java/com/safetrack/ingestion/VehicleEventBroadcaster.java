@@ -0,0 +1,173 @@
+package com.safetrack.ingestion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetrack.cluster.ClusterBus;
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.event.RemoteVehicleEventsReceivedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Difunde los eventos de fatiga a los temas STOMP.
+ * Cada evento se publica en el tema de toda la flota ({@code /topic/vehicle-event}) y en los temas de su
+ * vehículo ({@code /topic/vehicles/{id}}) y de su conductor ({@code /topic/drivers/{id}}). El broker solo lo
+ * entrega a quien está suscrito a cada destino, de modo que un panel que sigue a unos pocos vehículos no recibe
+ * el tráfico de toda la flota. El JSON se genera una sola vez y se reutiliza en los tres destinos.
+ * <p>
+ * Con {@code safetrack.broadcast.conflation.enabled=true} el tema de la flota deja de recibir un frame por evento:
+ * los eventos se acumulan y se envían como un único array JSON cada {@code interval-ms}, opcionalmente reducidos
+ * al último evento de cada vehículo. Los temas por vehículo y conductor se siguen enviando al momento.
+ * <p>
+ * Cada evento se reenvía también al {@link ClusterBus}, y los que llegan de otros nodos se difunden aquí igual
+ * que los locales, de modo que un panel conectado a cualquier nodo ve la flota completa.
+ */
+@Component
+@Slf4j
+public class VehicleEventBroadcaster {
+
+    public static final String FLEET_DESTINATION = "/topic/vehicle-event";
+    public static final String VEHICLE_DESTINATION_PREFIX = "/topic/vehicles/";
+    public static final String DRIVER_DESTINATION_PREFIX = "/topic/drivers/";
+
+    private final MessageChannel brokerChannel;
+    private final ObjectMapper objectMapper;
+    private final ClusterBus clusterBus;
+    private final boolean conflationEnabled;
+    private final boolean latestPerVehicle;
+    private final int maxFrameEvents;
+    private final Counter published;
+    private final Counter conflated;
+
+    /** Eventos pendientes del tema de la flota; en modo "último por vehículo" se reemplazan por vehículo. */
+    private final Object pendingLock = new Object();
+    private Map<Object, VehicleEventDTO> pending = new LinkedHashMap<>();
+    private int pendingReceived;
+
+    public VehicleEventBroadcaster(@Qualifier("brokerChannel") MessageChannel brokerChannel,
+                                   ObjectMapper objectMapper,
+                                   ClusterBus clusterBus,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${safetrack.broadcast.conflation.enabled:false}") boolean conflationEnabled,
+                                   @Value("${safetrack.broadcast.conflation.latest-per-vehicle:false}") boolean latestPerVehicle,
+                                   @Value("${safetrack.broadcast.conflation.max-frame-events:500}") int maxFrameEvents) {
+        this.brokerChannel = brokerChannel;
+        this.objectMapper = objectMapper;
+        this.clusterBus = clusterBus;
+        this.conflationEnabled = conflationEnabled;
+        this.latestPerVehicle = latestPerVehicle;
+        this.maxFrameEvents = maxFrameEvents;
+        this.published = Counter.builder("safetrack.broadcast.published")
+                .description("Mensajes publicados en los temas de eventos (flota, vehículo y conductor)")
+                .register(meterRegistry);
+        this.conflated = Counter.builder("safetrack.broadcast.conflated")
+                .description("Eventos de la flota que no generaron un frame propio por ir agrupados o reemplazados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica el evento en el tema de la flota y en los de su vehículo y conductor.
+     * @param event El evento persistido.
+     */
+    public void broadcast(VehicleEventDTO event) {
+        broadcastLocally(event);
+        clusterBus.publishEvent(event);
+    }
+
+    /**
+     * Difunde en este nodo los eventos ingeridos en otro.
+     */
+    @EventListener
+    public void onRemoteEvents(RemoteVehicleEventsReceivedEvent remote) {
+        remote.events().forEach(this::broadcastLocally);
+    }
+
+    private void broadcastLocally(VehicleEventDTO event) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar el evento del vehículo {}: {}", event.getVehicleId(), e.getMessage(), e);
+            return;
+        }
+        if (conflationEnabled) {
+            enqueueForFleet(event);
+        } else {
+            send(FLEET_DESTINATION, payload);
+        }
+        send(VEHICLE_DESTINATION_PREFIX, event.getVehicleId(), payload);
+        send(DRIVER_DESTINATION_PREFIX, event.getDriverId(), payload);
+    }
+
+    private void enqueueForFleet(VehicleEventDTO event) {
+        boolean full;
+        synchronized (pendingLock) {
+            // Sin reducción cada evento tiene su propia clave; con ella, el último de cada vehículo sustituye al anterior.
+            Object key = latestPerVehicle && event.getVehicleId() != null ? event.getVehicleId() : new Object();
+            pending.put(key, event);
+            pendingReceived++;
+            full = pending.size() >= maxFrameEvents;
+        }
+        if (full) {
+            flushFleetFrame();
+        }
+    }
+
+    /**
+     * Envía al tema de la flota, como un único array JSON, los eventos acumulados desde el último envío.
+     * El intervalo acota el retraso añadido por la agrupación.
+     */
+    @Scheduled(fixedRateString = "${safetrack.broadcast.conflation.interval-ms:250}")
+    void flushFleetFrame() {
+        if (!conflationEnabled) {
+            return;
+        }
+        Collection<VehicleEventDTO> events;
+        int received;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            events = pending.values();
+            received = pendingReceived;
+            pending = new LinkedHashMap<>();
+            pendingReceived = 0;
+        }
+        conflated.increment(received - 1);
+        try {
+            send(FLEET_DESTINATION, objectMapper.writeValueAsBytes(events));
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar un frame de {} eventos: {}", events.size(), e.getMessage(), e);
+        }
+    }
+
+    private void send(String prefix, UUID id, byte[] payload) {
+        if (id != null) {
+            send(prefix + id, payload);
+        }
+    }
+
+    private void send(String destination, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        brokerChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        published.increment();
+    }
+}
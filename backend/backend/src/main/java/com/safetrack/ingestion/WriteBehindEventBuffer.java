@@ -0,0 +1,243 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.mapper.VehicleEventMapper;
+import com.safetrack.service.EventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer write-behind para los eventos de fatiga.
+ * Los eventos se encolan en memoria (cola acotada) y un hilo dedicado los persiste en lotes JDBC
+ * cuando se alcanza el tamaño de lote o vence el intervalo de vaciado, lo que ocurra primero.
+ * Los eventos se confirman al edge y se difunden a los suscriptores solo después de persistirse.
+ * Solo se activa con {@code safetrack.ingestion.mode=BATCHED}.
+ */
+@Component
+@Slf4j
+public class WriteBehindEventBuffer {
+
+    private final EventService eventService;
+    private final EventDeduplicator eventDeduplicator;
+    private final ReceiptSender receiptSender;
+    private final VehicleEventBroadcaster broadcaster;
+    private final VehicleEventMapper vehicleEventMapper;
+    private final IngestionMode mode;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<PendingEvent> queue;
+
+    private final Timer flushDuration;
+    private final Timer flushLatency;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failedEvents;
+    private final Counter rejectedEvents;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public WriteBehindEventBuffer(EventService eventService,
+                                  EventDeduplicator eventDeduplicator,
+                                  ReceiptSender receiptSender,
+                                  VehicleEventBroadcaster broadcaster,
+                                  VehicleEventMapper vehicleEventMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${safetrack.ingestion.mode:DIRECT}") IngestionMode mode,
+                                  @Value("${safetrack.ingestion.buffer-capacity:10000}") int capacity,
+                                  @Value("${safetrack.ingestion.batch-size:500}") int batchSize,
+                                  @Value("${safetrack.ingestion.flush-interval-ms:200}") long flushIntervalMs) {
+        this.eventService = eventService;
+        this.eventDeduplicator = eventDeduplicator;
+        this.receiptSender = receiptSender;
+        this.broadcaster = broadcaster;
+        this.vehicleEventMapper = vehicleEventMapper;
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        this.flushDuration = Timer.builder("safetrack.ingestion.flush.duration")
+                .description("Tiempo que tarda en persistirse un lote de eventos")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("safetrack.ingestion.flush.latency")
+                .description("Tiempo desde que un evento entra al buffer hasta que queda persistido")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("safetrack.ingestion.batch.size")
+                .description("Número de eventos por lote persistido")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("safetrack.ingestion.flush.failed")
+                .description("Eventos devueltos al edge porque no pudieron persistirse")
+                .register(meterRegistry);
+        this.rejectedEvents = Counter.builder("safetrack.ingestion.flush.rejected")
+                .description("Eventos rechazados de forma definitiva por datos no válidos")
+                .register(meterRegistry);
+        Gauge.builder("safetrack.ingestion.buffer.size", queue, BlockingQueue::size)
+                .description("Eventos pendientes de persistir en el buffer")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return mode == IngestionMode.BATCHED;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "event-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Ingesta write-behind activa (lote={}, intervalo={}ms, capacidad={})",
+                batchSize, TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos), queue.remainingCapacity());
+    }
+
+    /**
+     * Encola un evento para su persistencia diferida.
+     * @param event    Evento con su ID ya asignado.
+     * @param receipts Confirmaciones a enviar al cliente cuando el lote se persista.
+     * @param keys     Claves de deduplicación que representa, pendientes hasta que el lote se persista.
+     * @return false si el buffer está lleno y el evento no fue aceptado.
+     */
+    public boolean submit(VehicleEvent event, List<ReceiptTarget> receipts, List<EventKey> keys) {
+        return queue.offer(new PendingEvent(event, receipts, keys, System.nanoTime()));
+    }
+
+    private void runFlushLoop() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEvent first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Se sigue llenando el lote hasta el tamaño máximo o hasta que venza el intervalo.
+                long deadline = first.enqueuedAtNanos() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Hilo write-behind interrumpido con {} eventos pendientes", queue.size());
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingEvent> batch) {
+        long start = System.nanoTime();
+        List<VehicleEvent> inserted;
+        try {
+            inserted = eventService.saveEvents(batch.stream().map(PendingEvent::event).toList());
+        } catch (Exception e) {
+            log.error("No se pudo persistir un lote de {} eventos, se reintenta fila a fila: {}", batch.size(), e.getMessage());
+            flushRowByRow(batch, e);
+            return;
+        }
+        completed(batch, inserted);
+        long end = System.nanoTime();
+        flushDuration.record(end - start, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+        for (PendingEvent pending : batch) {
+            flushLatency.record(end - pending.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+        log.debug("Lote de {} eventos persistido en {} ms", batch.size(), TimeUnit.NANOSECONDS.toMillis(end - start));
+    }
+
+    /**
+     * Persiste cada evento de un lote fallido en su propia transacción, para que una fila no válida
+     * (p. ej. un conductor inexistente) no arrastre al resto. Las filas con datos no válidos se rechazan
+     * de forma definitiva; ante cualquier otro error (p. ej. la base de datos caída) se deja de intentar
+     * y las filas restantes se devuelven al edge para que las reenvíe.
+     */
+    private void flushRowByRow(List<PendingEvent> batch, Exception batchFailure) {
+        if (batch.size() == 1 && !(batchFailure instanceof DataIntegrityViolationException)) {
+            returnForRetry(batch);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingEvent pending = batch.get(i);
+            try {
+                completed(List.of(pending), eventService.saveEvents(List.of(pending.event())));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Evento {} rechazado por datos no válidos: {}", pending.event().getId(), e.getMostSpecificCause().getMessage());
+                rejectedEvents.increment();
+                List<ReceiptTarget> rejected = new ArrayList<>(pending.receipts());
+                rejected.addAll(eventDeduplicator.forget(pending.keys()));
+                receiptSender.reject(rejected);
+            } catch (Exception e) {
+                log.error("No se pudo persistir el evento {}: {}", pending.event().getId(), e.getMessage(), e);
+                returnForRetry(batch.subList(i, batch.size()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Confirma los eventos ya persistidos (insertados o descartados por el índice único) y difunde los insertados.
+     * Los RECEIPT de las copias que esperaban a su original van detrás de los del lote.
+     */
+    private void completed(List<PendingEvent> persisted, List<VehicleEvent> inserted) {
+        List<ReceiptTarget> receipts = new ArrayList<>(persisted.stream().flatMap(pending -> pending.receipts().stream()).toList());
+        receipts.addAll(eventDeduplicator.markPersisted(persisted.stream().flatMap(pending -> pending.keys().stream()).toList()));
+        receiptSender.acknowledgeBatch(receipts);
+        for (VehicleEvent event : inserted) {
+            broadcaster.broadcast(vehicleEventMapper.toDto(event));
+        }
+    }
+
+    /**
+     * Olvida los eventos para que su reenvío no se descarte como duplicado y se los pide de nuevo al edge.
+     */
+    private void returnForRetry(List<PendingEvent> failed) {
+        failedEvents.increment(failed.size());
+        List<ReceiptTarget> returned = new ArrayList<>(failed.stream().flatMap(pending -> pending.receipts().stream()).toList());
+        returned.addAll(eventDeduplicator.forget(failed.stream().flatMap(pending -> pending.keys().stream()).toList()));
+        receiptSender.retryLater(returned);
+    }
+
+    /**
+     * Detiene el hilo de vaciado tras persistir los eventos que queden en el buffer.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private record PendingEvent(VehicleEvent event, List<ReceiptTarget> receipts, List<EventKey> keys,
+                                long enqueuedAtNanos) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.safetrack.repository;
+
+import com.safetrack.domain.entity.DailyEventRollup;
+import com.safetrack.domain.enums.FatigueLevel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyEventRollupRepository extends JpaRepository<DailyEventRollup, DailyEventRollup.Key> {
+
+    /**
+     * Suma los eventos por tipo de fatiga en un rango de días.
+     * @return Una lista de arrays de objetos. Cada array contiene [FatigueType, Long count].
+     */
+    @Query("SELECT r.fatigueType, SUM(r.eventCount) " +
+            "FROM DailyEventRollup r " +
+            "WHERE r.eventDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.fatigueType")
+    List<Object[]> sumByFatigueType(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Suma por día los eventos de un nivel de fatiga.
+     * @return Una lista de arrays de objetos. Cada array contiene [LocalDate date, Long count], ordenada por día.
+     */
+    @Query("SELECT r.eventDate, SUM(r.eventCount) " +
+            "FROM DailyEventRollup r " +
+            "WHERE r.fatigueLevel = :level " +
+            "AND r.eventDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.eventDate " +
+            "ORDER BY r.eventDate ASC")
+    List<Object[]> sumByDayForLevel(
+            @Param("level") FatigueLevel level,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,30 @@
+package com.safetrack.repository;
+
+import com.safetrack.domain.entity.DriverDailyRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DriverDailyRollupRepository extends JpaRepository<DriverDailyRollup, DriverDailyRollup.Key> {
+
+    /**
+     * Conductores con más eventos en un rango de días.
+     * @return Una lista de arrays de objetos. Cada array contiene [UUID driverId, Long alertCount].
+     */
+    @Query("SELECT r.driverId, SUM(r.eventCount) AS alertCount " +
+            "FROM DriverDailyRollup r " +
+            "WHERE r.eventDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.driverId " +
+            "ORDER BY alertCount DESC")
+    List<Object[]> findTopDriversByEventCount(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable
+    );
+}
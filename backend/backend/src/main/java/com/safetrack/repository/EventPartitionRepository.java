@@ -0,0 +1,173 @@
+package com.safetrack.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL de las particiones de {@code vehicle_events}, particionada por rango de {@code timestamp}
+ * (la tabla y su partición por defecto las crean las migraciones V1 y V2).
+ * Las sentencias DDL no admiten parámetros: los nombres y los límites se generan aquí a partir de fechas,
+ * nunca con datos del cliente. Todos los métodos deben ejecutarse dentro de una transacción que empiece con
+ * {@link #lockMaintenance}, que fija un {@code lock_timeout}: el DDL espera un bloqueo exclusivo y, mientras espera,
+ * bloquea también a las consultas que llegan detrás; con el límite falla rápido y el servicio lo reintenta.
+ * <p>
+ * La separación no usa {@code DETACH PARTITION ... CONCURRENTLY}: PostgreSQL no lo admite en tablas con partición
+ * por defecto, y {@code vehicle_events} la tiene.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventPartitionRepository {
+
+    public static final String PARENT_TABLE = "vehicle_events";
+    public static final String DEFAULT_PARTITION = "vehicle_events_default";
+
+    /** Clave del bloqueo consultivo que serializa el mantenimiento entre nodos. */
+    private static final long MAINTENANCE_LOCK_KEY = 0x5AFE_7AC4_0001L;
+
+    /** Formato de los límites que muestra PostgreSQL con la zona de la sesión en UTC. */
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSSSSS]x");
+    private static final Pattern RANGE_BOUND = Pattern.compile("FOR VALUES FROM \\((.+)\\) TO \\((.+)\\)");
+
+    private static final String PARTITIONS_SQL = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = CAST(? AS regclass) " +
+            "ORDER BY c.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Serializa el mantenimiento con el de otros nodos hasta el fin de la transacción.
+     * Fija además la zona de la sesión en UTC para leer y escribir los límites de las particiones, y el tiempo
+     * máximo que cada sentencia espera un bloqueo.
+     * @param lockTimeoutMillis Espera máxima por un bloqueo; al superarla la sentencia falla con
+     *                          {@code PessimisticLockingFailureException}.
+     */
+    public void lockMaintenance(long lockTimeoutMillis) {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, MAINTENANCE_LOCK_KEY);
+        jdbcTemplate.execute("SET LOCAL TimeZone = 'UTC'");
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + Math.max(1, lockTimeoutMillis));
+    }
+
+    /**
+     * @return true si {@code vehicle_events} ya es una tabla particionada; false si es una tabla normal.
+     */
+    public boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass(?)", String.class, PARENT_TABLE);
+        return "p".equals(kind);
+    }
+
+    /**
+     * Particiones adjuntas con sus límites; requiere {@link #lockMaintenance()} en la misma transacción.
+     */
+    public List<EventPartition> findPartitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> toPartition(rs.getString(1), rs.getString(2)), PARENT_TABLE);
+    }
+
+    /**
+     * Crea y adjunta una partición. Si ya existe una tabla suelta con ese nombre (una partición separada por
+     * retención y conservada), se vuelve a adjuntar en lugar de fallar. Si la partición por defecto ya tiene eventos
+     * de ese rango (p. ej. un histórico importado), se mueven a la partición antes de adjuntarla.
+     * <p>
+     * Se crea como tabla suelta y se adjunta con {@code ATTACH PARTITION}, que bloquea {@code vehicle_events} en
+     * modo SHARE UPDATE EXCLUSIVE (las lecturas y escrituras siguen) en lugar del ACCESS EXCLUSIVE de
+     * {@code CREATE TABLE ... PARTITION OF}. Una restricción CHECK con los límites evita recorrer la tabla al adjuntarla.
+     * @return Número de eventos movidos desde la partición por defecto.
+     */
+    public int createPartition(String name, Instant from, Instant to) {
+        Timestamp start = Timestamp.from(from);
+        Timestamp end = Timestamp.from(to);
+        String bounds = " FOR VALUES FROM (" + literal(from) + ") TO (" + literal(to) + ")";
+        String boundsCheck = name + "_bounds";
+        if (!tableExists(name)) {
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        }
+        jdbcTemplate.execute("ALTER TABLE " + name + " DROP CONSTRAINT IF EXISTS " + boundsCheck);
+        jdbcTemplate.execute("ALTER TABLE " + name + " ADD CONSTRAINT " + boundsCheck +
+                " CHECK (timestamp IS NOT NULL AND timestamp >= " + literal(from) + " AND timestamp < " + literal(to) + ")");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE timestamp >= ? AND timestamp < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved", start, end);
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + name + bounds);
+        jdbcTemplate.execute("ALTER TABLE " + name + " DROP CONSTRAINT " + boundsCheck);
+        return moved;
+    }
+
+    /**
+     * @return true si existe una tabla con ese nombre, adjunta o no.
+     */
+    public boolean tableExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+
+    /**
+     * Primer instante de cada mes UTC con eventos en la partición por defecto.
+     */
+    public List<Instant> findDefaultPartitionMonths() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT date_trunc('month', timestamp) FROM " + DEFAULT_PARTITION,
+                Timestamp.class).stream().map(Timestamp::toInstant).toList();
+    }
+
+    /**
+     * Borra de la partición por defecto los eventos anteriores a {@code cutoff}, ya fuera del periodo de retención.
+     * @return Número de eventos borrados.
+     */
+    public int deleteFromDefaultBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?", Timestamp.from(cutoff));
+    }
+
+    /**
+     * Separa una partición de {@code vehicle_events} sin tocar sus filas; deja de ser visible para las consultas.
+     */
+    public void detachPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + name);
+    }
+
+    public void dropTable(String name) {
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+
+    private static EventPartition toPartition(String name, String bound) {
+        if ("DEFAULT".equals(bound)) {
+            return new EventPartition(name, null, null, true);
+        }
+        Matcher matcher = RANGE_BOUND.matcher(bound);
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Límite de partición no reconocido en " + name + ": " + bound);
+        }
+        return new EventPartition(name, parseBound(matcher.group(1)), parseBound(matcher.group(2)), false);
+    }
+
+    /** @return null para MINVALUE y MAXVALUE. */
+    private static Instant parseBound(String value) {
+        if (value.endsWith("VALUE")) {
+            return null;
+        }
+        return OffsetDateTime.parse(value.replace("'", ""), BOUND_FORMAT).toInstant();
+    }
+
+    private static String literal(Instant instant) {
+        return "'" + BOUND_FORMAT.format(instant.atOffset(ZoneOffset.UTC)) + "'";
+    }
+
+    /**
+     * Partición adjunta a {@code vehicle_events}.
+     * @param from Límite inferior incluido; null si no tiene (MINVALUE o partición por defecto).
+     * @param to   Límite superior excluido; null si no tiene (MAXVALUE o partición por defecto).
+     */
+    public record EventPartition(String name, Instant from, Instant to, boolean isDefault) {
+
+        public boolean overlaps(Instant start, Instant end) {
+            return !isDefault && (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+        }
+    }
+}
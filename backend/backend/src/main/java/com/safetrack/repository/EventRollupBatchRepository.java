@@ -0,0 +1,246 @@
+package com.safetrack.repository;
+
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Mantenimiento de las tablas de agregados diarios ({@code daily_event_rollups} y {@code driver_daily_rollups}).
+ * {@code event_count} cuenta ocurrencias, no filas: una fila coalescida suma su {@code occurrence_count}.
+ * Los agregados se suman con {@code ON CONFLICT DO UPDATE}, así que aplicar un lote es conmutativo y no
+ * requiere leer antes las filas. Las filas se actualizan siempre en el mismo orden para que dos transacciones
+ * concurrentes no se bloqueen mutuamente.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventRollupBatchRepository {
+
+    private static final String DAILY_COLUMNS = "event_date, fatigue_type, fatigue_level, event_count, max_eye_closure";
+    private static final String DRIVER_COLUMNS = "event_date, driver_id, fatigue_type, fatigue_level, event_count, " +
+            "max_eye_closure, last_event_at, last_vehicle_id";
+
+    private static final String DAILY_ON_CONFLICT = "ON CONFLICT (event_date, fatigue_type, fatigue_level) DO UPDATE SET " +
+            "event_count = daily_event_rollups.event_count + EXCLUDED.event_count, " +
+            "max_eye_closure = GREATEST(daily_event_rollups.max_eye_closure, EXCLUDED.max_eye_closure)";
+
+    private static final String DRIVER_ON_CONFLICT = "ON CONFLICT (event_date, driver_id, fatigue_type, fatigue_level) DO UPDATE SET " +
+            "event_count = driver_daily_rollups.event_count + EXCLUDED.event_count, " +
+            "max_eye_closure = GREATEST(driver_daily_rollups.max_eye_closure, EXCLUDED.max_eye_closure), " +
+            "last_vehicle_id = CASE WHEN EXCLUDED.last_event_at >= driver_daily_rollups.last_event_at " +
+            "THEN EXCLUDED.last_vehicle_id ELSE driver_daily_rollups.last_vehicle_id END, " +
+            "last_event_at = GREATEST(driver_daily_rollups.last_event_at, EXCLUDED.last_event_at)";
+
+    private static final String UPSERT_DAILY_SQL = "INSERT INTO daily_event_rollups (" + DAILY_COLUMNS + ") " +
+            "VALUES (?, ?, ?, ?, ?) " + DAILY_ON_CONFLICT;
+
+    private static final String UPSERT_DRIVER_SQL = "INSERT INTO driver_daily_rollups (" + DRIVER_COLUMNS + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " + DRIVER_ON_CONFLICT;
+
+    /** Día UTC de un evento, igual que el que se calcula en Java al aplicar lotes. */
+    private static final String EVENT_DATE = "CAST(timestamp AT TIME ZONE 'UTC' AS date)";
+
+    /** Clase del bloqueo consultivo que serializa las reconstrucciones de un mismo día (la clave es el día). */
+    private static final int REBUILD_LOCK_CLASS = 0x5AFE_0018;
+
+    /*
+     * Reconstrucción de un día: se guarda en una tabla temporal, con una sola sentencia (una sola foto), lo que
+     * debería haber según vehicle_events junto a lo que había en los agregados; después se aplica la diferencia.
+     * Como la ingesta escribe el evento y su agregado en la misma transacción, lo que confirme después de la foto no
+     * está en ninguna de las dos columnas y se conserva al sumar la diferencia sobre el valor actual.
+     */
+    private static final String CREATE_DAILY_REBUILD_SQL = "CREATE TEMP TABLE daily_rollup_rebuild " +
+            "(LIKE daily_event_rollups, snapshot_count bigint, existed boolean) ON COMMIT DROP";
+
+    private static final String FILL_DAILY_REBUILD_SQL = "INSERT INTO daily_rollup_rebuild " +
+            "SELECT ?, COALESCE(c.fatigue_type, r.fatigue_type), COALESCE(c.fatigue_level, r.fatigue_level), " +
+            "COALESCE(c.event_count, 0), COALESCE(c.max_eye_closure, 0), COALESCE(r.event_count, 0), r.event_count IS NOT NULL " +
+            "FROM (SELECT fatigue_type, fatigue_level, SUM(occurrence_count) AS event_count, " +
+            "MAX(eye_closure_duration) AS max_eye_closure " +
+            "FROM vehicle_events WHERE timestamp >= ? AND timestamp < ? GROUP BY 1, 2) c " +
+            "FULL JOIN (SELECT * FROM daily_event_rollups WHERE event_date = ?) r " +
+            "ON r.fatigue_type = c.fatigue_type AND r.fatigue_level = c.fatigue_level " +
+            "WHERE c.event_count IS DISTINCT FROM r.event_count OR c.max_eye_closure IS DISTINCT FROM r.max_eye_closure";
+
+    /** Si el conteo no cambió desde la foto, nadie más escribió la fila y se toman los valores recalculados. */
+    private static final String UPDATE_DAILY_FROM_REBUILD_SQL = "UPDATE daily_event_rollups d SET " +
+            "event_count = d.event_count + t.event_count - t.snapshot_count, " +
+            "max_eye_closure = CASE WHEN d.event_count = t.snapshot_count THEN t.max_eye_closure " +
+            "ELSE GREATEST(d.max_eye_closure, t.max_eye_closure) END " +
+            "FROM daily_rollup_rebuild t WHERE t.existed AND d.event_date = t.event_date " +
+            "AND d.fatigue_type = t.fatigue_type AND d.fatigue_level = t.fatigue_level";
+
+    private static final String INSERT_DAILY_FROM_REBUILD_SQL = "INSERT INTO daily_event_rollups (" + DAILY_COLUMNS + ") " +
+            "SELECT " + DAILY_COLUMNS + " FROM daily_rollup_rebuild WHERE NOT existed ORDER BY 1, 2, 3 " + DAILY_ON_CONFLICT;
+
+    private static final String CREATE_DRIVER_REBUILD_SQL = "CREATE TEMP TABLE driver_rollup_rebuild " +
+            "(LIKE driver_daily_rollups, snapshot_count bigint, existed boolean) ON COMMIT DROP";
+
+    private static final String FILL_DRIVER_REBUILD_SQL = "INSERT INTO driver_rollup_rebuild " +
+            "SELECT ?, COALESCE(c.driver_id, r.driver_id), COALESCE(c.fatigue_type, r.fatigue_type), " +
+            "COALESCE(c.fatigue_level, r.fatigue_level), COALESCE(c.event_count, 0), COALESCE(c.max_eye_closure, 0), " +
+            "COALESCE(c.last_event_at, r.last_event_at), " +
+            "CASE WHEN c.driver_id IS NULL THEN r.last_vehicle_id ELSE c.last_vehicle_id END, " +
+            "COALESCE(r.event_count, 0), r.event_count IS NOT NULL " +
+            "FROM (SELECT driver_id, fatigue_type, fatigue_level, SUM(occurrence_count) AS event_count, " +
+            "MAX(eye_closure_duration) AS max_eye_closure, MAX(timestamp) AS last_event_at, " +
+            "(ARRAY_AGG(vehicle_id ORDER BY timestamp DESC))[1] AS last_vehicle_id " +
+            "FROM vehicle_events WHERE driver_id IS NOT NULL AND timestamp >= ? AND timestamp < ? GROUP BY 1, 2, 3) c " +
+            "FULL JOIN (SELECT * FROM driver_daily_rollups WHERE event_date = ?) r " +
+            "ON r.driver_id = c.driver_id AND r.fatigue_type = c.fatigue_type AND r.fatigue_level = c.fatigue_level " +
+            "WHERE c.event_count IS DISTINCT FROM r.event_count OR c.max_eye_closure IS DISTINCT FROM r.max_eye_closure " +
+            "OR c.last_event_at IS DISTINCT FROM r.last_event_at OR c.last_vehicle_id IS DISTINCT FROM r.last_vehicle_id";
+
+    private static final String UPDATE_DRIVER_FROM_REBUILD_SQL = "UPDATE driver_daily_rollups d SET " +
+            "event_count = d.event_count + t.event_count - t.snapshot_count, " +
+            "max_eye_closure = CASE WHEN d.event_count = t.snapshot_count THEN t.max_eye_closure " +
+            "ELSE GREATEST(d.max_eye_closure, t.max_eye_closure) END, " +
+            "last_event_at = CASE WHEN d.event_count = t.snapshot_count THEN t.last_event_at " +
+            "ELSE GREATEST(d.last_event_at, t.last_event_at) END, " +
+            "last_vehicle_id = CASE WHEN d.event_count = t.snapshot_count OR t.last_event_at >= d.last_event_at " +
+            "THEN t.last_vehicle_id ELSE d.last_vehicle_id END " +
+            "FROM driver_rollup_rebuild t WHERE t.existed AND d.event_date = t.event_date AND d.driver_id = t.driver_id " +
+            "AND d.fatigue_type = t.fatigue_type AND d.fatigue_level = t.fatigue_level";
+
+    private static final String INSERT_DRIVER_FROM_REBUILD_SQL = "INSERT INTO driver_daily_rollups (" + DRIVER_COLUMNS + ") " +
+            "SELECT " + DRIVER_COLUMNS + " FROM driver_rollup_rebuild WHERE NOT existed ORDER BY 1, 2, 3, 4 " + DRIVER_ON_CONFLICT;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Suma un lote de eventos recién insertados a los agregados. Se ejecuta en la transacción de la inserción.
+     * @param events Los eventos realmente insertados.
+     */
+    public void apply(List<VehicleEvent> events) {
+        Map<DailyKey, Aggregate> daily = new TreeMap<>(DailyKey.ORDER);
+        Map<DriverKey, Aggregate> byDriver = new TreeMap<>(DriverKey.ORDER);
+        for (VehicleEvent event : events) {
+            LocalDate day = LocalDate.ofInstant(event.getTimestamp(), ZoneOffset.UTC);
+            daily.computeIfAbsent(new DailyKey(day, event.getFatigueType(), event.getFatigueLevel()), k -> new Aggregate())
+                    .add(event);
+            if (event.getDriverId() != null) {
+                byDriver.computeIfAbsent(new DriverKey(day, event.getDriverId(), event.getFatigueType(), event.getFatigueLevel()),
+                        k -> new Aggregate()).add(event);
+            }
+        }
+
+        List<Object[]> dailyRows = new ArrayList<>(daily.size());
+        daily.forEach((key, aggregate) -> dailyRows.add(new Object[]{
+                Date.valueOf(key.day()), key.type().name(), key.level().name(), aggregate.count, aggregate.maxEyeClosure}));
+        List<Object[]> driverRows = new ArrayList<>(byDriver.size());
+        byDriver.forEach((key, aggregate) -> driverRows.add(new Object[]{
+                Date.valueOf(key.day()), key.driverId(), key.type().name(), key.level().name(), aggregate.count,
+                aggregate.maxEyeClosure, Timestamp.from(aggregate.lastEventAt), aggregate.lastVehicleId}));
+
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, dailyRows);
+        jdbcTemplate.batchUpdate(UPSERT_DRIVER_SQL, driverRows);
+    }
+
+    /**
+     * Suma a los agregados todos los eventos de una tabla con las columnas de {@code vehicle_events},
+     * p. ej. una tabla temporal con las filas recién importadas.
+     * @param sourceTable Nombre de la tabla origen; no debe provenir de datos del cliente.
+     */
+    public void applyFrom(String sourceTable) {
+        aggregateInto(sourceTable, "TRUE");
+    }
+
+    /**
+     * Recalcula desde {@code vehicle_events} los agregados de un día sin bloquear las tablas: solo se corrigen las
+     * filas que difieren, sumando la diferencia sobre su valor actual, así que la ingesta concurrente sigue escribiendo
+     * y ningún evento se cuenta dos veces ni se pierde. Las filas del día se bloquean en el orden de {@link #apply}
+     * antes de corregirlas, para no cruzarse con un lote en curso.
+     * Debe ejecutarse dentro de una transacción.
+     * @return Número de filas de agregados corregidas.
+     */
+    public int rebuildDay(LocalDate day) {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?, ?)", Object.class, REBUILD_LOCK_CLASS, (int) day.toEpochDay());
+        Date date = Date.valueOf(day);
+        Timestamp start = Timestamp.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp end = Timestamp.from(day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+
+        jdbcTemplate.execute(CREATE_DAILY_REBUILD_SQL);
+        jdbcTemplate.execute(CREATE_DRIVER_REBUILD_SQL);
+        int changed = jdbcTemplate.update(FILL_DAILY_REBUILD_SQL, date, start, end, date)
+                + jdbcTemplate.update(FILL_DRIVER_REBUILD_SQL, date, start, end, date);
+        if (changed == 0) {
+            return 0;
+        }
+
+        jdbcTemplate.query("SELECT 1 FROM daily_event_rollups WHERE event_date = ? " +
+                "ORDER BY fatigue_type, fatigue_level FOR UPDATE", rs -> { }, date);
+        jdbcTemplate.update(UPDATE_DAILY_FROM_REBUILD_SQL);
+        jdbcTemplate.update(INSERT_DAILY_FROM_REBUILD_SQL);
+        jdbcTemplate.update("DELETE FROM daily_event_rollups WHERE event_date = ? AND event_count <= 0", date);
+
+        jdbcTemplate.query("SELECT 1 FROM driver_daily_rollups WHERE event_date = ? " +
+                "ORDER BY driver_id, fatigue_type, fatigue_level FOR UPDATE", rs -> { }, date);
+        jdbcTemplate.update(UPDATE_DRIVER_FROM_REBUILD_SQL);
+        jdbcTemplate.update(INSERT_DRIVER_FROM_REBUILD_SQL);
+        jdbcTemplate.update("DELETE FROM driver_daily_rollups WHERE event_date = ? AND event_count <= 0", date);
+        return changed;
+    }
+
+    /**
+     * @return true si aún no hay ningún agregado, p. ej. en el primer arranque tras añadir las tablas.
+     */
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM daily_event_rollups)", Boolean.class));
+    }
+
+    private void aggregateInto(String sourceTable, String condition) {
+        jdbcTemplate.update("INSERT INTO daily_event_rollups (" + DAILY_COLUMNS + ") " +
+                "SELECT " + EVENT_DATE + ", fatigue_type, fatigue_level, SUM(occurrence_count), MAX(eye_closure_duration) " +
+                "FROM " + sourceTable + " WHERE " + condition + " " +
+                "GROUP BY 1, 2, 3 ORDER BY 1, 2, 3 " + DAILY_ON_CONFLICT);
+        jdbcTemplate.update("INSERT INTO driver_daily_rollups (" + DRIVER_COLUMNS + ") " +
+                "SELECT " + EVENT_DATE + ", driver_id, fatigue_type, fatigue_level, SUM(occurrence_count), MAX(eye_closure_duration), " +
+                "MAX(timestamp), (ARRAY_AGG(vehicle_id ORDER BY timestamp DESC))[1] " +
+                "FROM " + sourceTable + " WHERE driver_id IS NOT NULL AND " + condition + " " +
+                "GROUP BY 1, 2, 3, 4 ORDER BY 1, 2, 3, 4 " + DRIVER_ON_CONFLICT);
+    }
+
+    private record DailyKey(LocalDate day, FatigueType type, FatigueLevel level) {
+        static final Comparator<DailyKey> ORDER = Comparator.comparing(DailyKey::day)
+                .thenComparing(key -> key.type().name())
+                .thenComparing(key -> key.level().name());
+    }
+
+    private record DriverKey(LocalDate day, UUID driverId, FatigueType type, FatigueLevel level) {
+        static final Comparator<DriverKey> ORDER = Comparator.comparing(DriverKey::day)
+                .thenComparing(key -> key.driverId().toString())
+                .thenComparing(key -> key.type().name())
+                .thenComparing(key -> key.level().name());
+    }
+
+    private static final class Aggregate {
+        private long count;
+        private double maxEyeClosure;
+        private Instant lastEventAt;
+        private UUID lastVehicleId;
+
+        void add(VehicleEvent event) {
+            maxEyeClosure = lastEventAt == null ? event.getEyeClosureDuration() : Math.max(maxEyeClosure, event.getEyeClosureDuration());
+            count += event.getOccurrenceCount();
+            if (lastEventAt == null || !event.getTimestamp().isBefore(lastEventAt)) {
+                lastEventAt = event.getTimestamp();
+                lastVehicleId = event.getVehicleId();
+            }
+        }
+    }
+}
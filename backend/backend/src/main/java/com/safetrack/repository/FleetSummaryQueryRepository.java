@@ -0,0 +1,129 @@
+package com.safetrack.repository;
+
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resumen de flota por conductor en una sola consulta: agregación condicional sobre {@code driver_daily_rollups},
+ * unida a {@code drivers} y {@code vehicles} para devolver los nombres, con la puntuación de riesgo calculada
+ * en SQL para poder ordenar por ella y el total de filas obtenido con una función de ventana.
+ * El orden se construye a partir de una lista cerrada de propiedades, nunca con el texto recibido.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FleetSummaryQueryRepository {
+
+    /** Pesos de la puntuación de riesgo: por evento crítico, de fatiga y de distracción. */
+    public static final int CRITICAL_WEIGHT = 5;
+    public static final int FATIGUE_WEIGHT = 2;
+    public static final int DISTRACTION_WEIGHT = 1;
+
+    private static final FatigueLevel CRITICAL_LEVEL = FatigueLevel.ALTO;
+    private static final FatigueType[] FATIGUE_TYPES = {FatigueType.MICROSUEÑO, FatigueType.CABECEO};
+    private static final FatigueType DISTRACTION_TYPE = FatigueType.CANSANCIO_VISUAL;
+
+    private static final String SUMMARY_SQL = "WITH summary AS (" +
+            "SELECT r.driver_id, " +
+            "SUM(r.event_count) AS alert_count, " +
+            "SUM(CASE WHEN r.fatigue_level = ? THEN r.event_count ELSE 0 END) AS critical_count, " +
+            "SUM(CASE WHEN r.fatigue_type IN (?, ?) THEN r.event_count ELSE 0 END) AS fatigue_count, " +
+            "SUM(CASE WHEN r.fatigue_type = ? THEN r.event_count ELSE 0 END) AS distraction_count, " +
+            "(ARRAY_AGG(r.last_vehicle_id ORDER BY r.last_event_at DESC))[1] AS last_vehicle_id " +
+            "FROM driver_daily_rollups r " +
+            "WHERE r.event_date BETWEEN ? AND ? " +
+            "GROUP BY r.driver_id) " +
+            "SELECT s.driver_id, d.nombre AS driver_name, v.placa AS vehicle_plate, " +
+            "s.alert_count, s.critical_count, s.fatigue_count, s.distraction_count, " +
+            "s.critical_count * " + CRITICAL_WEIGHT + " + s.fatigue_count * " + FATIGUE_WEIGHT +
+            " + s.distraction_count * " + DISTRACTION_WEIGHT + " AS risk_points, " +
+            "COUNT(*) OVER () AS total " +
+            "FROM summary s " +
+            "LEFT JOIN drivers d ON d.id = s.driver_id " +
+            "LEFT JOIN vehicles v ON v.id = s.last_vehicle_id " +
+            "ORDER BY %s " +
+            "LIMIT ? OFFSET ?";
+
+    private static final String COUNT_SQL = "SELECT COUNT(DISTINCT driver_id) FROM driver_daily_rollups " +
+            "WHERE event_date BETWEEN ? AND ?";
+
+    /** Propiedades de ordenación admitidas (nombres del DTO y alias históricos) y su expresión SQL. */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "alertCount", "s.alert_count",
+            "riskScore", "risk_points",
+            "riskPoints", "risk_points",
+            "criticalEventsCount", "s.critical_count",
+            "fatigueCount", "s.fatigue_count",
+            "distractionCount", "s.distraction_count",
+            "driverName", "d.nombre",
+            "vehicleIdentifier", "v.placa");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @throws BadRequestException si se pide ordenar por una propiedad no admitida.
+     */
+    public Page<FleetSummaryRow> findSummaryPage(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        Date start = Date.valueOf(startDate);
+        Date end = Date.valueOf(endDate);
+        long[] total = {-1};
+        List<FleetSummaryRow> rows = jdbcTemplate.query(SUMMARY_SQL.formatted(orderBy(pageable.getSort())), (rs, rowNum) -> {
+            total[0] = rs.getLong("total");
+            return new FleetSummaryRow(
+                    rs.getObject("driver_id", UUID.class),
+                    rs.getString("driver_name"),
+                    rs.getString("vehicle_plate"),
+                    rs.getLong("alert_count"),
+                    rs.getLong("critical_count"),
+                    rs.getLong("fatigue_count"),
+                    rs.getLong("distraction_count"),
+                    rs.getLong("risk_points"));
+        }, CRITICAL_LEVEL.name(), FATIGUE_TYPES[0].name(), FATIGUE_TYPES[1].name(), DISTRACTION_TYPE.name(),
+                start, end, pageable.getPageSize(), pageable.getOffset());
+
+        if (total[0] < 0) {
+            // Página vacía: sin filas no hay total de ventana; solo hace falta contar si no es la primera.
+            Long count = pageable.getOffset() == 0 ? 0L : jdbcTemplate.queryForObject(COUNT_SQL, Long.class, start, end);
+            total[0] = count != null ? count : 0L;
+        }
+        return new PageImpl<>(rows, pageable, total[0]);
+    }
+
+    private static String orderBy(Sort sort) {
+        List<String> clauses = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new BadRequestException("No se puede ordenar el resumen de flota por '" + order.getProperty() + "'");
+            }
+            clauses.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (clauses.isEmpty()) {
+            clauses.add("s.alert_count DESC");
+        }
+        // Desempate estable para que la paginación no repita ni salte conductores.
+        clauses.add("s.driver_id");
+        return String.join(", ", clauses);
+    }
+
+    /**
+     * Fila del resumen; los nombres son null si el conductor o el vehículo ya no existen.
+     */
+    public record FleetSummaryRow(UUID driverId, String driverName, String vehiclePlate, long alertCount,
+                                  long criticalCount, long fatigueCount, long distractionCount, long riskPoints) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.safetrack.repository;
+
+import com.safetrack.domain.enums.Role;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserción masiva de notificaciones directamente en SQL.
+ * El reparto a los destinatarios se resuelve en la base de datos con un INSERT ... SELECT,
+ * por lo que el coste no crece con el número de usuarios que reciben la notificación.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationBatchRepository {
+
+    private static final String FAN_OUT_SQL = "INSERT INTO notifications (user_id, message, is_read, created_at) " +
+            "SELECT u.id, m.message, false, now() " +
+            "FROM unnest(?::text[]) WITH ORDINALITY AS m(message, position) " +
+            "CROSS JOIN users u " +
+            "WHERE u.rol = ANY (?::text[]) " +
+            "ORDER BY m.position";
+
+    private static final String ENQUEUE_OUTBOX_SQL = "INSERT INTO notification_outbox (event_id, message, created_at) " +
+            "SELECT e.event_id, e.message, now() " +
+            "FROM unnest(?::uuid[], ?::text[]) WITH ORDINALITY AS e(event_id, message, position) " +
+            "ORDER BY e.position";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Crea una notificación por cada mensaje para cada usuario con alguno de los roles indicados.
+     * @param roles Roles de los usuarios destinatarios.
+     * @param messages Mensajes a notificar, en orden.
+     * @return El número de notificaciones creadas.
+     */
+    public int insertForRoles(List<Role> roles, List<String> messages) {
+        if (messages.isEmpty() || roles.isEmpty()) {
+            return 0;
+        }
+        String[] roleNames = roles.stream().map(Role::name).toArray(String[]::new);
+        return jdbcTemplate.update(FAN_OUT_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("text", messages.toArray()));
+            ps.setArray(2, ps.getConnection().createArrayOf("text", roleNames));
+        });
+    }
+
+    /**
+     * Registra en el outbox una alerta por evento en una única sentencia.
+     * @param eventIds IDs de los eventos que originan las alertas.
+     * @param messages Mensaje de cada alerta, en el mismo orden que los eventos.
+     */
+    public void insertOutbox(List<UUID> eventIds, List<String> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(ENQUEUE_OUTBOX_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", eventIds.toArray()));
+            ps.setArray(2, ps.getConnection().createArrayOf("text", messages.toArray()));
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.safetrack.repository;
+
+import com.safetrack.domain.entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Bloquea y devuelve las siguientes alertas pendientes en orden de llegada.
+     * SKIP LOCKED permite que varias instancias del despachador trabajen en paralelo sin pisarse.
+     * @param limit Número máximo de filas a reclamar.
+     */
+    @Query(value = "SELECT * FROM notification_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<NotificationOutbox> lockNextBatch(@Param("limit") int limit);
+}
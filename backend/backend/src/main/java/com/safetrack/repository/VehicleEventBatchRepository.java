@@ -0,0 +1,58 @@
+package com.safetrack.repository;
+
+import com.safetrack.domain.entity.VehicleEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Escritura masiva de eventos de vehículo mediante lotes JDBC.
+ * Evita el coste por entidad de JPA (dirty checking, contexto de persistencia) en la ruta de ingesta.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VehicleEventBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO vehicle_events " +
+            "(id, driver_id, vehicle_id, timestamp, fatigue_level, fatigue_type, eye_closure_duration, yawn_count, blink_rate, " +
+            "occurrence_count, window_start, window_end) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta todos los eventos en un único lote JDBC.
+     * Los eventos deben llegar con su ID ya asignado. Los duplicados (índice único de deduplicación)
+     * se ignoran en lugar de abortar el lote.
+     * @param events Los eventos a insertar.
+     * @return El número de filas afectadas por cada sentencia del lote (0 para un duplicado).
+     */
+    public int[] insertAll(List<VehicleEvent> events) {
+        if (events.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setObject(1, event.getId());
+            ps.setObject(2, event.getDriverId());
+            ps.setObject(3, event.getVehicleId());
+            ps.setTimestamp(4, Timestamp.from(event.getTimestamp()));
+            ps.setString(5, event.getFatigueLevel().name());
+            ps.setString(6, event.getFatigueType().name());
+            ps.setDouble(7, event.getEyeClosureDuration());
+            ps.setInt(8, event.getYawnCount());
+            ps.setDouble(9, event.getBlinkRate());
+            ps.setInt(10, event.getOccurrenceCount());
+            ps.setTimestamp(11, toTimestamp(event.getWindowStart()));
+            ps.setTimestamp(12, toTimestamp(event.getWindowEnd()));
+        })[0];
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.safetrack.security;
+
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * Autenticación y autorización del canal de entrada STOMP.
+ * El handshake de "/ws" es público (lo usan los dispositivos edge), así que el usuario se identifica en el frame
+ * CONNECT con la cabecera {@code Authorization: Bearer <token>}, el mismo JWT que la API REST. Un token no válido
+ * rechaza la conexión; sin token la sesión queda anónima.
+ * <p>
+ * Los comandos de reproducción ("/app/replay/**") exigen una sesión autenticada con rol ADMINISTRADOR, GESTOR o
+ * AUDITOR, como los endpoints REST de histórico; si no, el frame se rechaza con un frame ERROR.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    public static final String AUTHORIZATION_HEADER = "Authorization";
+    public static final String REPLAY_DESTINATION_PREFIX = "/app/replay/";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final Set<String> REPLAY_ROLES = Set.of("ROLE_ADMINISTRADOR", "ROLE_GESTOR", "ROLE_AUDITOR");
+
+    private final JwtUtils jwtUtils;
+    private final UserDetailsServiceImpl userDetailsService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            String authHeader = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER);
+            if (authHeader != null) {
+                accessor.setUser(authenticate(authHeader));
+            }
+        } else if (accessor.getCommand() == StompCommand.SEND && isReplayCommand(accessor.getDestination())
+                && !canReplay(accessor.getUser())) {
+            log.warn("Comando de reproducción rechazado en la sesión {}: usuario sin permisos", accessor.getSessionId());
+            throw new AccessDeniedException("La reproducción de eventos requiere un usuario autorizado");
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String authHeader) {
+        if (!authHeader.startsWith(BEARER_PREFIX)) {
+            throw new BadCredentialsException("Cabecera Authorization no válida");
+        }
+        String jwt = authHeader.substring(BEARER_PREFIX.length());
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(jwtUtils.extractUsername(jwt));
+            if (jwtUtils.isTokenValid(jwt, userDetails)) {
+                return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            }
+        } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
+            log.debug("Token STOMP rechazado: {}", e.getMessage());
+        }
+        throw new BadCredentialsException("Token no válido");
+    }
+
+    private static boolean isReplayCommand(String destination) {
+        return destination != null && destination.startsWith(REPLAY_DESTINATION_PREFIX);
+    }
+
+    private static boolean canReplay(Principal user) {
+        return user instanceof Authentication authentication && authentication.isAuthenticated()
+                && authentication.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .anyMatch(REPLAY_ROLES::contains);
+    }
+}
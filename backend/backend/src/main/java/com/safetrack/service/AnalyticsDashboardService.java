@@ -0,0 +1,21 @@
+package com.safetrack.service;
+
+import com.safetrack.domain.dto.response.DashboardResponse;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+
+/**
+ * Panel de analíticas completo en una sola llamada.
+ */
+public interface AnalyticsDashboardService {
+
+    /**
+     * Calcula a la vez la distribución de alertas, el top de conductores, la línea de tiempo de eventos críticos
+     * y la primera página del resumen de flota, con los mismos valores por defecto que cada endpoint por separado.
+     * @param startDate Fecha de inicio del filtro (opcional).
+     * @param endDate Fecha de fin del filtro (opcional).
+     * @param fleetPageable Paginación y orden del resumen de flota.
+     */
+    DashboardResponse getDashboard(LocalDate startDate, LocalDate endDate, Pageable fleetPageable);
+}
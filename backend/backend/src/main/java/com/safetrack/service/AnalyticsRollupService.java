@@ -0,0 +1,19 @@
+package com.safetrack.service;
+
+import java.time.LocalDate;
+
+/**
+ * Mantenimiento de los agregados diarios de eventos que alimentan las analíticas.
+ * Los agregados se actualizan de forma incremental en cada inserción; la reconstrucción permite
+ * rellenar el histórico o corregir un rango tras cambios hechos fuera de la aplicación.
+ */
+public interface AnalyticsRollupService {
+
+    /**
+     * Recalcula desde los eventos en bruto los agregados de cada día del rango, ambos incluidos.
+     * @param startDate Primer día (UTC).
+     * @param endDate Último día (UTC).
+     * @return El número de días recalculados.
+     */
+    int rebuild(LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,17 @@
+package com.safetrack.service;
+
+import com.safetrack.domain.dto.response.BulkImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface EventBulkImportService {
+
+    /**
+     * Importa eventos de fatiga desde un flujo NDJSON (un VehicleEventDTO por línea).
+     * El cuerpo se procesa de forma incremental, sin cargarlo completo en memoria.
+     * @param ndjson El flujo con el cuerpo de la petición.
+     * @return Los conteos de líneas aceptadas y rechazadas.
+     */
+    BulkImportResponse importNdjson(InputStream ndjson) throws IOException;
+}
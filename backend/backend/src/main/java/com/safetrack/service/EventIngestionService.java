@@ -0,0 +1,34 @@
+package com.safetrack.service;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.ingestion.CoalescedEvent;
+import com.safetrack.ingestion.ReceiptTarget;
+
+import java.util.List;
+
+public interface EventIngestionService {
+
+    /**
+     * Recibe un evento de fatiga procedente del dispositivo edge y lo persiste
+     * según el modo de ingesta configurado.
+     * @param eventDTO El evento recibido.
+     * @param receipt  Confirmación a enviar al cliente cuando el evento esté persistido, o null si no la pidió.
+     * @return Los eventos que deben difundirse a los suscriptores; vacía si era un duplicado, si quedó retenido
+     *         en una ventana de agrupación o si lo difundirá el buffer write-behind tras persistirlo.
+     */
+    List<VehicleEventDTO> ingest(VehicleEventDTO eventDTO, ReceiptTarget receipt);
+
+    /**
+     * Persiste un evento agrupado cuya ventana se cerró y confirma los frames que representa.
+     * @param coalesced El evento agrupado.
+     * @return El evento que debe difundirse, o null si ya existía o lo difundirá el buffer write-behind.
+     */
+    VehicleEventDTO ingestCoalesced(CoalescedEvent coalesced);
+
+    /**
+     * Abandona un evento que no pudo procesarse: se olvida en la deduplicación y se pide al cliente que
+     * reenvíe los frames que representa.
+     * @param coalesced El evento descartado.
+     */
+    void discard(CoalescedEvent coalesced);
+}
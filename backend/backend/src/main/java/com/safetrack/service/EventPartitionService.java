@@ -0,0 +1,21 @@
+package com.safetrack.service;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Gestión de las particiones mensuales de {@code vehicle_events}: crea por adelantado las de los próximos meses
+ * y separa las que superan el periodo de retención.
+ */
+public interface EventPartitionService {
+
+    /**
+     * Crea las particiones que falten y separa (y opcionalmente borra) las caducadas.
+     */
+    void maintain();
+
+    /**
+     * @return Primer día (UTC) cuyos eventos se conservan, o vacío si la retención está desactivada.
+     */
+    Optional<LocalDate> retainedSince();
+}
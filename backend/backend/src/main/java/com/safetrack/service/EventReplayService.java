@@ -0,0 +1,28 @@
+package com.safetrack.service;
+
+import com.safetrack.domain.dto.request.ReplayRequest;
+import com.safetrack.domain.dto.request.ReplaySeekRequest;
+
+/**
+ * Reproducción de eventos históricos por WebSocket, tal como los mostró el panel en vivo.
+ * Cada sesión STOMP tiene como mucho una reproducción activa; los eventos se envían a su destino privado
+ * {@code /user/queue/replay} y los cambios de estado a {@code /user/queue/replay-status}.
+ */
+public interface EventReplayService {
+
+    /**
+     * Inicia una reproducción para la sesión, sustituyendo a la que tuviera en curso.
+     */
+    void start(String sessionId, ReplayRequest request);
+
+    void pause(String sessionId);
+
+    void resume(String sessionId);
+
+    /**
+     * Salta a otro instante dentro del rango de la reproducción en curso.
+     */
+    void seek(String sessionId, ReplaySeekRequest request);
+
+    void stop(String sessionId);
+}
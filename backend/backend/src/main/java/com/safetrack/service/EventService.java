@@ -3,6 +3,23 @@ package com.safetrack.service;
 import com.safetrack.domain.dto.VehicleEventDTO;
 import com.safetrack.domain.entity.VehicleEvent;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface EventService {
-    VehicleEvent saveEvent(VehicleEventDTO eventDTO);
-}
\ No newline at end of file
+
+    /**
+     * Persiste un evento y genera las notificaciones correspondientes.
+     * @param eventDTO El evento recibido.
+     * @return El evento guardado, o vacío si ya existía (duplicado).
+     */
+    Optional<VehicleEvent> saveEvent(VehicleEventDTO eventDTO);
+
+    /**
+     * Persiste un lote de eventos en una sola transacción usando lotes JDBC
+     * y genera las notificaciones correspondientes.
+     * @param events Eventos con su ID ya asignado.
+     * @return Los eventos realmente insertados (sin los duplicados).
+     */
+    List<VehicleEvent> saveEvents(List<VehicleEvent> events);
+}
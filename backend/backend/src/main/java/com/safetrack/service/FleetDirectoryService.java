@@ -0,0 +1,57 @@
+package com.safetrack.service;
+
+import com.safetrack.domain.dto.directory.DriverDirectoryEntry;
+import com.safetrack.domain.dto.directory.VehicleDirectoryEntry;
+import com.safetrack.domain.entity.Driver;
+import com.safetrack.domain.entity.Vehicle;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Directorio en memoria de conductores y vehículos para las búsquedas de nombres y placas
+ * en las rutas calientes (ingesta de eventos y analíticas), evitando una consulta por evento o por fila.
+ */
+public interface FleetDirectoryService {
+
+    /**
+     * Busca un conductor; si no está en memoria se carga de la base de datos.
+     */
+    Optional<DriverDirectoryEntry> findDriver(UUID driverId);
+
+    /**
+     * Busca un vehículo; si no está en memoria se carga de la base de datos.
+     */
+    Optional<VehicleDirectoryEntry> findVehicle(UUID vehicleId);
+
+    /**
+     * Devuelve el nombre del conductor o el valor por defecto si no existe o el ID es nulo.
+     */
+    String driverName(UUID driverId, String defaultName);
+
+    /**
+     * Devuelve la placa del vehículo o el valor por defecto si no existe o el ID es nulo.
+     */
+    String vehiclePlate(UUID vehicleId, String defaultPlate);
+
+    /**
+     * Registra o actualiza un conductor tras crearse o modificarse.
+     * Si hay una transacción activa, el cambio se aplica al confirmarse.
+     */
+    void driverSaved(Driver driver);
+
+    /**
+     * Elimina un conductor del directorio tras borrarse.
+     */
+    void driverDeleted(UUID driverId);
+
+    /**
+     * Registra o actualiza un vehículo tras crearse o modificarse.
+     */
+    void vehicleSaved(Vehicle vehicle);
+
+    /**
+     * Elimina un vehículo del directorio tras borrarse.
+     */
+    void vehicleDeleted(UUID vehicleId);
+}
@@ -0,0 +1,26 @@
+package com.safetrack.service;
+
+import com.safetrack.domain.dto.response.FleetStateDelta;
+import com.safetrack.domain.dto.response.FleetStateSnapshot;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Estado actual de la flota en memoria: último evento, nivel actual y conteos de la última hora
+ * por vehículo y por conductor. Se actualiza con cada evento persistido.
+ */
+public interface FleetStateService {
+
+    /**
+     * Devuelve la foto actual de la flota con su versión.
+     */
+    FleetStateSnapshot getSnapshot();
+
+    /**
+     * Devuelve los deltas posteriores a una versión, para que un cliente se ponga al día sin pedir otra foto.
+     * @param sinceVersion La última versión que el cliente tiene aplicada.
+     * @return Los deltas en orden de versión, o vacío si ya no se conservan y el cliente debe pedir otra foto.
+     */
+    Optional<List<FleetStateDelta>> getDeltasSince(long sinceVersion);
+}
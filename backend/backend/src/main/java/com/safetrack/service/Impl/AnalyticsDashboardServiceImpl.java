@@ -0,0 +1,182 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.response.DashboardResponse;
+import com.safetrack.domain.dto.response.FleetSummaryDataPoint;
+import com.safetrack.domain.dto.response.TimelineDataPoint;
+import com.safetrack.domain.dto.response.TopDriverResponse;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.exception.BadRequestException;
+import com.safetrack.service.AnalyticsDashboardService;
+import com.safetrack.service.AnalyticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Calcula las secciones del panel en paralelo sobre un pool propio y acotado, de modo que el panel tarda lo que
+ * la sección más lenta y no la suma de las cuatro. Cada sección pasa por {@link AnalyticsService}, así que
+ * aprovecha la caché y comparte las consultas en curso con las peticiones a los endpoints individuales.
+ * <p>
+ * Todas las secciones comparten un plazo de {@code section-timeout-ms} desde el inicio de la petición; las que
+ * no terminan a tiempo se devuelven vacías. Interrumpir el hilo no detiene una consulta JDBC ya enviada, así que cada
+ * sección corre en una transacción de solo lectura con el tiempo que le queda hasta el plazo: Spring lo aplica como
+ * timeout de cada sentencia y la base de datos la cancela, liberando el hilo y la conexión. Las tareas son
+ * {@link FutureTask} para que cancelarlas interrumpa además las esperas fuera de la base de datos.
+ * Si el pool y su cola están llenos, la sección se calcula en el hilo de la petición: el panel se degrada a
+ * secuencial en lugar de fallar.
+ */
+@Service
+@Slf4j
+public class AnalyticsDashboardServiceImpl implements AnalyticsDashboardService {
+
+    private final AnalyticsService analyticsService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor dashboardExecutor;
+    private final long sectionTimeoutMillis;
+
+    public AnalyticsDashboardServiceImpl(AnalyticsService analyticsService,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${safetrack.analytics.dashboard.pool-size:8}") int poolSize,
+                                         @Value("${safetrack.analytics.dashboard.queue-capacity:64}") int queueCapacity,
+                                         @Value("${safetrack.analytics.dashboard.section-timeout-ms:5000}") long sectionTimeoutMillis) {
+        this.analyticsService = analyticsService;
+        this.transactionManager = transactionManager;
+        this.meterRegistry = meterRegistry;
+        this.sectionTimeoutMillis = sectionTimeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dashboardExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "analytics-dashboard-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dashboardExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public DashboardResponse getDashboard(LocalDate startDate, LocalDate endDate, Pageable fleetPageable) {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMillis);
+        Future<Map<FatigueType, Long>> distribution =
+                submit(() -> analyticsService.getAlertDistribution(startDate, endDate), deadline);
+        Future<List<TopDriverResponse>> topDrivers =
+                submit(() -> analyticsService.getTopDriversByAlerts(startDate, endDate), deadline);
+        Future<List<TimelineDataPoint>> timeline =
+                submit(() -> analyticsService.getCriticalEventsTimeline(startDate, endDate), deadline);
+        Future<Page<FleetSummaryDataPoint>> fleetSummary =
+                submit(() -> analyticsService.getFleetSummary(startDate, endDate, fleetPageable), deadline);
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        try {
+            return new DashboardResponse(
+                    await("alert-distribution", distribution, startNanos, deadline, errors),
+                    await("top-drivers", topDrivers, startNanos, deadline, errors),
+                    await("critical-events-timeline", timeline, startNanos, deadline, errors),
+                    await("fleet-summary", fleetSummary, startNanos, deadline, errors),
+                    errors);
+        } catch (BadRequestException e) {
+            // Un parámetro no válido invalida todo el panel: se responde 400 y se abandonan las demás secciones.
+            List.of(distribution, topDrivers, timeline, fleetSummary).forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dashboardExecutor.shutdownNow();
+    }
+
+    private <T> Future<T> submit(Supplier<T> section, long deadline) {
+        FutureTask<T> task = new FutureTask<>(() -> withinDeadline(section, deadline));
+        try {
+            dashboardExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+        return task;
+    }
+
+    /**
+     * Calcula la sección en una transacción de solo lectura cuyo timeout es el tiempo que queda hasta el plazo.
+     * Las transacciones de {@link AnalyticsService} se unen a ella y sus sentencias heredan ese timeout.
+     */
+    private <T> T withinDeadline(Supplier<T> section, long deadline) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw new TransactionTimedOutException("Plazo del panel agotado antes de calcular la sección");
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remainingMillis + 999)));
+        return transaction.execute(status -> section.get());
+    }
+
+    /**
+     * Espera una sección hasta el plazo común.
+     * @return El resultado, o null si la sección falló o agotó el plazo (el motivo se añade a {@code errors}).
+     * @throws BadRequestException si la sección rechazó los parámetros.
+     */
+    private <T> T await(String section, Future<T> future, long startNanos, long deadline,
+                        Map<String, String> errors) {
+        String outcome = "ok";
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            future.cancel(true);
+            log.warn("La sección '{}' del panel no terminó en {} ms", section, sectionTimeoutMillis);
+            errors.put(section, "Tiempo de espera agotado");
+            return null;
+        } catch (ExecutionException e) {
+            outcome = "error";
+            if (e.getCause() instanceof BadRequestException badRequest) {
+                throw badRequest;
+            }
+            if (e.getCause() instanceof QueryTimeoutException || e.getCause() instanceof TransactionTimedOutException) {
+                outcome = "timeout";
+                log.warn("La sección '{}' del panel se canceló en la base de datos al agotar el plazo de {} ms",
+                        section, sectionTimeoutMillis);
+                errors.put(section, "Tiempo de espera agotado");
+                return null;
+            }
+            log.error("Error al calcular la sección '{}' del panel: {}", section, e.getCause().getMessage(), e.getCause());
+            errors.put(section, "No se pudo calcular la sección");
+            return null;
+        } catch (InterruptedException e) {
+            outcome = "error";
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            errors.put(section, "Petición interrumpida");
+            return null;
+        } finally {
+            meterRegistry.timer("safetrack.analytics.dashboard.section", "section", section, "outcome", outcome)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.event.AnalyticsDataChangedEvent;
+import com.safetrack.domain.event.VehicleEventsPersistedEvent;
+import com.safetrack.exception.BadRequestException;
+import com.safetrack.repository.EventRollupBatchRepository;
+import com.safetrack.service.AnalyticsRollupService;
+import com.safetrack.service.EventPartitionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Mantiene los agregados diarios.
+ * Cada lote insertado se suma en la misma transacción que lo inserta, así que los agregados nunca van por delante
+ * ni por detrás de {@code vehicle_events}. La reconstrucción se hace día a día, cada uno en su propia transacción,
+ * y corrige solo las filas que difieren sin bloquear las tablas de agregados, así que la ingesta sigue durante el
+ * relleno inicial. Si un día choca con un lote en curso (interbloqueo), se reintenta.
+ */
+@Service
+@Slf4j
+public class AnalyticsRollupServiceImpl implements AnalyticsRollupService {
+
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final EventRollupBatchRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventPartitionService partitionService;
+    private final int backfillDays;
+    private final int maxRebuildDays;
+    private final Timer applyDuration;
+    private final Timer rebuildDuration;
+
+    public AnalyticsRollupServiceImpl(EventRollupBatchRepository rollupRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      ApplicationEventPublisher eventPublisher,
+                                      EventPartitionService partitionService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${safetrack.analytics.rollups.backfill-days:90}") int backfillDays,
+                                      @Value("${safetrack.analytics.rollups.max-rebuild-days:366}") int maxRebuildDays) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.partitionService = partitionService;
+        this.backfillDays = backfillDays;
+        this.maxRebuildDays = maxRebuildDays;
+        this.applyDuration = Timer.builder("safetrack.analytics.rollups.apply")
+                .description("Tiempo de actualización de los agregados por lote insertado")
+                .register(meterRegistry);
+        this.rebuildDuration = Timer.builder("safetrack.analytics.rollups.rebuild")
+                .description("Tiempo de reconstrucción de los agregados de un día")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Suma el lote a los agregados dentro de la transacción de ingesta: si falla, la inserción se revierte
+     * y el edge reenvía los eventos. Las importaciones masivas ya suman sus filas con una sola sentencia.
+     */
+    @EventListener
+    public void onEventsPersisted(VehicleEventsPersistedEvent persisted) {
+        if (persisted.bulkImport()) {
+            return;
+        }
+        applyDuration.record(() -> rollupRepository.apply(persisted.events()));
+    }
+
+    @Override
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+        // Los eventos de los meses separados por retención ya no están: reconstruir esos días borraría sus agregados.
+        partitionService.retainedSince().filter(startDate::isBefore).ifPresent(retainedSince -> {
+            throw new BadRequestException("Solo se conservan los eventos desde el " + retainedSince);
+        });
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days > maxRebuildDays) {
+            throw new BadRequestException("El rango a reconstruir no puede superar " + maxRebuildDays + " días");
+        }
+        long corrected = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            LocalDate current = day;
+            corrected += rebuildDuration.record(() -> rebuildDay(current));
+        }
+        eventPublisher.publishEvent(new AnalyticsDataChangedEvent(startDate, endDate));
+        log.info("Agregados diarios reconstruidos del {} al {}: {} filas corregidas", startDate, endDate, corrected);
+        return (int) days;
+    }
+
+    private int rebuildDay(LocalDate day) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer corrected = transactionTemplate.execute(status -> rollupRepository.rebuildDay(day));
+                return corrected != null ? corrected : 0;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= REBUILD_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Reconstrucción de agregados del {} interbloqueada con la ingesta (intento {}/{}), se reintenta",
+                        day, attempt, REBUILD_ATTEMPTS);
+            }
+        }
+    }
+
+    /**
+     * Rellena el histórico reciente la primera vez que arranca la aplicación con las tablas de agregados vacías.
+     * Corre en segundo plano para no retrasar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillDays <= 0 || !rollupRepository.isEmpty()) {
+            return;
+        }
+        Thread backfill = new Thread(() -> {
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            try {
+                LocalDate start = today.minusDays(backfillDays - 1L);
+                LocalDate retainedSince = partitionService.retainedSince().orElse(start);
+                rebuild(start.isBefore(retainedSince) ? retainedSince : start, today);
+            } catch (Exception e) {
+                log.error("No se pudieron rellenar los agregados diarios: {}", e.getMessage(), e);
+            }
+        }, "rollup-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * Recalcula el día anterior, que para entonces ya no recibe eventos en tiempo real, por si algún cambio
+     * en {@code vehicle_events} se hizo fuera de la aplicación.
+     */
+    @Scheduled(cron = "${safetrack.analytics.rollups.reconcile-cron:0 15 0 * * *}", zone = "UTC")
+    public void reconcileYesterday() {
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        try {
+            rebuild(yesterday, yesterday);
+        } catch (Exception e) {
+            log.error("No se pudieron reconciliar los agregados del {}: {}", yesterday, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.dto.response.FleetSummaryDataPoint;
+import com.safetrack.domain.dto.response.TimelineDataPoint;
+import com.safetrack.domain.dto.response.TopDriverResponse;
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.domain.event.AnalyticsDataChangedEvent;
+import com.safetrack.domain.event.RemoteAnalyticsDataChangedEvent;
+import com.safetrack.domain.event.RemoteVehicleEventsReceivedEvent;
+import com.safetrack.domain.event.VehicleEventsPersistedEvent;
+import com.safetrack.service.AnalyticsService;
+import com.safetrack.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados delante de {@link AnalyticsServiceImpl}.
+ * La clave es el método, el rango de días ya resuelto (las fechas omitidas se sustituyen por las de hoy, así que
+ * la clave cambia sola a medianoche) y la paginación. El tamaño está acotado y se expulsa la entrada menos usada.
+ * <p>
+ * En lugar de caducar por tiempo, cada día tiene una marca de cambio que se adelanta cuando la ingesta, una
+ * importación o una reconstrucción de agregados modifican sus datos. Una entrada solo es válida si ninguno de los
+ * días de su rango cambió después de calcularla: los rangos ya cerrados se sirven indefinidamente y los que
+ * incluyen hoy se recalculan tras cada lote ingerido.
+ * <p>
+ * Las marcas se guardan ordenadas por día y solo para los días que cambiaron, así que validar una entrada recorre
+ * los cambios de su rango y no todos sus días, sea cual sea su longitud. Su número está acotado por
+ * {@code max-tracked-days}: al superarlo se descartan las que ya no pueden invalidar ninguna entrada y, si no basta,
+ * se invalida toda la caché con una marca global. Un cambio de más días que ese límite también se trata como global.
+ * <p>
+ * Los fallos de caché con la misma clave que coinciden en el tiempo comparten una única consulta ({@link SingleFlight});
+ * {@code safetrack.analytics.singleflight.saved} cuenta las consultas ahorradas.
+ */
+@Service
+@Primary
+public class CachingAnalyticsService implements AnalyticsService {
+
+    private final AnalyticsServiceImpl delegate;
+    private final boolean enabled;
+    private final boolean singleFlightEnabled;
+    private final Map<CacheKey, Entry> entries;
+    private final SingleFlight<CacheKey> inFlight = new SingleFlight<>();
+
+    /** Reloj lógico de cambios; cada día guarda el valor del último cambio que lo afectó. */
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentSkipListMap<LocalDate, Long> dayStamps = new ConcurrentSkipListMap<>();
+    /** Marca global: las entradas calculadas antes de ella no son válidas, cambiara o no su rango. */
+    private final AtomicLong invalidBefore = new AtomicLong();
+    private final int maxTrackedDays;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer staleness;
+    private final Counter invalidations;
+
+    public CachingAnalyticsService(AnalyticsServiceImpl delegate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${safetrack.analytics.cache.enabled:true}") boolean enabled,
+                                   @Value("${safetrack.analytics.cache.max-entries:500}") int maxEntries,
+                                   @Value("${safetrack.analytics.cache.max-tracked-days:3660}") int maxTrackedDays,
+                                   @Value("${safetrack.analytics.single-flight.enabled:true}") boolean singleFlightEnabled) {
+        this.delegate = delegate;
+        this.maxTrackedDays = Math.max(1, maxTrackedDays);
+        this.enabled = enabled;
+        this.singleFlightEnabled = singleFlightEnabled;
+        this.meterRegistry = meterRegistry;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.staleness = Timer.builder("safetrack.analytics.cache.age")
+                .description("Antigüedad de los resultados servidos desde la caché de analíticas")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("safetrack.analytics.cache.invalidated")
+                .description("Resultados en caché descartados porque cambiaron los datos de su rango")
+                .register(meterRegistry);
+        Gauge.builder("safetrack.analytics.cache.size", this, CachingAnalyticsService::size)
+                .description("Resultados de analíticas en caché")
+                .register(meterRegistry);
+        Gauge.builder("safetrack.analytics.singleflight.inflight", inFlight, SingleFlight::size)
+                .description("Consultas de analíticas en curso compartibles con otros llamantes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Map<FatigueType, Long> getAlertDistribution(LocalDate startDate, LocalDate endDate) {
+        LocalDate start = startOr(startDate, 30);
+        LocalDate end = endOr(endDate);
+        return cached("alert-distribution", start, end, null, () -> delegate.getAlertDistribution(start, end));
+    }
+
+    @Override
+    public List<TopDriverResponse> getTopDriversByAlerts(LocalDate startDate, LocalDate endDate) {
+        LocalDate start = startOr(startDate, 30);
+        LocalDate end = endOr(endDate);
+        return cached("top-drivers", start, end, null, () -> delegate.getTopDriversByAlerts(start, end));
+    }
+
+    @Override
+    public List<TimelineDataPoint> getCriticalEventsTimeline(LocalDate startDate, LocalDate endDate) {
+        LocalDate start = startOr(startDate, 6);
+        LocalDate end = endOr(endDate);
+        return cached("critical-events-timeline", start, end, null, () -> delegate.getCriticalEventsTimeline(start, end));
+    }
+
+    @Override
+    public Page<FleetSummaryDataPoint> getFleetSummary(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        LocalDate start = startOr(startDate, 30);
+        LocalDate end = endOr(endDate);
+        return cached("fleet-summary", start, end, pageable, () -> delegate.getFleetSummary(start, end, pageable));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventsPersisted(VehicleEventsPersistedEvent persisted) {
+        NavigableSet<LocalDate> days = new TreeSet<>();
+        for (VehicleEvent event : persisted.events()) {
+            days.add(LocalDate.ofInstant(event.getTimestamp(), ZoneOffset.UTC));
+        }
+        markChanged(days);
+    }
+
+    /**
+     * Con varios nodos, cada uno tiene su propia caché: los eventos ingeridos en otro nodo también la invalidan.
+     */
+    @EventListener
+    public void onRemoteEvents(RemoteVehicleEventsReceivedEvent remote) {
+        NavigableSet<LocalDate> days = new TreeSet<>();
+        for (VehicleEventDTO event : remote.events()) {
+            if (event.getTimestamp() != null) {
+                days.add(LocalDate.ofInstant(event.getTimestamp(), ZoneOffset.UTC));
+            }
+        }
+        markChanged(days);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDataChanged(AnalyticsDataChangedEvent changed) {
+        markChanged(changed.startDate(), changed.endDate());
+    }
+
+    /**
+     * Importaciones y reconstrucciones hechas en otro nodo.
+     */
+    @EventListener
+    public void onRemoteDataChanged(RemoteAnalyticsDataChangedEvent changed) {
+        markChanged(changed.startDate(), changed.endDate());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String method, LocalDate start, LocalDate end, Pageable pageable, Supplier<T> loader) {
+        CacheKey key = new CacheKey(method, start, end, pageable);
+        if (!enabled) {
+            return load(key, loader).value();
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && isValid(entry, key)) {
+            record(method, "hit");
+            staleness.record(System.currentTimeMillis() - entry.computedAtMillis(), TimeUnit.MILLISECONDS);
+            return (T) entry.value();
+        }
+        record(method, entry == null ? "miss" : "stale");
+
+        // La marca se toma antes de consultar: un cambio que llegue durante la consulta invalidará el resultado.
+        long stamp = clock.get();
+        SingleFlight.Result<T> result = load(key, loader);
+        if (!result.shared()) {
+            synchronized (entries) {
+                entries.put(key, new Entry(result.value(), stamp, System.currentTimeMillis()));
+            }
+        }
+        return result.value();
+    }
+
+    /**
+     * Ejecuta la consulta, o espera la misma que ya esté en curso si otro panel la pidió a la vez
+     * (p. ej. todos los supervisores abriendo el panel en el cambio de turno).
+     */
+    private <T> SingleFlight.Result<T> load(CacheKey key, Supplier<T> loader) {
+        if (!singleFlightEnabled) {
+            return new SingleFlight.Result<>(loader.get(), false);
+        }
+        SingleFlight.Result<T> result = inFlight.execute(key, loader);
+        if (result.shared()) {
+            meterRegistry.counter("safetrack.analytics.singleflight.saved", "method", key.method()).increment();
+        }
+        return result;
+    }
+
+    private boolean isValid(Entry entry, CacheKey key) {
+        if (entry.stamp() < invalidBefore.get()) {
+            return false;
+        }
+        if (key.startDate().isAfter(key.endDate())) {
+            return true;
+        }
+        for (Long changedAt : dayStamps.subMap(key.startDate(), true, key.endDate(), true).values()) {
+            if (changedAt > entry.stamp()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void markChanged(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return;
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxTrackedDays) {
+            invalidateAll();
+            return;
+        }
+        NavigableSet<LocalDate> days = new TreeSet<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        markChanged(days);
+    }
+
+    private void markChanged(NavigableSet<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        long stamp = clock.incrementAndGet();
+        for (LocalDate day : days) {
+            dayStamps.merge(day, stamp, Math::max);
+        }
+        // Se eliminan ya las entradas afectadas para liberar su espacio; la comprobación de marcas al leer cubre
+        // las que se guarden después con una marca anterior a este cambio.
+        int removed = 0;
+        synchronized (entries) {
+            var iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                var cached = iterator.next();
+                if (cached.getValue().stamp() < stamp && overlaps(cached.getKey(), days)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            invalidations.increment(removed);
+        }
+        if (dayStamps.size() > maxTrackedDays) {
+            pruneStamps();
+        }
+    }
+
+    /**
+     * Descarta las marcas que ya no pueden invalidar ninguna entrada guardada: las no posteriores a la entrada más
+     * antigua. Sube la marca global hasta ese punto para que un resultado en curso, calculado antes, tampoco se tome
+     * por válido. Si una entrada antigua retiene demasiadas marcas, se invalida toda la caché.
+     */
+    private void pruneStamps() {
+        long oldestEntry;
+        synchronized (entries) {
+            oldestEntry = entries.values().stream().mapToLong(Entry::stamp).min().orElse(clock.get());
+        }
+        discardStampsUpTo(oldestEntry);
+        if (dayStamps.size() > maxTrackedDays) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Invalida todas las entradas con una marca global, sin guardar una marca por día.
+     */
+    private void invalidateAll() {
+        long stamp = clock.incrementAndGet();
+        discardStampsUpTo(stamp);
+        int removed;
+        synchronized (entries) {
+            removed = entries.size();
+            entries.clear();
+        }
+        if (removed > 0) {
+            invalidations.increment(removed);
+        }
+    }
+
+    private void discardStampsUpTo(long stamp) {
+        invalidBefore.accumulateAndGet(stamp, Math::max);
+        // Eliminación condicional: una marca adelantada mientras tanto por otro cambio se conserva.
+        dayStamps.values().removeIf(changedAt -> changedAt <= stamp);
+    }
+
+    private static boolean overlaps(CacheKey key, NavigableSet<LocalDate> days) {
+        LocalDate first = days.ceiling(key.startDate());
+        return first != null && !first.isAfter(key.endDate());
+    }
+
+    private void record(String method, String result) {
+        meterRegistry.counter("safetrack.analytics.cache.requests", "method", method, "result", result).increment();
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static LocalDate startOr(LocalDate startDate, int defaultDaysBack) {
+        return startDate != null ? startDate : LocalDate.now(ZoneOffset.UTC).minusDays(defaultDaysBack);
+    }
+
+    private static LocalDate endOr(LocalDate endDate) {
+        return endDate != null ? endDate : LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private record CacheKey(String method, LocalDate startDate, LocalDate endDate, Pageable pageable) {
+    }
+
+    /**
+     * @param stamp            Valor del reloj de cambios antes de calcular el resultado.
+     * @param computedAtMillis Momento del cálculo, para la métrica de antigüedad.
+     */
+    private record Entry(Object value, long stamp, long computedAtMillis) {
+    }
+}
@@ -13,6 +13,7 @@ import com.safetrack.repository.DriverRepository;
 import com.safetrack.repository.VehicleRepository;
 import com.safetrack.repository.specification.DriverSpecification;
 import com.safetrack.service.DriverService;
+import com.safetrack.service.FleetDirectoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -39,6 +40,7 @@ public class DriverServiceImpl implements DriverService {
     private final DriverSpecification driverSpecification;
     private final VehicleRepository vehicleRepository;
     private final VehicleMapper vehicleMapper;
+    private final FleetDirectoryService fleetDirectoryService;
 
     @Override
     @Transactional
@@ -52,6 +54,7 @@ public class DriverServiceImpl implements DriverService {
 
         Driver driver = driverMapper.toDriver(request);
         Driver savedDriver = driverRepository.save(driver);
+        fleetDirectoryService.driverSaved(savedDriver);
         log.info("Conductor creado exitosamente con ID: {}", savedDriver.getId());
         return driverMapper.toDriverResponse(savedDriver);
     }
@@ -90,6 +93,7 @@ public class DriverServiceImpl implements DriverService {
 
         driverMapper.updateDriverFromRequest(request, driverToUpdate);
         Driver updatedDriver = driverRepository.save(driverToUpdate);
+        fleetDirectoryService.driverSaved(updatedDriver);
         log.info("Conductor con ID: {} actualizado exitosamente", updatedDriver.getId());
         return driverMapper.toDriverResponse(updatedDriver);
     }
@@ -102,6 +106,7 @@ public class DriverServiceImpl implements DriverService {
             throw new ResourceNotFoundException("No se puede eliminar. Conductor no encontrado con ID: " + id);
         }
         driverRepository.deleteById(id);
+        fleetDirectoryService.driverDeleted(id);
         log.info("Conductor con ID: {} eliminado exitosamente", id);
     }
 
@@ -0,0 +1,325 @@
+package com.safetrack.service.Impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.dto.response.BulkImportResponse;
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.domain.event.AnalyticsDataChangedEvent;
+import com.safetrack.domain.event.VehicleEventsPersistedEvent;
+import com.safetrack.repository.EventRollupBatchRepository;
+import com.safetrack.service.EventBulkImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Importación masiva de eventos usando el protocolo COPY de PostgreSQL.
+ * Cada línea se valida y se convierte a CSV a medida que se lee del cuerpo de la petición,
+ * y el CSV se envía al servidor en bloques, de modo que un día completo de datos offline
+ * de un vehículo se escribe en un único viaje de ida y vuelta.
+ * El COPY se hace sobre una tabla temporal que luego se vuelca con {@code ON CONFLICT DO NOTHING},
+ * para que los eventos ya recibidos por WebSocket no aborten la importación. Las líneas con un conductor o vehículo
+ * inexistente se rechazan una a una al volcar, en lugar de hacer fallar la importación entera por la clave foránea.
+ * <p>
+ * Al terminar se avisa del rango de días importado (caché de analíticas de este nodo y, por el bus, de los demás),
+ * y las filas recientes, dentro de la ventana de las métricas en vivo, se publican como cualquier lote persistido
+ * para que las vean la deduplicación, las métricas en vivo y el estado de la flota.
+ */
+@Service
+@Slf4j
+public class EventBulkImportServiceImpl implements EventBulkImportService {
+
+    private static final String EVENT_COLUMNS =
+            "id, driver_id, vehicle_id, timestamp, fatigue_level, fatigue_type, eye_closure_duration, yawn_count, blink_rate";
+
+    private static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE vehicle_events_staging " +
+            "(LIKE vehicle_events INCLUDING DEFAULTS, line_number bigint) ON COMMIT DROP";
+
+    private static final String COPY_SQL = "COPY vehicle_events_staging (" + EVENT_COLUMNS + ", line_number) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    /** Saca del staging las líneas cuyo conductor o vehículo no existe, que violarían las claves foráneas. */
+    private static final String REJECT_UNKNOWN_REFERENCES_SQL = "WITH unknown AS (" +
+            "SELECT s.line_number, s.driver_id, s.vehicle_id, d.id IS NULL AS unknown_driver " +
+            "FROM vehicle_events_staging s " +
+            "LEFT JOIN drivers d ON d.id = s.driver_id " +
+            "LEFT JOIN vehicles v ON v.id = s.vehicle_id " +
+            "WHERE d.id IS NULL OR v.id IS NULL), " +
+            "rejected AS (" +
+            "DELETE FROM vehicle_events_staging s USING unknown u WHERE s.line_number = u.line_number " +
+            "RETURNING u.line_number, u.driver_id, u.vehicle_id, u.unknown_driver) " +
+            "SELECT * FROM rejected ORDER BY line_number";
+
+    private static final String CREATE_IMPORTED_SQL = "CREATE TEMP TABLE vehicle_events_imported " +
+            "(LIKE vehicle_events INCLUDING DEFAULTS) ON COMMIT DROP";
+
+    /** Vuelca el staging y guarda aparte las filas realmente insertadas (sin duplicados) para los agregados. */
+    private static final String MERGE_STAGING_SQL = "WITH inserted AS (" +
+            "INSERT INTO vehicle_events (" + EVENT_COLUMNS + ") " +
+            "SELECT " + EVENT_COLUMNS + " FROM vehicle_events_staging " +
+            "ON CONFLICT DO NOTHING RETURNING " + EVENT_COLUMNS + ") " +
+            "INSERT INTO vehicle_events_imported (" + EVENT_COLUMNS + ") SELECT " + EVENT_COLUMNS + " FROM inserted";
+
+    private static final String IMPORTED_RANGE_SQL = "SELECT " +
+            "CAST(MIN(timestamp) AT TIME ZONE 'UTC' AS date), CAST(MAX(timestamp) AT TIME ZONE 'UTC' AS date) " +
+            "FROM vehicle_events_imported";
+
+    private static final String RECENT_IMPORTED_SQL = "SELECT id, driver_id, vehicle_id, timestamp, fatigue_level, " +
+            "fatigue_type, eye_closure_duration, yawn_count, blink_rate, occurrence_count " +
+            "FROM vehicle_events_imported WHERE timestamp >= ? ORDER BY timestamp";
+
+    /** Tamaño aproximado de cada bloque enviado al servidor. */
+    private static final int COPY_CHUNK_CHARS = 64 * 1024;
+
+    /** Máximo de errores detallados que se devuelven al cliente. */
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final DataSource dataSource;
+    private final ObjectReader eventReader;
+    private final EventRollupBatchRepository rollupRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int liveWindowMinutes;
+
+    public EventBulkImportServiceImpl(DataSource dataSource, ObjectMapper objectMapper,
+                                      EventRollupBatchRepository rollupRepository, ApplicationEventPublisher eventPublisher,
+                                      @Value("${safetrack.analytics.live.max-window-minutes:1440}") int liveWindowMinutes) {
+        this.dataSource = dataSource;
+        this.rollupRepository = rollupRepository;
+        this.eventPublisher = eventPublisher;
+        this.liveWindowMinutes = liveWindowMinutes;
+        this.eventReader = objectMapper.readerFor(VehicleEventDTO.class);
+    }
+
+    /**
+     * Los eventos importados son históricos (cola offline del edge), por lo que no generan notificaciones
+     * a los gestores.
+     */
+    @Override
+    @Transactional
+    public BulkImportResponse importNdjson(InputStream ndjson) throws IOException {
+        long valid = 0;
+        long inserted;
+        long rejected = 0;
+        long lineNumber = 0;
+        List<BulkImportResponse.LineError> errors = new ArrayList<>();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+            }
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+            StringBuilder chunk = new StringBuilder(COPY_CHUNK_CHARS + 256);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    appendCsvRow(chunk, eventReader.readValue(line), lineNumber);
+                    valid++;
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(new BulkImportResponse.LineError(lineNumber, describe(e)));
+                    }
+                }
+                if (chunk.length() >= COPY_CHUNK_CHARS) {
+                    writeChunk(copyIn, chunk);
+                }
+            }
+            writeChunk(copyIn, chunk);
+            copyIn.endCopy();
+
+            long unknownReferences = rejectUnknownReferences(connection, errors);
+            valid -= unknownReferences;
+            rejected += unknownReferences;
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_IMPORTED_SQL);
+                inserted = statement.executeUpdate(MERGE_STAGING_SQL);
+            }
+            rollupRepository.applyFrom("vehicle_events_imported");
+            if (inserted > 0) {
+                publishChangedRange(connection);
+                publishRecentEvents(connection);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falló la importación masiva de eventos: " + e.getMessage(), e);
+        } finally {
+            // Si la lectura del cuerpo o el COPY fallaron a mitad, se cancela para liberar la conexión.
+            cancelIfActive(copyIn);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+
+        errors.sort(Comparator.comparingLong(BulkImportResponse.LineError::line));
+        if (errors.size() > MAX_REPORTED_ERRORS) {
+            errors.subList(MAX_REPORTED_ERRORS, errors.size()).clear();
+        }
+        long duplicates = valid - inserted;
+        log.info("Importación NDJSON finalizada: {} eventos nuevos, {} duplicados, {} líneas rechazadas",
+                inserted, duplicates, rejected);
+        return new BulkImportResponse(inserted, duplicates, rejected, errors);
+    }
+
+    /**
+     * Rechaza las líneas cuyo conductor o vehículo no existe, que de otro modo harían fallar el volcado entero.
+     * Añade a {@code errors} el detalle de las primeras.
+     * @return Número de líneas rechazadas.
+     */
+    private static long rejectUnknownReferences(Connection connection, List<BulkImportResponse.LineError> errors)
+            throws SQLException {
+        long rejected = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(REJECT_UNKNOWN_REFERENCES_SQL)) {
+            while (rows.next()) {
+                if (rejected++ >= MAX_REPORTED_ERRORS) {
+                    continue;
+                }
+                String message = rows.getBoolean("unknown_driver")
+                        ? "El conductor " + rows.getObject("driver_id") + " no existe"
+                        : "El vehículo " + rows.getObject("vehicle_id") + " no existe";
+                errors.add(new BulkImportResponse.LineError(rows.getLong("line_number"), message));
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Avisa del rango de días que cambió con la importación, p. ej. para invalidar analíticas en caché.
+     * Los oyentes transaccionales lo reciben tras el commit.
+     */
+    private void publishChangedRange(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet range = statement.executeQuery(IMPORTED_RANGE_SQL)) {
+            if (range.next() && range.getDate(1) != null) {
+                eventPublisher.publishEvent(new AnalyticsDataChangedEvent(
+                        range.getDate(1).toLocalDate(), range.getDate(2).toLocalDate()));
+            }
+        }
+    }
+
+    /**
+     * Publica como lote persistido los eventos importados dentro de la ventana de las métricas en vivo; los más
+     * antiguos solo afectan a las analíticas por días, que ya se avisan por rango. Los agregados ya incluyen estas
+     * filas, por lo que el lote se marca como importación masiva.
+     */
+    private void publishRecentEvents(Connection connection) throws SQLException {
+        List<VehicleEvent> recent = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(RECENT_IMPORTED_SQL)) {
+            statement.setTimestamp(1, Timestamp.from(Instant.now().minus(liveWindowMinutes, ChronoUnit.MINUTES)));
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    recent.add(toEvent(rows));
+                }
+            }
+        }
+        if (!recent.isEmpty()) {
+            eventPublisher.publishEvent(new VehicleEventsPersistedEvent(recent, true));
+        }
+    }
+
+    private static VehicleEvent toEvent(ResultSet rs) throws SQLException {
+        return VehicleEvent.builder()
+                .id(rs.getObject("id", UUID.class))
+                .driverId(rs.getObject("driver_id", UUID.class))
+                .vehicleId(rs.getObject("vehicle_id", UUID.class))
+                .timestamp(rs.getTimestamp("timestamp").toInstant())
+                .fatigueLevel(FatigueLevel.valueOf(rs.getString("fatigue_level")))
+                .fatigueType(FatigueType.valueOf(rs.getString("fatigue_type")))
+                .eyeClosureDuration(rs.getDouble("eye_closure_duration"))
+                .yawnCount(rs.getInt("yawn_count"))
+                .blinkRate(rs.getDouble("blink_rate"))
+                .occurrenceCount(rs.getInt("occurrence_count"))
+                .build();
+    }
+
+    /**
+     * Valida el evento y lo añade como una fila CSV. Todos los valores (UUID, ISO-8601, nombres de enum
+     * y números) están libres de comas y comillas, por lo que no requieren escape.
+     */
+    private void appendCsvRow(StringBuilder chunk, VehicleEventDTO event, long lineNumber) {
+        UUID driverId = require(event.getDriverId(), "driverId");
+        UUID vehicleId = require(event.getVehicleId(), "vehicleId");
+        require(event.getTimestamp(), "timestamp");
+        require(event.getFatigueLevel(), "fatigueLevel");
+        require(event.getFatigueType(), "fatigueType");
+
+        chunk.append(UUID.randomUUID()).append(',')
+                .append(driverId).append(',')
+                .append(vehicleId).append(',')
+                .append(event.getTimestamp()).append(',')
+                .append(event.getFatigueLevel().name()).append(',')
+                .append(event.getFatigueType().name()).append(',')
+                .append(event.getEyeClosureDuration()).append(',')
+                .append(event.getYawnCount()).append(',')
+                .append(event.getBlinkRate()).append(',')
+                .append(lineNumber).append('\n');
+    }
+
+    private static <T> T require(T value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException("El campo '" + field + "' es obligatorio");
+        }
+        return value;
+    }
+
+    private static void writeChunk(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static void cancelIfActive(CopyIn copyIn) {
+        if (copyIn == null || !copyIn.isActive()) {
+            return;
+        }
+        try {
+            copyIn.cancelCopy();
+        } catch (SQLException e) {
+            log.warn("No se pudo cancelar el COPY en curso: {}", e.getMessage());
+        }
+    }
+
+    private static String describe(Exception e) {
+        if (e instanceof JsonProcessingException jsonError) {
+            return "JSON inválido: " + jsonError.getOriginalMessage();
+        }
+        return e.getMessage();
+    }
+}
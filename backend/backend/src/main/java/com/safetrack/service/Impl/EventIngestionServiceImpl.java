@@ -0,0 +1,135 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.ingestion.AlertCoalescer;
+import com.safetrack.ingestion.CoalescedEvent;
+import com.safetrack.ingestion.EventDeduplicator;
+import com.safetrack.ingestion.EventKey;
+import com.safetrack.ingestion.ReceiptSender;
+import com.safetrack.ingestion.ReceiptTarget;
+import com.safetrack.ingestion.WriteBehindEventBuffer;
+import com.safetrack.mapper.VehicleEventMapper;
+import com.safetrack.service.EventIngestionService;
+import com.safetrack.service.EventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventIngestionServiceImpl implements EventIngestionService {
+
+    private final EventService eventService;
+    private final WriteBehindEventBuffer writeBehindBuffer;
+    private final VehicleEventMapper vehicleEventMapper;
+    private final EventDeduplicator eventDeduplicator;
+    private final ReceiptSender receiptSender;
+    private final AlertCoalescer alertCoalescer;
+
+    /**
+     * Los eventos repetidos dentro de la ventana de deduplicación se descartan sin persistirse ni difundirse.
+     * Si el original ya está persistido la copia se confirma en el acto; si aún está pendiente, su RECEIPT
+     * se envía cuando se persista el original.
+     * Si la agrupación de ráfagas está activa, el evento puede quedar retenido en su ventana y persistirse
+     * más tarde como parte de un evento agrupado (ver ingestCoalesced).
+     * Un evento sin marca de tiempo, nivel o tipo de fatiga se rechaza de forma definitiva antes de llegar a la
+     * deduplicación o al buffer: nunca podrá persistirse y, si se devolviera para reenvío, el edge lo repetiría sin fin.
+     */
+    @Override
+    public List<VehicleEventDTO> ingest(VehicleEventDTO eventDTO, ReceiptTarget receipt) {
+        if (!hasRequiredFields(eventDTO)) {
+            log.warn("Evento rechazado por faltar campos obligatorios: {}", eventDTO);
+            receiptSender.reject(receipt);
+            return List.of();
+        }
+        switch (eventDeduplicator.admit(EventKey.of(eventDTO), receipt)) {
+            case DUPLICATE -> {
+                log.debug("Evento duplicado descartado: {}", eventDTO);
+                receiptSender.acknowledge(receipt);
+                return List.of();
+            }
+            case IN_FLIGHT -> {
+                log.debug("Evento duplicado a la espera de su original: {}", eventDTO);
+                return List.of();
+            }
+            case NEW -> { }
+        }
+        if (!alertCoalescer.isEnabled()) {
+            VehicleEventDTO saved = persist(CoalescedEvent.single(eventDTO, receipt));
+            return saved == null ? List.of() : List.of(saved);
+        }
+        List<VehicleEventDTO> saved = new ArrayList<>(2);
+        for (CoalescedEvent ready : alertCoalescer.offer(eventDTO, receipt)) {
+            VehicleEventDTO event = ingestCoalesced(ready);
+            if (event != null) {
+                saved.add(event);
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public VehicleEventDTO ingestCoalesced(CoalescedEvent coalesced) {
+        return persist(coalesced);
+    }
+
+    /**
+     * Olvida las claves del evento y devuelve al cliente sus frames (y los de las copias que lo esperaban)
+     * para que los reenvíe.
+     */
+    @Override
+    public void discard(CoalescedEvent pending) {
+        List<ReceiptTarget> returned = new ArrayList<>(pending.receipts());
+        returned.addAll(eventDeduplicator.forget(pending.keys()));
+        receiptSender.retryLater(returned);
+    }
+
+    private static boolean hasRequiredFields(VehicleEventDTO eventDTO) {
+        return eventDTO.getTimestamp() != null && eventDTO.getFatigueLevel() != null && eventDTO.getFatigueType() != null;
+    }
+
+    /**
+     * En modo BATCHED el evento se encola en el buffer write-behind, que lo difunde tras persistirlo, y aquí
+     * no se devuelve nada; si el buffer está lleno se persiste de forma síncrona como contrapresión.
+     * En modo DIRECT se persiste en la misma llamada. Un evento con datos no válidos (p. ej. un conductor
+     * inexistente) se rechaza de forma definitiva en lugar de pedir su reenvío.
+     * Los RECEIPT se envían solo cuando la transacción del evento se ha confirmado; en modo BATCHED los envía
+     * el buffer al vaciar el lote. Si la persistencia falla, el evento se descarta (ver discard) para aceptar el reenvío.
+     */
+    private VehicleEventDTO persist(CoalescedEvent pending) {
+        VehicleEventDTO eventDTO = pending.event();
+        if (writeBehindBuffer.isEnabled()) {
+            VehicleEvent event = vehicleEventMapper.toEntity(eventDTO);
+            event.setId(UUID.randomUUID());
+            if (writeBehindBuffer.submit(event, pending.receipts(), pending.keys())) {
+                return null;
+            }
+            log.warn("Buffer de ingesta lleno, persistiendo el evento de forma síncrona");
+        }
+        Optional<VehicleEvent> saved;
+        try {
+            saved = eventService.saveEvent(eventDTO);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Evento rechazado por datos no válidos: {}", e.getMostSpecificCause().getMessage());
+            List<ReceiptTarget> rejected = new ArrayList<>(pending.receipts());
+            rejected.addAll(eventDeduplicator.forget(pending.keys()));
+            receiptSender.reject(rejected);
+            return null;
+        } catch (RuntimeException e) {
+            discard(pending);
+            throw e;
+        }
+        List<ReceiptTarget> receipts = new ArrayList<>(pending.receipts());
+        receipts.addAll(eventDeduplicator.markPersisted(pending.keys()));
+        receiptSender.acknowledgeBatch(receipts);
+        return saved.map(vehicleEventMapper::toDto).orElse(null);
+    }
+}
@@ -0,0 +1,240 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.repository.EventPartitionRepository;
+import com.safetrack.repository.EventPartitionRepository.EventPartition;
+import com.safetrack.service.EventPartitionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Particiones mensuales (UTC) de {@code vehicle_events}. Las consultas por rango de {@code timestamp} solo leen
+ * los meses afectados, y borrar un mes es separar y borrar su tabla en lugar de un DELETE masivo.
+ * <p>
+ * Las bases anteriores a las migraciones conservan sus eventos en la partición {@code vehicle_events_legacy}
+ * (ver V2__partition_vehicle_events), que se separa entera cuando todo su rango caduca. Cada noche se crean las
+ * particiones de los próximos {@code premake-months} meses. Los eventos de meses sin partición (p. ej. un histórico
+ * importado) caen en la partición por defecto y se mueven a su partición mensual en el siguiente mantenimiento.
+ * <p>
+ * Con retención activa se separan los meses completos anteriores a {@code retention-months}; los agregados diarios
+ * de esos días se conservan, por lo que las analíticas históricas no cambian.
+ * <p>
+ * Cada partición se crea o separa en su propia transacción con {@code lock-timeout-ms}: si el DDL no obtiene su
+ * bloqueo a tiempo (p. ej. por una consulta larga) se deshace sin haber frenado la ingesta y se reintenta hasta
+ * {@code lock-attempts} veces; un mes que falla no impide mantener los demás.
+ */
+@Service
+@Slf4j
+public class EventPartitionServiceImpl implements EventPartitionService {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final EventPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final boolean dropDetached;
+    private final long lockTimeoutMillis;
+    private final int lockAttempts;
+    private final long lockRetryDelayMillis;
+    private final Counter createdPartitions;
+    private final Counter detachedPartitions;
+
+    public EventPartitionServiceImpl(EventPartitionRepository partitionRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${safetrack.events.partitions.enabled:true}") boolean enabled,
+                                     @Value("${safetrack.events.partitions.premake-months:3}") int premakeMonths,
+                                     @Value("${safetrack.events.partitions.retention-months:0}") int retentionMonths,
+                                     @Value("${safetrack.events.partitions.drop-detached:false}") boolean dropDetached,
+                                     @Value("${safetrack.events.partitions.lock-timeout-ms:2000}") long lockTimeoutMillis,
+                                     @Value("${safetrack.events.partitions.lock-attempts:5}") int lockAttempts,
+                                     @Value("${safetrack.events.partitions.lock-retry-delay-ms:5000}") long lockRetryDelayMillis) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.dropDetached = dropDetached;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.lockAttempts = Math.max(1, lockAttempts);
+        this.lockRetryDelayMillis = lockRetryDelayMillis;
+        this.createdPartitions = Counter.builder("safetrack.events.partitions.created")
+                .description("Particiones mensuales de eventos creadas")
+                .register(meterRegistry);
+        this.detachedPartitions = Counter.builder("safetrack.events.partitions.detached")
+                .description("Particiones de eventos separadas por retención")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Se ejecuta antes que el resto de tareas de arranque que leen {@code vehicle_events} (p. ej. el relleno de
+     * agregados), para que el mes en curso ya tenga su partición.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void initialize() {
+        maintain();
+    }
+
+    @Override
+    @Scheduled(cron = "${safetrack.events.partitions.maintenance-cron:0 30 0 * * *}", zone = "UTC")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<EventPartition> partitions = inMaintenanceTransaction("lectura de particiones", () -> {
+                if (!partitionRepository.isPartitioned()) {
+                    log.warn("vehicle_events no está particionada; la convierte la migración V2__partition_vehicle_events");
+                    return null;
+                }
+                return new ArrayList<>(partitionRepository.findPartitions());
+            });
+            if (partitions == null) {
+                return;
+            }
+            createMissing(partitions);
+            detachExpired(partitions);
+        } catch (Exception e) {
+            log.error("Error en el mantenimiento de particiones de eventos: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<LocalDate> retainedSince() {
+        if (retentionMonths <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths).atDay(1));
+    }
+
+    private void createMissing(List<EventPartition> partitions) {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= premakeMonths; i++) {
+            months.add(current.plusMonths(i));
+        }
+        for (Instant month : inMaintenanceTransaction("meses de la partición por defecto",
+                partitionRepository::findDefaultPartitionMonths)) {
+            months.add(YearMonth.from(month.atOffset(ZoneOffset.UTC)));
+        }
+
+        // Los meses ya caducados no se recrean: sus eventos se borran con el resto de la retención.
+        retainedSince().map(YearMonth::from).ifPresent(oldest -> months.removeIf(month -> month.isBefore(oldest)));
+
+        for (YearMonth month : months) {
+            Instant from = monthStart(month);
+            Instant to = monthStart(month.plusMonths(1));
+            if (partitions.stream().anyMatch(partition -> partition.overlaps(from, to))) {
+                continue;
+            }
+            String name = EventPartitionRepository.PARENT_TABLE + "_p" + PARTITION_SUFFIX.format(month);
+            try {
+                Integer moved = inMaintenanceTransaction("creación de " + name, () -> {
+                    // Otro nodo pudo crearla desde la lectura inicial.
+                    if (partitionRepository.findPartitions().stream().anyMatch(partition -> partition.overlaps(from, to))) {
+                        return null;
+                    }
+                    boolean reattached = partitionRepository.tableExists(name);
+                    int count = partitionRepository.createPartition(name, from, to);
+                    log.info("Partición {} {}{}", name, reattached ? "adjuntada de nuevo" : "creada",
+                            count > 0 ? " con " + count + " eventos de la partición por defecto" : "");
+                    return count;
+                });
+                partitions.add(new EventPartition(name, from, to, false));
+                if (moved != null) {
+                    createdPartitions.increment();
+                }
+            } catch (Exception e) {
+                log.error("No se pudo crear la partición {}: {}", name, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void detachExpired(List<EventPartition> partitions) {
+        Optional<LocalDate> retainedSince = retainedSince();
+        if (retainedSince.isEmpty()) {
+            return;
+        }
+        Instant cutoff = retainedSince.get().atStartOfDay(ZoneOffset.UTC).toInstant();
+        int expiredDefaultRows = inMaintenanceTransaction("borrado en la partición por defecto",
+                () -> partitionRepository.deleteFromDefaultBefore(cutoff));
+        if (expiredDefaultRows > 0) {
+            log.info("{} eventos caducados borrados de la partición por defecto", expiredDefaultRows);
+        }
+        for (EventPartition partition : partitions) {
+            if (partition.isDefault() || partition.to() == null || partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                inMaintenanceTransaction("separación de " + partition.name(), () -> {
+                    partitionRepository.detachPartition(partition.name());
+                    if (dropDetached) {
+                        partitionRepository.dropTable(partition.name());
+                    }
+                    return null;
+                });
+                detachedPartitions.increment();
+                log.info("Partición {} {} por retención (eventos anteriores a {})", partition.name(),
+                        dropDetached ? "borrada" : "separada", partition.to());
+            } catch (Exception e) {
+                log.error("No se pudo separar la partición {}: {}", partition.name(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un paso del mantenimiento en su propia transacción, con el bloqueo de mantenimiento y el
+     * {@code lock_timeout} configurado. Si el paso no obtiene un bloqueo a tiempo se reintenta tras una espera
+     * creciente; agotados los intentos se propaga el error.
+     */
+    private <T> T inMaintenanceTransaction(String step, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    partitionRepository.lockMaintenance(lockTimeoutMillis);
+                    return work.get();
+                });
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= lockAttempts) {
+                    throw e;
+                }
+                log.warn("Mantenimiento de particiones: {} sin bloqueo tras {} ms (intento {}/{}), se reintenta",
+                        step, lockTimeoutMillis, attempt, lockAttempts);
+                try {
+                    Thread.sleep(lockRetryDelayMillis * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static Instant monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
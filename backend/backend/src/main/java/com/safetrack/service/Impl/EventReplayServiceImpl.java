@@ -0,0 +1,363 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.dto.request.ReplayRequest;
+import com.safetrack.domain.dto.request.ReplaySeekRequest;
+import com.safetrack.domain.dto.response.ReplayStatusMessage;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.service.EventReplayService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Reproduce los eventos de un vehículo leyendo {@code vehicle_events} por páginas de {@code page-size} filas,
+ * así que la memoria usada no depende del rango. Cada página es una consulta corta que devuelve la conexión al pool
+ * antes de enviar sus eventos: una reproducción lenta o pausada no retiene conexiones ni transacciones.
+ * La página siguiente continúa desde el último instante enviado (paginación por clave sobre {@code timestamp});
+ * los eventos de ese mismo instante ya enviados se saltan con un desplazamiento, que solo cuenta los empates.
+ * Cada reproducción corre en su propio hilo de un pool acotado y respeta los intervalos reales entre eventos
+ * divididos por la velocidad, con un máximo por intervalo para no esperar horas en los huecos.
+ * Un salto (seek) descarta la página en curso y lee la siguiente desde la nueva posición.
+ */
+@Service
+@Slf4j
+public class EventReplayServiceImpl implements EventReplayService {
+
+    public static final String EVENTS_DESTINATION = "/queue/replay";
+    public static final String STATUS_DESTINATION = "/queue/replay-status";
+
+    private static final Set<Integer> SPEEDS = Set.of(1, 10, 100);
+
+    /**
+     * Una página: vehículo, desde, hasta, tamaño y eventos del instante inicial que ya se enviaron.
+     * También lo ejecuta EventIndexUsageVerifier al arrancar para comprobar que usa su índice.
+     */
+    public static final String REPLAY_SQL = "SELECT driver_id, vehicle_id, timestamp, fatigue_level, fatigue_type, " +
+            "eye_closure_duration, yawn_count, blink_rate, occurrence_count, window_start, window_end " +
+            "FROM vehicle_events " +
+            "WHERE vehicle_id = ? AND timestamp >= ? AND timestamp <= ? " +
+            "ORDER BY timestamp, driver_id, fatigue_type " +
+            "LIMIT ? OFFSET ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int pageSize;
+    private final ThreadPoolExecutor replayExecutor;
+    private final long maxGapMillis;
+    private final long maxPauseMillis;
+    private final Map<String, Replay> replays = new ConcurrentHashMap<>();
+
+    public EventReplayServiceImpl(JdbcTemplate jdbcTemplate,
+                                  SimpMessagingTemplate messagingTemplate,
+                                  @Value("${safetrack.replay.page-size:200}") int pageSize,
+                                  @Value("${safetrack.replay.max-concurrent:4}") int maxConcurrent,
+                                  @Value("${safetrack.replay.max-gap-ms:2000}") long maxGapMillis,
+                                  @Value("${safetrack.replay.max-pause-ms:600000}") long maxPauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxGapMillis = maxGapMillis;
+        this.maxPauseMillis = maxPauseMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.replayExecutor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "event-replay-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.replayExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void start(String sessionId, ReplayRequest request) {
+        stop(sessionId);
+        if (!SPEEDS.contains(request.getSpeed())) {
+            sendStatus(sessionId, "FAILED", request.getVehicleId(), request.getFrom(), request.getSpeed(), 0,
+                    "Velocidad no soportada, use 1, 10 o 100");
+            return;
+        }
+        if (request.getFrom().isAfter(request.getTo())) {
+            sendStatus(sessionId, "FAILED", request.getVehicleId(), request.getFrom(), request.getSpeed(), 0,
+                    "El inicio del rango es posterior al fin");
+            return;
+        }
+        Replay replay = new Replay(sessionId, request);
+        replays.put(sessionId, replay);
+        try {
+            replayExecutor.execute(replay);
+        } catch (RejectedExecutionException e) {
+            replays.remove(sessionId, replay);
+            sendStatus(sessionId, "FAILED", request.getVehicleId(), request.getFrom(), request.getSpeed(), 0,
+                    "Demasiadas reproducciones en curso, inténtelo más tarde");
+        }
+    }
+
+    @Override
+    public void pause(String sessionId) {
+        withReplay(sessionId, replay -> replay.setPaused(true));
+    }
+
+    @Override
+    public void resume(String sessionId) {
+        withReplay(sessionId, replay -> replay.setPaused(false));
+    }
+
+    @Override
+    public void seek(String sessionId, ReplaySeekRequest request) {
+        withReplay(sessionId, replay -> replay.seek(request.getPosition(), request.getSpeed()));
+    }
+
+    @Override
+    public void stop(String sessionId) {
+        withReplay(sessionId, Replay::stop);
+    }
+
+    /**
+     * Detiene la reproducción de una sesión que se desconecta.
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        stop(event.getSessionId());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        replays.values().forEach(Replay::stop);
+        replayExecutor.shutdown();
+    }
+
+    private void withReplay(String sessionId, Consumer<Replay> action) {
+        Replay replay = replays.get(sessionId);
+        if (replay != null) {
+            action.accept(replay);
+        }
+    }
+
+    private void sendStatus(String sessionId, String state, UUID vehicleId, Instant position, int speed, long sent, String message) {
+        messagingTemplate.convertAndSendToUser(sessionId, STATUS_DESTINATION,
+                new ReplayStatusMessage(state, vehicleId, position, speed, sent, message), sessionHeaders(sessionId));
+    }
+
+    /**
+     * Cabeceras para enviar a una sesión concreta sin usuario autenticado (destino /user/queue/... de esa sesión).
+     */
+    private static MessageHeaders sessionHeaders(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    private static VehicleEventDTO toDto(ResultSet rs) throws SQLException {
+        Timestamp windowStart = rs.getTimestamp("window_start");
+        Timestamp windowEnd = rs.getTimestamp("window_end");
+        return VehicleEventDTO.builder()
+                .driverId(rs.getObject("driver_id", UUID.class))
+                .vehicleId(rs.getObject("vehicle_id", UUID.class))
+                .timestamp(rs.getTimestamp("timestamp").toInstant())
+                .fatigueLevel(FatigueLevel.valueOf(rs.getString("fatigue_level")))
+                .fatigueType(FatigueType.valueOf(rs.getString("fatigue_type")))
+                .eyeClosureDuration(rs.getDouble("eye_closure_duration"))
+                .yawnCount(rs.getInt("yawn_count"))
+                .blinkRate(rs.getDouble("blink_rate"))
+                .occurrenceCount(rs.getInt("occurrence_count"))
+                .windowStart(windowStart != null ? windowStart.toInstant() : null)
+                .windowEnd(windowEnd != null ? windowEnd.toInstant() : null)
+                .build();
+    }
+
+    /**
+     * Se lanza desde el bucle de envío para descartar la página en curso al parar o saltar.
+     */
+    private static final class ReplayInterrupted extends RuntimeException {
+        private ReplayInterrupted() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Una reproducción en curso. Los controles (pausa, salto, parada) se señalizan con campos volátiles
+     * y despiertan al hilo lector a través del monitor.
+     */
+    private final class Replay implements Runnable {
+
+        private final String sessionId;
+        private final UUID vehicleId;
+        private final Instant from;
+        private final Instant to;
+        private final Object monitor = new Object();
+
+        private volatile int speed;
+        private volatile boolean paused;
+        private volatile boolean stopped;
+        private volatile Instant seekTarget;
+
+        private Instant position;
+        private Instant lastEventTime;
+        private long sent;
+
+        private Replay(String sessionId, ReplayRequest request) {
+            this.sessionId = sessionId;
+            this.vehicleId = request.getVehicleId();
+            this.from = request.getFrom();
+            this.to = request.getTo();
+            this.speed = request.getSpeed();
+            this.position = request.getFrom();
+        }
+
+        @Override
+        public void run() {
+            sendStatus("RUNNING", null);
+            try {
+                Instant start = from;
+                while (!stopped) {
+                    if (stream(start)) {
+                        sendStatus("FINISHED", null);
+                        return;
+                    }
+                    start = takeSeekTarget();
+                    if (start != null) {
+                        position = start;
+                        lastEventTime = null;
+                        sendStatus(paused ? "PAUSED" : "RUNNING", null);
+                    }
+                }
+                sendStatus("STOPPED", null);
+            } catch (Exception e) {
+                log.error("Fallo en la reproducción del vehículo {}: {}", vehicleId, e.getMessage(), e);
+                sendStatus("FAILED", "No se pudo completar la reproducción");
+            } finally {
+                replays.remove(sessionId, this);
+            }
+        }
+
+        /**
+         * @return true si se recorrió todo el rango; false si se interrumpió por una parada o un salto.
+         */
+        private boolean stream(Instant start) {
+            Instant pageStart = start;
+            int skip = 0;
+            try {
+                while (true) {
+                    List<VehicleEventDTO> page = jdbcTemplate.query(REPLAY_SQL, (rs, rowNum) -> toDto(rs),
+                            vehicleId, Timestamp.from(pageStart), Timestamp.from(to), pageSize, skip);
+                    for (VehicleEventDTO event : page) {
+                        pace(event.getTimestamp());
+                        messagingTemplate.convertAndSendToUser(sessionId, EVENTS_DESTINATION, event, sessionHeaders(sessionId));
+                        position = event.getTimestamp();
+                        lastEventTime = event.getTimestamp();
+                        sent++;
+                    }
+                    if (page.size() < pageSize) {
+                        return true;
+                    }
+                    Instant last = page.get(page.size() - 1).getTimestamp();
+                    int sentAtLast = (int) page.stream().filter(event -> event.getTimestamp().equals(last)).count();
+                    // Si toda la página comparte el instante inicial, los ya saltados siguen contando.
+                    skip = last.equals(pageStart) ? skip + sentAtLast : sentAtLast;
+                    pageStart = last;
+                }
+            } catch (ReplayInterrupted e) {
+                return false;
+            }
+        }
+
+        /**
+         * Espera el intervalo entre eventos a la velocidad actual, y todo el tiempo que la reproducción esté pausada.
+         */
+        private void pace(Instant eventTime) {
+            long waitMillis = lastEventTime == null ? 0
+                    : Math.min(Duration.between(lastEventTime, eventTime).toMillis() / speed, maxGapMillis);
+            long deadline = System.currentTimeMillis() + waitMillis;
+            synchronized (monitor) {
+                try {
+                    for (long remaining = waitMillis; remaining > 0 && !isInterrupted(); remaining = deadline - System.currentTimeMillis()) {
+                        monitor.wait(remaining);
+                    }
+                    long pausedSince = System.currentTimeMillis();
+                    while (paused && !isInterrupted()) {
+                        monitor.wait(maxPauseMillis);
+                        if (paused && System.currentTimeMillis() - pausedSince >= maxPauseMillis) {
+                            // Una pausa abandonada no debe retener su hilo del pool indefinidamente.
+                            stopped = true;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopped = true;
+                }
+            }
+            if (isInterrupted()) {
+                throw new ReplayInterrupted();
+            }
+        }
+
+        private boolean isInterrupted() {
+            return stopped || seekTarget != null;
+        }
+
+        private Instant takeSeekTarget() {
+            Instant target = seekTarget;
+            seekTarget = null;
+            return target;
+        }
+
+        private void setPaused(boolean paused) {
+            synchronized (monitor) {
+                this.paused = paused;
+                monitor.notifyAll();
+            }
+            sendStatus(paused ? "PAUSED" : "RUNNING", null);
+        }
+
+        private void seek(Instant target, Integer newSpeed) {
+            if (newSpeed != null && SPEEDS.contains(newSpeed)) {
+                speed = newSpeed;
+            }
+            Instant bounded = target.isBefore(from) ? from : target.isAfter(to) ? to : target;
+            synchronized (monitor) {
+                seekTarget = bounded;
+                monitor.notifyAll();
+            }
+        }
+
+        private void stop() {
+            synchronized (monitor) {
+                stopped = true;
+                monitor.notifyAll();
+            }
+        }
+
+        private void sendStatus(String state, String message) {
+            EventReplayServiceImpl.this.sendStatus(sessionId, state, vehicleId, position, speed, sent, message);
+        }
+    }
+}
@@ -1,21 +1,21 @@
 package com.safetrack.service.Impl;
 
 import com.safetrack.domain.dto.VehicleEventDTO;
-import com.safetrack.domain.entity.Driver;
-import com.safetrack.domain.entity.User;
 import com.safetrack.domain.entity.VehicleEvent;
-import com.safetrack.domain.enums.Role;
+import com.safetrack.domain.event.VehicleEventsPersistedEvent;
+import com.safetrack.ingestion.EventDeduplicator;
 import com.safetrack.mapper.VehicleEventMapper;
-import com.safetrack.repository.DriverRepository;
-import com.safetrack.repository.UserRepository;
-import com.safetrack.repository.VehicleEventRepository;
+import com.safetrack.repository.VehicleEventBatchRepository;
 import com.safetrack.service.EventService;
+import com.safetrack.service.FleetDirectoryService;
 import com.safetrack.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,51 +25,73 @@ import java.util.UUID;
 @Slf4j
 public class EventServiceImpl implements EventService {
 
-    private final VehicleEventRepository vehicleEventRepository;
+    private final VehicleEventBatchRepository vehicleEventBatchRepository;
     private final VehicleEventMapper vehicleEventMapper;
     private final NotificationService notificationService;
-    private final UserRepository userRepository;
-    private final DriverRepository driverRepository;
+    private final FleetDirectoryService fleetDirectoryService;
+    private final EventDeduplicator eventDeduplicator;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
      * Guarda un evento de vehículo en la base de datos y genera notificaciones para los administradores.
      * @param eventDTO El DTO (Data Transfer Object) que contiene los datos del evento a guardar.
-     * @return El objeto VehicleEvent guardado en la base de datos.
+     * @return El objeto VehicleEvent guardado en la base de datos, o vacío si era un duplicado.
      */
     @Transactional
     @Override
-    public VehicleEvent saveEvent(VehicleEventDTO eventDTO) {
+    public Optional<VehicleEvent> saveEvent(VehicleEventDTO eventDTO) {
         VehicleEvent event = vehicleEventMapper.toEntity(eventDTO);
-        VehicleEvent savedEvent = vehicleEventRepository.save(event);
+        event.setId(UUID.randomUUID());
+        return saveEvents(List.of(event)).stream().findFirst();
+    }
+
+    /**
+     * Guarda un lote de eventos con una única sentencia JDBC por lote y genera sus notificaciones.
+     * Los duplicados que rechaza el índice único no se notifican.
+     * @param events Eventos con su ID ya asignado.
+     * @return Los eventos insertados.
+     */
+    @Transactional
+    @Override
+    public List<VehicleEvent> saveEvents(List<VehicleEvent> events) {
+        int[] updateCounts = vehicleEventBatchRepository.insertAll(events);
 
-        // --- Lógica de Notificación ---
-        // 1. Obtener el nombre del conductor para el mensaje de notificación
-        String driverName = "desconocido";
-        try {
-            Optional<Driver> driverOpt = driverRepository.findById(UUID.fromString(eventDTO.getDriverId()));
-            if (driverOpt.isPresent()) {
-                driverName = driverOpt.get().getNombre();
+        List<VehicleEvent> inserted = new ArrayList<>(events.size());
+        for (int i = 0; i < updateCounts.length; i++) {
+            // SUCCESS_NO_INFO (-2) indica que el driver no informa del conteo; se asume insertado.
+            if (updateCounts[i] != 0) {
+                inserted.add(events.get(i));
             }
-        } catch (IllegalArgumentException e) {
-            log.warn("El driverId '{}' no es un UUID válido. No se puede obtener el nombre del conductor.", eventDTO.getDriverId());
         }
+        eventDeduplicator.recordStoreConflicts(events.size() - inserted.size());
 
+        if (!inserted.isEmpty()) {
+            notifyManagers(inserted);
+            eventPublisher.publishEvent(new VehicleEventsPersistedEvent(inserted));
+        }
+        return inserted;
+    }
 
-        // 2. Construir el mensaje
-        String message = String.format("Alerta de %s para %s - Nivel %s",
-                eventDTO.getFatigueType(), driverName, eventDTO.getFatigueLevel());
-
-        // 3. Obtener todos los administradores y gestores
-        List<User> usersToNotify = userRepository.findByRolIn(List.of(Role.ADMINISTRADOR, Role.GESTOR));
+    /**
+     * Registra en el outbox una alerta por evento para los administradores y gestores.
+     * Las notificaciones se crean fuera de la transacción de ingesta (ver NotificationOutboxDispatcher),
+     * por lo que su coste no afecta a la persistencia del evento ni a su difusión.
+     */
+    private void notifyManagers(List<VehicleEvent> events) {
+        List<UUID> eventIds = new ArrayList<>(events.size());
+        List<String> messages = new ArrayList<>(events.size());
+        for (VehicleEvent event : events) {
+            // 1. Obtener el nombre del conductor para el mensaje de notificación (directorio en memoria)
+            String driverName = fleetDirectoryService.driverName(event.getDriverId(), "desconocido");
 
-        // 4. Crear una notificación para cada uno
-        for (User user : usersToNotify) {
-            notificationService.createNotification(user, message);
+            // 2. Construir el mensaje
+            eventIds.add(event.getId());
+            messages.add(String.format("Alerta de %s para %s - Nivel %s",
+                    event.getFatigueType(), driverName, event.getFatigueLevel()));
         }
 
-        log.info("Notificaciones generadas para {} administradores/gestores por evento de fatiga.", usersToNotify.size());
-
-        return savedEvent;
+        // 3. Registrar las alertas en el outbox, en la misma transacción que los eventos
+        notificationService.enqueueAlerts(eventIds, messages);
     }
 }
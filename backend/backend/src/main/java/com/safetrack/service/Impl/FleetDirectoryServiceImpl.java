@@ -0,0 +1,235 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.directory.DriverDirectoryEntry;
+import com.safetrack.domain.dto.directory.VehicleDirectoryEntry;
+import com.safetrack.domain.entity.Driver;
+import com.safetrack.domain.entity.Vehicle;
+import com.safetrack.domain.event.FleetDirectoryChangedEvent;
+import com.safetrack.domain.event.FleetDirectoryChangedEvent.EntryType;
+import com.safetrack.domain.event.RemoteFleetDirectoryChangedEvent;
+import com.safetrack.repository.DriverRepository;
+import com.safetrack.repository.VehicleRepository;
+import com.safetrack.service.FleetDirectoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Implementación del directorio con dos mapas concurrentes de tamaño acotado.
+ * Las lecturas no toman bloqueos; al superar el límite se desaloja una entrada cualquiera,
+ * que se volverá a cargar de la base de datos si se necesita.
+ * <p>
+ * Los cambios hechos en este nodo se aplican tras el commit y se anuncian con {@link FleetDirectoryChangedEvent},
+ * que el bus entre nodos reenvía: los demás nodos descartan su copia y la recargan en la siguiente búsqueda.
+ * Una carga desde la base de datos no sobrescribe una entrada ya presente, y se descarta si mientras tanto se aplicó
+ * algún cambio, porque pudo leer la fila anterior a ese cambio.
+ */
+@Service
+@Slf4j
+public class FleetDirectoryServiceImpl implements FleetDirectoryService {
+
+    private final DriverRepository driverRepository;
+    private final VehicleRepository vehicleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxEntries;
+    /** Se incrementa con cada cambio aplicado; invalida las cargas que estaban en curso. */
+    private final AtomicLong changes = new AtomicLong();
+
+    private final Map<UUID, DriverDirectoryEntry> drivers = new ConcurrentHashMap<>();
+    private final Map<UUID, VehicleDirectoryEntry> vehicles = new ConcurrentHashMap<>();
+
+    private final Counter driverHits;
+    private final Counter driverMisses;
+    private final Counter vehicleHits;
+    private final Counter vehicleMisses;
+
+    public FleetDirectoryServiceImpl(DriverRepository driverRepository,
+                                     VehicleRepository vehicleRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${safetrack.directory.max-entries:20000}") int maxEntries) {
+        this.driverRepository = driverRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxEntries = maxEntries;
+
+        this.driverHits = lookupCounter(meterRegistry, "driver", "hit");
+        this.driverMisses = lookupCounter(meterRegistry, "driver", "miss");
+        this.vehicleHits = lookupCounter(meterRegistry, "vehicle", "hit");
+        this.vehicleMisses = lookupCounter(meterRegistry, "vehicle", "miss");
+        Gauge.builder("safetrack.directory.size", drivers, Map::size).tag("type", "driver").register(meterRegistry);
+        Gauge.builder("safetrack.directory.size", vehicles, Map::size).tag("type", "vehicle").register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String type, String result) {
+        return Counter.builder("safetrack.directory.lookups")
+                .tag("type", type)
+                .tag("result", result)
+                .description("Búsquedas en el directorio de conductores y vehículos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Precarga el directorio al arrancar para que los primeros eventos no vayan a la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        PageRequest firstPage = PageRequest.of(0, maxEntries);
+        driverRepository.findAll(firstPage)
+                .forEach(driver -> drivers.put(driver.getId(), DriverDirectoryEntry.from(driver)));
+        vehicleRepository.findAll(firstPage)
+                .forEach(vehicle -> vehicles.put(vehicle.getId(), VehicleDirectoryEntry.from(vehicle)));
+        log.info("Directorio de flota precargado: {} conductores, {} vehículos", drivers.size(), vehicles.size());
+    }
+
+    @Override
+    public Optional<DriverDirectoryEntry> findDriver(UUID driverId) {
+        if (driverId == null) {
+            return Optional.empty();
+        }
+        return lookup(drivers, driverId, driverHits, driverMisses,
+                id -> driverRepository.findById(id).map(DriverDirectoryEntry::from).orElse(null));
+    }
+
+    @Override
+    public Optional<VehicleDirectoryEntry> findVehicle(UUID vehicleId) {
+        if (vehicleId == null) {
+            return Optional.empty();
+        }
+        return lookup(vehicles, vehicleId, vehicleHits, vehicleMisses,
+                id -> vehicleRepository.findById(id).map(VehicleDirectoryEntry::from).orElse(null));
+    }
+
+    @Override
+    public String driverName(UUID driverId, String defaultName) {
+        return findDriver(driverId).map(DriverDirectoryEntry::nombre).orElse(defaultName);
+    }
+
+    @Override
+    public String vehiclePlate(UUID vehicleId, String defaultPlate) {
+        return findVehicle(vehicleId).map(VehicleDirectoryEntry::placa).orElse(defaultPlate);
+    }
+
+    @Override
+    public void driverSaved(Driver driver) {
+        DriverDirectoryEntry entry = DriverDirectoryEntry.from(driver);
+        afterCommit(() -> {
+            changes.incrementAndGet();
+            put(drivers, entry.id(), entry);
+        });
+        eventPublisher.publishEvent(new FleetDirectoryChangedEvent(EntryType.DRIVER, entry.id()));
+    }
+
+    @Override
+    public void driverDeleted(UUID driverId) {
+        afterCommit(() -> remove(drivers, driverId));
+        eventPublisher.publishEvent(new FleetDirectoryChangedEvent(EntryType.DRIVER, driverId));
+    }
+
+    @Override
+    public void vehicleSaved(Vehicle vehicle) {
+        VehicleDirectoryEntry entry = VehicleDirectoryEntry.from(vehicle);
+        afterCommit(() -> {
+            changes.incrementAndGet();
+            put(vehicles, entry.id(), entry);
+        });
+        eventPublisher.publishEvent(new FleetDirectoryChangedEvent(EntryType.VEHICLE, entry.id()));
+    }
+
+    @Override
+    public void vehicleDeleted(UUID vehicleId) {
+        afterCommit(() -> remove(vehicles, vehicleId));
+        eventPublisher.publishEvent(new FleetDirectoryChangedEvent(EntryType.VEHICLE, vehicleId));
+    }
+
+    /**
+     * Descarta la copia de un conductor o vehículo modificado en otro nodo; se recargará en la siguiente búsqueda.
+     */
+    @EventListener
+    public void onRemoteChanged(RemoteFleetDirectoryChangedEvent changed) {
+        if (changed.type() == EntryType.DRIVER) {
+            remove(drivers, changed.id());
+        } else {
+            remove(vehicles, changed.id());
+        }
+    }
+
+    private <T> Optional<T> lookup(Map<UUID, T> map, UUID id, Counter hits, Counter misses, Function<UUID, T> loader) {
+        T entry = map.get(id);
+        if (entry != null) {
+            hits.increment();
+            return Optional.of(entry);
+        }
+        misses.increment();
+        long changesBeforeLoad = changes.get();
+        entry = loader.apply(id);
+        if (entry != null && changes.get() == changesBeforeLoad) {
+            T current = putIfAbsent(map, id, entry);
+            if (current != null) {
+                return Optional.of(current);
+            }
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    private <T> void put(Map<UUID, T> map, UUID id, T entry) {
+        makeRoomFor(map, id);
+        map.put(id, entry);
+    }
+
+    /**
+     * @return La entrada que ya había, o null si se guardó la nueva.
+     */
+    private <T> T putIfAbsent(Map<UUID, T> map, UUID id, T entry) {
+        makeRoomFor(map, id);
+        return map.putIfAbsent(id, entry);
+    }
+
+    private <T> void remove(Map<UUID, T> map, UUID id) {
+        changes.incrementAndGet();
+        map.remove(id);
+    }
+
+    private <T> void makeRoomFor(Map<UUID, T> map, UUID id) {
+        if (!map.containsKey(id) && map.size() >= maxEntries) {
+            Iterator<UUID> victims = map.keySet().iterator();
+            if (victims.hasNext()) {
+                victims.next();
+                victims.remove();
+            }
+        }
+    }
+
+    /**
+     * Aplica el cambio al confirmarse la transacción en curso, para no publicar datos que luego se deshacen.
+     */
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,267 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.dto.response.FleetEntityState;
+import com.safetrack.domain.dto.response.FleetStateDelta;
+import com.safetrack.domain.dto.response.FleetStateSnapshot;
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.event.RemoteVehicleEventsReceivedEvent;
+import com.safetrack.domain.event.VehicleEventsPersistedEvent;
+import com.safetrack.mapper.VehicleEventMapper;
+import com.safetrack.repository.VehicleEventRepository;
+import com.safetrack.service.FleetStateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Almacén del estado de la flota.
+ * Cada vehículo y conductor tiene una entrada inmutable que se sustituye entera al llegar un evento, de modo que
+ * las lecturas (foto y deltas) no toman bloqueos. Cada cambio recibe una versión creciente y se guarda en un anillo
+ * de deltas recientes, además de publicarse en {@code /topic/fleet-state}.
+ * <p>
+ * Las escrituras se serializan con un bloqueo que cubre solo la asignación de la versión, la actualización de las
+ * entradas y el anillo: así la versión de una entrada nunca retrocede y la versión visible para los lectores solo
+ * avanza cuando su delta ya está en el anillo. La publicación va fuera del bloqueo: el hilo que consigue el turno de
+ * publicación envía en orden de versión todos los deltas pendientes del anillo, también los de otros hilos, que no
+ * esperan por él.
+ */
+@Service
+@Slf4j
+public class FleetStateServiceImpl implements FleetStateService {
+
+    public static final String DELTA_DESTINATION = "/topic/fleet-state";
+
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private final VehicleEventRepository vehicleEventRepository;
+    private final VehicleEventMapper vehicleEventMapper;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<UUID, Tracked> vehicles = new ConcurrentHashMap<>();
+    private final Map<UUID, Tracked> drivers = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReferenceArray<FleetStateDelta> recentDeltas;
+    private final Object writeLock = new Object();
+    private final AtomicLong publishedVersion = new AtomicLong();
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    public FleetStateServiceImpl(VehicleEventRepository vehicleEventRepository,
+                                 VehicleEventMapper vehicleEventMapper,
+                                 SimpMessagingTemplate messagingTemplate,
+                                 @Value("${safetrack.fleet-state.delta-history:4096}") int deltaHistory) {
+        this.vehicleEventRepository = vehicleEventRepository;
+        this.vehicleEventMapper = vehicleEventMapper;
+        this.messagingTemplate = messagingTemplate;
+        this.recentDeltas = new AtomicReferenceArray<>(deltaHistory);
+    }
+
+    /**
+     * Reconstruye el estado con los eventos de la última hora para no arrancar vacío tras un reinicio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<VehicleEvent> lastHour = vehicleEventRepository
+                .findByTimestampGreaterThanEqualOrderByTimestampAsc(Instant.now().minus(Duration.ofHours(1)));
+        synchronized (writeLock) {
+            lastHour.forEach(event -> applyNext(vehicleEventMapper.toDto(event)));
+            // Los deltas de la reconstrucción no se publican: los clientes parten de la foto.
+            publishedVersion.set(version.get());
+        }
+        log.info("Estado de la flota reconstruido con {} eventos: {} vehículos, {} conductores",
+                lastHour.size(), vehicles.size(), drivers.size());
+    }
+
+    /**
+     * Aplica los eventos una vez confirmada su inserción y publica un delta por evento.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventsPersisted(VehicleEventsPersistedEvent persisted) {
+        record(persisted.events().stream().map(vehicleEventMapper::toDto).toList());
+    }
+
+    /**
+     * Aplica los eventos ingeridos en otros nodos; las versiones son propias de cada nodo.
+     */
+    @EventListener
+    public void onRemoteEvents(RemoteVehicleEventsReceivedEvent remote) {
+        record(remote.events());
+    }
+
+    private void record(List<VehicleEventDTO> events) {
+        synchronized (writeLock) {
+            for (VehicleEventDTO event : events) {
+                applyNext(event);
+            }
+        }
+        publishPending();
+    }
+
+    /**
+     * Publica en orden de versión los deltas del anillo que aún no se enviaron. Si otro hilo está publicando no se
+     * espera: ese hilo vuelve a mirar la versión antes de soltar el turno y envía también estos deltas.
+     */
+    private void publishPending() {
+        while (publishedVersion.get() < version.get() && publishLock.tryLock()) {
+            try {
+                long target = version.get();
+                for (long v = publishedVersion.get() + 1; v <= target; v++) {
+                    FleetStateDelta delta = recentDeltas.get((int) (v % recentDeltas.length()));
+                    if (delta != null && delta.version() == v) {
+                        send(delta);
+                    } else {
+                        // La publicación lleva más retraso que el tamaño del anillo.
+                        log.warn("Delta {} del estado de la flota sobrescrito antes de publicarse", v);
+                    }
+                    publishedVersion.set(v);
+                }
+            } finally {
+                publishLock.unlock();
+            }
+        }
+    }
+
+    private void send(FleetStateDelta delta) {
+        try {
+            messagingTemplate.convertAndSend(DELTA_DESTINATION, delta);
+        } catch (MessagingException e) {
+            // Un delta perdido no detiene los siguientes: el cliente verá el salto de versión y pedirá otra foto.
+            log.warn("No se pudo publicar el delta {} del estado de la flota: {}", delta.version(), e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica un evento con la siguiente versión; requiere {@code writeLock}.
+     */
+    private void applyNext(VehicleEventDTO event) {
+        long newVersion = version.get() + 1;
+        recentDeltas.set((int) (newVersion % recentDeltas.length()), apply(event, newVersion));
+        version.set(newVersion);
+    }
+
+    @Override
+    public FleetStateSnapshot getSnapshot() {
+        // La versión se lee antes que los mapas: la foto puede incluir cambios posteriores, que el cliente
+        // volverá a recibir como deltas y aplicará de forma idempotente.
+        long snapshotVersion = version.get();
+        long nowMinute = epochMinute(Instant.now());
+        return new FleetStateSnapshot(snapshotVersion, toStates(vehicles.values(), nowMinute), toStates(drivers.values(), nowMinute));
+    }
+
+    @Override
+    public Optional<List<FleetStateDelta>> getDeltasSince(long sinceVersion) {
+        long current = version.get();
+        if (sinceVersion >= current) {
+            return Optional.of(List.of());
+        }
+        if (current - sinceVersion > recentDeltas.length()) {
+            return Optional.empty();
+        }
+        List<FleetStateDelta> deltas = new ArrayList<>((int) (current - sinceVersion));
+        for (long v = sinceVersion + 1; v <= current; v++) {
+            FleetStateDelta delta = recentDeltas.get((int) (v % recentDeltas.length()));
+            if (delta == null || delta.version() != v) {
+                // Sobrescrito mientras se leía: el cliente debe pedir otra foto.
+                return Optional.empty();
+            }
+            deltas.add(delta);
+        }
+        return Optional.of(deltas);
+    }
+
+    private FleetStateDelta apply(VehicleEventDTO event, long newVersion) {
+        FleetEntityState vehicleState = event.getVehicleId() == null ? null
+                : vehicles.compute(event.getVehicleId(), (id, tracked) -> Tracked.update(tracked, id, event, newVersion)).state();
+        FleetEntityState driverState = event.getDriverId() == null ? null
+                : drivers.compute(event.getDriverId(), (id, tracked) -> Tracked.update(tracked, id, event, newVersion)).state();
+        return new FleetStateDelta(newVersion, vehicleState, driverState);
+    }
+
+    private static List<FleetEntityState> toStates(Collection<Tracked> tracked, long nowMinute) {
+        List<FleetEntityState> states = new ArrayList<>(tracked.size());
+        for (Tracked entry : tracked) {
+            states.add(entry.stateAt(nowMinute));
+        }
+        return states;
+    }
+
+    private static long epochMinute(Instant instant) {
+        return instant.getEpochSecond() / 60;
+    }
+
+    /**
+     * Entrada inmutable de un vehículo o conductor: su estado y los conteos por minuto de la última hora
+     * (anillo de 60 posiciones indexado por minuto).
+     */
+    private record Tracked(FleetEntityState state, long[] bucketMinutes, int[] eventCounts, int[] highCounts) {
+
+        static Tracked update(Tracked previous, UUID id, VehicleEventDTO event, long version) {
+            long[] minutes = previous != null ? previous.bucketMinutes.clone() : new long[MINUTES_PER_HOUR];
+            int[] events = previous != null ? previous.eventCounts.clone() : new int[MINUTES_PER_HOUR];
+            int[] high = previous != null ? previous.highCounts.clone() : new int[MINUTES_PER_HOUR];
+
+            Instant timestamp = event.getTimestamp() != null ? event.getTimestamp() : Instant.now();
+            long minute = epochMinute(timestamp);
+            long nowMinute = epochMinute(Instant.now());
+            if (event.getFatigueLevel() != FatigueLevel.NINGUNO && minute > nowMinute - MINUTES_PER_HOUR) {
+                int slot = (int) Math.floorMod(minute, (long) MINUTES_PER_HOUR);
+                if (minutes[slot] != minute) {
+                    minutes[slot] = minute;
+                    events[slot] = 0;
+                    high[slot] = 0;
+                }
+                int occurrences = event.getOccurrenceCount() != null ? event.getOccurrenceCount() : 1;
+                events[slot] += occurrences;
+                if (event.getFatigueLevel() == FatigueLevel.ALTO) {
+                    high[slot] += occurrences;
+                }
+            }
+
+            // Un evento atrasado (cola offline del edge) cuenta en la última hora pero no cambia el estado actual.
+            FleetEntityState current = previous != null ? previous.state : null;
+            boolean newer = current == null || current.lastEventAt() == null || !timestamp.isBefore(current.lastEventAt());
+            FleetEntityState state = newer
+                    ? new FleetEntityState(id, event.getFatigueLevel(), event.getFatigueType(), timestamp, event,
+                    sum(minutes, events, nowMinute), sum(minutes, high, nowMinute), version)
+                    : new FleetEntityState(id, current.currentLevel(), current.lastFatigueType(), current.lastEventAt(),
+                    current.lastEvent(), sum(minutes, events, nowMinute), sum(minutes, high, nowMinute), version);
+            return new Tracked(state, minutes, events, high);
+        }
+
+        FleetEntityState stateAt(long nowMinute) {
+            return new FleetEntityState(state.id(), state.currentLevel(), state.lastFatigueType(), state.lastEventAt(),
+                    state.lastEvent(), sum(bucketMinutes, eventCounts, nowMinute), sum(bucketMinutes, highCounts, nowMinute),
+                    state.version());
+        }
+
+        private static int sum(long[] minutes, int[] counts, long nowMinute) {
+            int total = 0;
+            for (int i = 0; i < minutes.length; i++) {
+                if (minutes[i] > nowMinute - MINUTES_PER_HOUR) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
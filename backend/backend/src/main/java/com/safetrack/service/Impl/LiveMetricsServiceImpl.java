@@ -0,0 +1,287 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.dto.response.LiveTimelinePoint;
+import com.safetrack.domain.dto.response.LiveWindowSummary;
+import com.safetrack.domain.dto.response.TopDriverResponse;
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.domain.event.RemoteVehicleEventsReceivedEvent;
+import com.safetrack.domain.event.VehicleEventsPersistedEvent;
+import com.safetrack.exception.BadRequestException;
+import com.safetrack.repository.VehicleEventRepository;
+import com.safetrack.service.FleetDirectoryService;
+import com.safetrack.service.LiveMetricsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Anillo de contadores por minuto para las métricas en vivo.
+ * Cada posición guarda un minuto: conteos por tipo y por nivel de fatiga y un mapa de conteos por conductor.
+ * Al llegar un evento de un minuto nuevo, su posición se sustituye por un contador vacío con un compareAndSet,
+ * así que ni la escritura ni la lectura toman bloqueos. La memoria depende del tamaño del anillo y del número de
+ * conductores activos por minuto, no del ritmo de eventos, y leer una ventana recorre solo sus minutos.
+ * <p>
+ * Los conteos son de ocurrencias, igual que las analíticas por rango de fechas: una fila coalescida suma su
+ * {@code occurrence_count}. Se asignan al minuto del evento; los eventos más antiguos que el anillo se ignoran.
+ */
+@Service
+@Slf4j
+public class LiveMetricsServiceImpl implements LiveMetricsService {
+
+    private static final FatigueType[] TYPES = FatigueType.values();
+    private static final FatigueLevel[] LEVELS = FatigueLevel.values();
+
+    private final VehicleEventRepository vehicleEventRepository;
+    private final FleetDirectoryService fleetDirectoryService;
+    private final int ringMinutes;
+    private final AtomicReferenceArray<Bucket> ring;
+    private final Clock clock;
+
+    @Autowired
+    public LiveMetricsServiceImpl(VehicleEventRepository vehicleEventRepository,
+                                  FleetDirectoryService fleetDirectoryService,
+                                  @Value("${safetrack.analytics.live.max-window-minutes:1440}") int ringMinutes) {
+        this(vehicleEventRepository, fleetDirectoryService, ringMinutes, Clock.systemUTC());
+    }
+
+    LiveMetricsServiceImpl(VehicleEventRepository vehicleEventRepository,
+                           FleetDirectoryService fleetDirectoryService,
+                           int ringMinutes,
+                           Clock clock) {
+        this.vehicleEventRepository = vehicleEventRepository;
+        this.fleetDirectoryService = fleetDirectoryService;
+        this.ringMinutes = ringMinutes;
+        this.ring = new AtomicReferenceArray<>(ringMinutes);
+        this.clock = clock;
+    }
+
+    /**
+     * Reconstruye el anillo desde la base de datos para que un reinicio no deje los paneles a cero.
+     * Se leen conteos ya agrupados por minuto, no los eventos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long nowMinute = currentMinute();
+        Instant since = Instant.ofEpochSecond((nowMinute - ringMinutes + 1) * 60);
+        long events = 0;
+        for (Object[] row : vehicleEventRepository.countByMinuteTypeAndLevelSince(since)) {
+            Bucket bucket = bucketFor(((Number) row[0]).longValue(), nowMinute);
+            if (bucket != null) {
+                long count = ((Number) row[3]).longValue();
+                bucket.add(FatigueType.valueOf((String) row[1]), FatigueLevel.valueOf((String) row[2]), count);
+                events += count;
+            }
+        }
+        for (Object[] row : vehicleEventRepository.countByMinuteAndDriverSince(since)) {
+            Bucket bucket = bucketFor(((Number) row[0]).longValue(), nowMinute);
+            if (bucket != null) {
+                bucket.addDriver((UUID) row[1], ((Number) row[2]).longValue());
+            }
+        }
+        log.info("Métricas en vivo reconstruidas con {} eventos de los últimos {} minutos", events, ringMinutes);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventsPersisted(VehicleEventsPersistedEvent persisted) {
+        long nowMinute = currentMinute();
+        for (VehicleEvent event : persisted.events()) {
+            record(event.getTimestamp(), event.getDriverId(), event.getFatigueType(), event.getFatigueLevel(),
+                    event.getOccurrenceCount(), nowMinute);
+        }
+    }
+
+    /**
+     * Cuenta los eventos ingeridos en otros nodos, que también están en la base compartida.
+     */
+    @EventListener
+    public void onRemoteEvents(RemoteVehicleEventsReceivedEvent remote) {
+        long nowMinute = currentMinute();
+        for (VehicleEventDTO event : remote.events()) {
+            record(event.getTimestamp(), event.getDriverId(), event.getFatigueType(), event.getFatigueLevel(),
+                    event.getOccurrenceCount() != null ? event.getOccurrenceCount() : 1, nowMinute);
+        }
+    }
+
+    @Override
+    public LiveWindowSummary getSummary(int windowMinutes) {
+        long nowMinute = currentMinute();
+        long[] byType = new long[TYPES.length];
+        long[] byLevel = new long[LEVELS.length];
+        forEachBucket(windowMinutes, nowMinute, bucket -> {
+            for (int i = 0; i < byType.length; i++) {
+                byType[i] += bucket.byType.get(i);
+            }
+            for (int i = 0; i < byLevel.length; i++) {
+                byLevel[i] += bucket.byLevel.get(i);
+            }
+        });
+
+        Map<FatigueType, Long> types = new EnumMap<>(FatigueType.class);
+        long total = 0;
+        for (int i = 0; i < byType.length; i++) {
+            types.put(TYPES[i], byType[i]);
+            total += byType[i];
+        }
+        Map<FatigueLevel, Long> levels = new EnumMap<>(FatigueLevel.class);
+        for (int i = 0; i < byLevel.length; i++) {
+            levels.put(LEVELS[i], byLevel[i]);
+        }
+        return new LiveWindowSummary(windowMinutes, minuteStart(nowMinute - windowMinutes + 1), clock.instant(),
+                total, types, levels);
+    }
+
+    @Override
+    public List<LiveTimelinePoint> getTimeline(int windowMinutes) {
+        long nowMinute = currentMinute();
+        validateWindow(windowMinutes);
+        List<LiveTimelinePoint> points = new ArrayList<>(windowMinutes);
+        for (long minute = nowMinute - windowMinutes + 1; minute <= nowMinute; minute++) {
+            Bucket bucket = ring.get(slot(minute));
+            if (bucket != null && bucket.minute == minute) {
+                points.add(new LiveTimelinePoint(minuteStart(minute), bucket.total(), bucket.byLevel.get(FatigueLevel.ALTO.ordinal())));
+            } else {
+                points.add(new LiveTimelinePoint(minuteStart(minute), 0, 0));
+            }
+        }
+        return points;
+    }
+
+    @Override
+    public List<TopDriverResponse> getTopDrivers(int windowMinutes, int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("El límite debe ser al menos 1");
+        }
+        Map<UUID, Long> counts = new HashMap<>();
+        forEachBucket(windowMinutes, currentMinute(), bucket ->
+                bucket.byDriver.forEach((driverId, count) -> counts.merge(driverId, count.sum(), Long::sum)));
+
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(entry -> new TopDriverResponse(entry.getKey(),
+                        fleetDirectoryService.driverName(entry.getKey(), "Conductor Desconocido"), entry.getValue()))
+                .toList();
+    }
+
+    private void record(Instant timestamp, UUID driverId, FatigueType type, FatigueLevel level, int occurrences,
+                        long nowMinute) {
+        if (timestamp == null || type == null || level == null) {
+            return;
+        }
+        // Un reloj del edge adelantado no debe escribir en minutos que aún no han llegado.
+        long minute = Math.min(timestamp.getEpochSecond() / 60, nowMinute);
+        Bucket bucket = bucketFor(minute, nowMinute);
+        if (bucket == null) {
+            return;
+        }
+        bucket.add(type, level, occurrences);
+        if (driverId != null) {
+            bucket.addDriver(driverId, occurrences);
+        }
+    }
+
+    /**
+     * Devuelve el contador del minuto, sustituyendo el de un minuto anterior que ocupara su posición.
+     * @return null si el minuto ya está fuera del anillo.
+     */
+    private Bucket bucketFor(long minute, long nowMinute) {
+        if (minute <= nowMinute - ringMinutes) {
+            return null;
+        }
+        int slot = slot(minute);
+        while (true) {
+            Bucket current = ring.get(slot);
+            if (current != null && current.minute == minute) {
+                return current;
+            }
+            if (current != null && current.minute > minute) {
+                return null;
+            }
+            Bucket fresh = new Bucket(minute);
+            if (ring.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private void forEachBucket(int windowMinutes, long nowMinute, Consumer<Bucket> action) {
+        validateWindow(windowMinutes);
+        for (long minute = nowMinute - windowMinutes + 1; minute <= nowMinute; minute++) {
+            Bucket bucket = ring.get(slot(minute));
+            if (bucket != null && bucket.minute == minute) {
+                action.accept(bucket);
+            }
+        }
+    }
+
+    private void validateWindow(int windowMinutes) {
+        if (windowMinutes < 1 || windowMinutes > ringMinutes) {
+            throw new BadRequestException("La ventana debe estar entre 1 y " + ringMinutes + " minutos");
+        }
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) ringMinutes);
+    }
+
+    private long currentMinute() {
+        return clock.instant().getEpochSecond() / 60;
+    }
+
+    private static Instant minuteStart(long minute) {
+        return Instant.ofEpochSecond(minute * 60);
+    }
+
+    /**
+     * Contadores de un minuto. El minuto es fijo: al reutilizar la posición se crea un contador nuevo.
+     */
+    private static final class Bucket {
+        private final long minute;
+        private final AtomicLongArray byType = new AtomicLongArray(TYPES.length);
+        private final AtomicLongArray byLevel = new AtomicLongArray(LEVELS.length);
+        private final Map<UUID, LongAdder> byDriver = new ConcurrentHashMap<>();
+
+        private Bucket(long minute) {
+            this.minute = minute;
+        }
+
+        void add(FatigueType type, FatigueLevel level, long count) {
+            byType.addAndGet(type.ordinal(), count);
+            byLevel.addAndGet(level.ordinal(), count);
+        }
+
+        void addDriver(UUID driverId, long count) {
+            byDriver.computeIfAbsent(driverId, id -> new LongAdder()).add(count);
+        }
+
+        long total() {
+            long total = 0;
+            for (int i = 0; i < byType.length(); i++) {
+                total += byType.get(i);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.cluster.ClusterBus;
+import com.safetrack.domain.dto.response.NotificationsDispatchedMessage;
+import com.safetrack.service.NotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Despachador en segundo plano del outbox de alertas.
+ * Vacía el outbox en lotes, crea las notificaciones correspondientes y avisa a los paneles
+ * por WebSocket en "/topic/notifications" una vez confirmada cada transacción. El aviso se reenvía a los demás
+ * nodos por el {@link ClusterBus}, ya que las alertas las despacha el nodo que las reclama.
+ */
+@Component
+@Slf4j
+public class NotificationOutboxDispatcher {
+
+    private static final String NOTIFICATIONS_DESTINATION = "/topic/notifications";
+
+    private final NotificationService notificationService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterBus clusterBus;
+    private final int batchSize;
+
+    public NotificationOutboxDispatcher(NotificationService notificationService,
+                                        SimpMessagingTemplate messagingTemplate,
+                                        ClusterBus clusterBus,
+                                        @Value("${safetrack.notifications.outbox.batch-size:200}") int batchSize) {
+        this.notificationService = notificationService;
+        this.messagingTemplate = messagingTemplate;
+        this.clusterBus = clusterBus;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${safetrack.notifications.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        int dispatched;
+        do {
+            try {
+                dispatched = notificationService.dispatchPendingAlerts(batchSize);
+            } catch (Exception e) {
+                log.error("Error al despachar el outbox de notificaciones: {}", e.getMessage(), e);
+                return;
+            }
+            if (dispatched > 0) {
+                NotificationsDispatchedMessage message = new NotificationsDispatchedMessage(dispatched, Instant.now());
+                messagingTemplate.convertAndSend(NOTIFICATIONS_DESTINATION, message);
+                clusterBus.publishTopic(NOTIFICATIONS_DESTINATION, message);
+                log.debug("Despachadas {} alertas del outbox", dispatched);
+            }
+        } while (dispatched == batchSize);
+    }
+}
@@ -1,8 +1,12 @@
 package com.safetrack.service.Impl;
 
 import com.safetrack.domain.entity.Notification;
+import com.safetrack.domain.entity.NotificationOutbox;
 import com.safetrack.domain.entity.User;
+import com.safetrack.domain.enums.Role;
 import com.safetrack.exception.ResourceNotFoundException;
+import com.safetrack.repository.NotificationBatchRepository;
+import com.safetrack.repository.NotificationOutboxRepository;
 import com.safetrack.repository.NotificationRepository;
 import com.safetrack.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -13,12 +17,20 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationServiceImpl implements NotificationService {
 
+    /** Roles que reciben las alertas de fatiga. */
+    private static final List<Role> ALERT_RECIPIENTS = List.of(Role.ADMINISTRADOR, Role.GESTOR);
+
     private final NotificationRepository notificationRepository;
+    private final NotificationBatchRepository notificationBatchRepository;
+    private final NotificationOutboxRepository notificationOutboxRepository;
 
     @Override
     @Transactional
@@ -32,6 +44,33 @@ public class NotificationServiceImpl implements NotificationService {
         return notificationRepository.save(notification);
     }
 
+    @Override
+    @Transactional
+    public int notifyUsersWithRoles(List<Role> roles, List<String> messages) {
+        int created = notificationBatchRepository.insertForRoles(roles, messages);
+        log.info("Creadas {} notificaciones ({} mensajes) para los roles {}", created, messages.size(), roles);
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public void enqueueAlerts(List<UUID> eventIds, List<String> messages) {
+        notificationBatchRepository.insertOutbox(eventIds, messages);
+    }
+
+    @Override
+    @Transactional
+    public int dispatchPendingAlerts(int batchSize) {
+        List<NotificationOutbox> pending = notificationOutboxRepository.lockNextBatch(batchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<String> messages = pending.stream().map(NotificationOutbox::getMessage).toList();
+        notifyUsersWithRoles(ALERT_RECIPIENTS, messages);
+        notificationOutboxRepository.deleteAllInBatch(pending);
+        return pending.size();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Notification> getNotificationsForUser(User user, Pageable pageable) {
@@ -11,6 +11,7 @@ import com.safetrack.mapper.VehicleMapper;
 import com.safetrack.repository.DriverRepository;
 import com.safetrack.repository.VehicleRepository;
 import com.safetrack.repository.specification.VehicleSpecification;
+import com.safetrack.service.FleetDirectoryService;
 import com.safetrack.service.VehicleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +35,7 @@ public class VehicleServiceImpl implements VehicleService {
     private final VehicleMapper vehicleMapper;
     private final DriverRepository driverRepository;
     private final VehicleSpecification vehicleSpecification;
+    private final FleetDirectoryService fleetDirectoryService;
 
     /**
      * Crea un nuevo vehículo en el sistema.
@@ -65,6 +67,7 @@ public class VehicleServiceImpl implements VehicleService {
             log.info("Conductor encontrado con id: {}", driver.getId());
         }
         Vehicle savedVehicle= vehicleRepository.save(vehicle);
+        fleetDirectoryService.vehicleSaved(savedVehicle);
         log.info("Vehiculo creado exitosamente con ID: {}", savedVehicle.getId());
         return vehicleMapper.toVehicleResponse(savedVehicle);
 
@@ -130,6 +133,7 @@ public class VehicleServiceImpl implements VehicleService {
         }
         vehicleMapper.updateVehicleFromRequest(request, vehicle);
         Vehicle updatedVehicle= vehicleRepository.save(vehicle);
+        fleetDirectoryService.vehicleSaved(updatedVehicle);
         log.info("Vehiculo actualizado exitosamente con id: {}", updatedVehicle.getId());
         return vehicleMapper.toVehicleResponse(updatedVehicle);
     }
@@ -147,6 +151,7 @@ public class VehicleServiceImpl implements VehicleService {
             throw new ResourceNotFoundException("No se puede eliminar. Vehículo no encontrado con ID: " + id);
         }
         vehicleRepository.deleteById(id);
+        fleetDirectoryService.vehicleDeleted(id);
         log.info("Vehiculo con ID: {} eliminado exitosamente", id);
     }
 }
@@ -0,0 +1,29 @@
+package com.safetrack.service;
+
+import com.safetrack.domain.dto.response.LiveTimelinePoint;
+import com.safetrack.domain.dto.response.LiveWindowSummary;
+import com.safetrack.domain.dto.response.TopDriverResponse;
+
+import java.util.List;
+
+/**
+ * Métricas en vivo de las últimas horas, servidas desde memoria sin consultar la base de datos.
+ * Las ventanas se expresan en minutos hasta el minuto en curso incluido.
+ */
+public interface LiveMetricsService {
+
+    /**
+     * Conteos totales, por tipo y por nivel de fatiga de la ventana.
+     */
+    LiveWindowSummary getSummary(int windowMinutes);
+
+    /**
+     * Conteos minuto a minuto de la ventana, en orden cronológico; los minutos sin eventos aparecen con cero.
+     */
+    List<LiveTimelinePoint> getTimeline(int windowMinutes);
+
+    /**
+     * Conductores con más eventos en la ventana.
+     */
+    List<TopDriverResponse> getTopDrivers(int windowMinutes, int limit);
+}
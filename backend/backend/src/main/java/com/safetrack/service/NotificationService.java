@@ -2,9 +2,13 @@ package com.safetrack.service;
 
 import com.safetrack.domain.entity.Notification;
 import com.safetrack.domain.entity.User;
+import com.safetrack.domain.enums.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.UUID;
+
 public interface NotificationService {
 
     /**
@@ -12,6 +16,29 @@ public interface NotificationService {
      */
     Notification createNotification(User user, String message);
 
+    /**
+     * Crea una notificación por mensaje para todos los usuarios con alguno de los roles indicados,
+     * en una única sentencia sin importar cuántos destinatarios haya.
+     * @return El número de notificaciones creadas.
+     */
+    int notifyUsersWithRoles(List<Role> roles, List<String> messages);
+
+    /**
+     * Registra alertas de fatiga en el outbox, dentro de la transacción del llamante.
+     * Las notificaciones se crean después de forma asíncrona con {@link #dispatchPendingAlerts(int)}.
+     * @param eventIds IDs de los eventos que originan las alertas.
+     * @param messages Mensaje de cada alerta, en el mismo orden que los eventos.
+     */
+    void enqueueAlerts(List<UUID> eventIds, List<String> messages);
+
+    /**
+     * Reparte un lote de alertas pendientes del outbox a los administradores y gestores
+     * y las elimina del outbox en la misma transacción.
+     * @param batchSize Número máximo de alertas a procesar.
+     * @return El número de alertas despachadas.
+     */
+    int dispatchPendingAlerts(int batchSize);
+
     /**
      * Obtiene las notificaciones de un usuario de forma paginada.
      */
@@ -0,0 +1,73 @@
+package com.safetrack.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas concurrentes con la misma clave en una sola ejecución: el primer llamante calcula el resultado
+ * y los que llegan mientras tanto esperan y reciben ese mismo resultado (o la misma excepción).
+ * Una vez terminada la ejecución la clave se libera; no guarda resultados, para eso está la caché.
+ *
+ * @param <K> Tipo de la clave; debe implementar equals y hashCode.
+ */
+public final class SingleFlight<K> {
+
+    private final Map<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta el cálculo o se une al que ya esté en curso para la misma clave.
+     * @param key    Clave que identifica el cálculo.
+     * @param loader Cálculo a ejecutar si no hay ninguno en curso.
+     * @return El resultado del cálculo y si se compartió uno ya en curso.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> execute(K key, Supplier<T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return new Result<>((T) join(existing), true);
+        }
+        try {
+            T value = loader.get();
+            call.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * @return Número de cálculos en curso.
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private static Object join(CompletableFuture<Object> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            // Se relanza la excepción original del cálculo para que los que esperaban la traten igual que el primero.
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param value  El resultado.
+     * @param shared true si el llamante no ejecutó el cálculo sino que recibió el de otro.
+     */
+    public record Result<T>(T value, boolean shared) {
+    }
+}
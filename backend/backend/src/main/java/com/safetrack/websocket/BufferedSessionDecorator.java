@@ -0,0 +1,234 @@
+package com.safetrack.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sesión WebSocket con envío asíncrono y buffer acotado.
+ * {@link #sendMessage} solo encola y vuelve, y la cola se vacía en orden con envíos no bloqueantes
+ * ({@link SessionTransport}): cada envío arranca el siguiente al completarse, de modo que un cliente lento no
+ * retiene ningún hilo. Si el buffer supera su límite se aplica la {@link SlowConsumerPolicy} configurada, que solo
+ * descarta frames MESSAGE: los RECEIPT, CONNECTED o ERROR se entregan siempre. Si un envío tarda más que el límite
+ * de tiempo, el {@link SlowConsumerGuard} cierra la sesión.
+ */
+@Slf4j
+class BufferedSessionDecorator extends WebSocketSessionDecorator {
+
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE\n".getBytes(StandardCharsets.UTF_8);
+
+    private final SessionTransport transport;
+    private final SlowConsumerGuard guard;
+    private final Deque<WebSocketMessage<?>> queue = new ArrayDeque<>();
+    private int bufferedBytes;
+    private boolean sending;
+    private volatile long sendStartedAtNanos;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    BufferedSessionDecorator(WebSocketSession delegate, SessionTransport transport, SlowConsumerGuard guard) {
+        super(delegate);
+        this.transport = transport;
+        this.guard = guard;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closed.get()) {
+            return;
+        }
+        boolean disconnect = false;
+        boolean start = false;
+        synchronized (queue) {
+            queue.addLast(message);
+            bufferedBytes += message.getPayloadLength();
+            if (bufferedBytes > guard.bufferSizeLimit()) {
+                disconnect = !applyOverflowPolicy();
+            }
+            if (!disconnect && !sending) {
+                sending = true;
+                start = true;
+            }
+        }
+        if (disconnect) {
+            closeAsSlow("buffer de envío lleno");
+        } else if (start) {
+            sendNext();
+        }
+    }
+
+    /**
+     * @return false si la política exige cerrar la sesión.
+     */
+    private boolean applyOverflowPolicy() {
+        switch (guard.policy()) {
+            case DISCONNECT -> {
+                return false;
+            }
+            case CONFLATE -> conflate();
+            case DROP_OLDEST -> { }
+        }
+        // Se descartan los MESSAGE más antiguos, conservando siempre el último mensaje recibido.
+        Iterator<WebSocketMessage<?>> oldestFirst = queue.iterator();
+        while (bufferedBytes > guard.bufferSizeLimit() && oldestFirst.hasNext()) {
+            WebSocketMessage<?> candidate = oldestFirst.next();
+            if (candidate != queue.peekLast() && isMessageFrame(candidate)) {
+                oldestFirst.remove();
+                bufferedBytes -= candidate.getPayloadLength();
+                guard.recordDropped();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Recorre la cola desde el final y descarta los frames MESSAGE cuyo destino ya tiene otro más reciente.
+     * Los demás frames (RECEIPT, ERROR...) se conservan.
+     */
+    private void conflate() {
+        Set<String> seen = new HashSet<>();
+        Iterator<WebSocketMessage<?>> newestFirst = queue.descendingIterator();
+        while (newestFirst.hasNext()) {
+            WebSocketMessage<?> candidate = newestFirst.next();
+            String destination = messageDestination(candidate);
+            if (destination != null && !seen.add(destination)) {
+                newestFirst.remove();
+                bufferedBytes -= candidate.getPayloadLength();
+                guard.recordConflated();
+            }
+        }
+    }
+
+    /**
+     * Envía los mensajes en cola uno tras otro. Si el envío se completa en el mismo hilo se sigue en el bucle;
+     * si queda en curso, es su notificación de fin la que continúa (sin recursión ni hilos bloqueados).
+     */
+    private void sendNext() {
+        while (true) {
+            WebSocketMessage<?> next;
+            synchronized (queue) {
+                next = closed.get() ? null : queue.pollFirst();
+                if (next == null) {
+                    sending = false;
+                    return;
+                }
+                bufferedBytes -= next.getPayloadLength();
+            }
+            AtomicBoolean handOff = new AtomicBoolean();
+            sendStartedAtNanos = System.nanoTime();
+            transport.send(next, failure -> {
+                sendStartedAtNanos = 0;
+                if (failure != null) {
+                    log.debug("Fallo al enviar a la sesión {}: {}", getId(), failure.getMessage());
+                    closeAsSlow("error de envío");
+                } else if (handOff.getAndSet(true)) {
+                    sendNext();
+                }
+            });
+            if (!handOff.getAndSet(true)) {
+                // El envío sigue en curso: lo continuará su notificación de fin.
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true si hay un envío en curso desde hace más de {@code limitNanos}.
+     */
+    boolean isSendStalled(long now, long limitNanos) {
+        long startedAt = sendStartedAtNanos;
+        return startedAt != 0 && now - startedAt > limitNanos;
+    }
+
+    boolean hasBacklog() {
+        synchronized (queue) {
+            return !queue.isEmpty();
+        }
+    }
+
+    int bufferedBytes() {
+        synchronized (queue) {
+            return bufferedBytes;
+        }
+    }
+
+    /**
+     * Cierra la sesión por cliente lento; solo la primera llamada cierra y se contabiliza.
+     */
+    void closeAsSlow(String reason) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        guard.recordDisconnect();
+        synchronized (queue) {
+            queue.clear();
+            bufferedBytes = 0;
+        }
+        log.warn("Cerrando la sesión WebSocket {} por cliente lento: {}", getId(), reason);
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            // Cerrar con un envío en curso puede lanzar IllegalStateException; la sesión se da por cerrada igualmente.
+            log.debug("Error cerrando la sesión {}: {}", getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        closed.set(true);
+        super.close(status);
+    }
+
+    private static boolean isMessageFrame(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            return text.getPayload().startsWith("MESSAGE\n");
+        }
+        if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload();
+            if (payload.remaining() < MESSAGE_COMMAND.length) {
+                return false;
+            }
+            for (int i = 0; i < MESSAGE_COMMAND.length; i++) {
+                if (payload.get(payload.position() + i) != MESSAGE_COMMAND[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Destino de un frame STOMP MESSAGE de texto, leído de sus cabeceras; null para cualquier otro frame.
+     */
+    private static String messageDestination(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text)) {
+            return null;
+        }
+        String payload = text.getPayload();
+        if (!payload.startsWith("MESSAGE\n")) {
+            return null;
+        }
+        int headersEnd = payload.indexOf("\n\n");
+        int start = payload.indexOf("\ndestination:");
+        if (start < 0 || (headersEnd >= 0 && start > headersEnd)) {
+            return null;
+        }
+        start += "\ndestination:".length();
+        int end = payload.indexOf('\n', start);
+        return end < 0 ? null : payload.substring(start, end);
+    }
+}
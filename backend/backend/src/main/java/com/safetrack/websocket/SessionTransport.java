@@ -0,0 +1,57 @@
+package com.safetrack.websocket;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.Session;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.function.Consumer;
+
+/**
+ * Envío de un mensaje a la conexión real de una sesión, sin bloquear al llamante.
+ * El resultado se notifica con {@code onComplete} (null si se envió, la causa si falló); puede llegar en el
+ * mismo hilo antes de que {@link #send} vuelva. Nunca hay más de un envío en curso por sesión.
+ */
+@FunctionalInterface
+interface SessionTransport {
+
+    void send(WebSocketMessage<?> message, Consumer<Throwable> onComplete);
+
+    /**
+     * Usa el envío asíncrono de Jakarta WebSocket si la sesión lo expone; si no, envía de forma síncrona.
+     */
+    static SessionTransport of(WebSocketSession session) {
+        Session nativeSession = session instanceof NativeWebSocketSession nativeWebSocketSession
+                ? nativeWebSocketSession.getNativeSession(Session.class) : null;
+        if (nativeSession == null) {
+            return (message, onComplete) -> {
+                try {
+                    session.sendMessage(message);
+                    onComplete.accept(null);
+                } catch (Exception e) {
+                    onComplete.accept(e);
+                }
+            };
+        }
+        return (message, onComplete) -> {
+            RemoteEndpoint.Async remote = nativeSession.getAsyncRemote();
+            SendHandler handler = result -> onComplete.accept(result.isOK() ? null : result.getException());
+            try {
+                if (message instanceof TextMessage text) {
+                    remote.sendText(text.getPayload(), handler);
+                } else if (message instanceof BinaryMessage binary) {
+                    remote.sendBinary(binary.getPayload(), handler);
+                } else {
+                    session.sendMessage(message);
+                    onComplete.accept(null);
+                }
+            } catch (Exception e) {
+                onComplete.accept(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.safetrack.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protección frente a clientes WebSocket lentos.
+ * Envuelve cada sesión en un {@link BufferedSessionDecorator} con buffer de envío acotado y envíos no bloqueantes,
+ * y la vigila: si un envío lleva más del límite de tiempo, la sesión se cierra para liberar su memoria.
+ * Así un navegador con mala conexión no hace crecer el heap ni retiene hilos que necesitan los demás suscriptores.
+ */
+@Component
+public class SlowConsumerGuard {
+
+    private final int bufferSizeLimit;
+    private final long sendTimeLimitNanos;
+    private final SlowConsumerPolicy policy;
+    private final Map<String, BufferedSessionDecorator> sessions = new ConcurrentHashMap<>();
+
+    private final Counter dropped;
+    private final Counter conflated;
+    private final Counter disconnected;
+
+    public SlowConsumerGuard(MeterRegistry meterRegistry,
+                             @Value("${safetrack.websocket.session.buffer-size-limit:524288}") int bufferSizeLimit,
+                             @Value("${safetrack.websocket.session.send-time-limit-ms:10000}") long sendTimeLimitMs,
+                             @Value("${safetrack.websocket.session.overflow-policy:DROP_OLDEST}") SlowConsumerPolicy policy) {
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.policy = policy;
+
+        this.dropped = slowConsumerCounter(meterRegistry, "dropped");
+        this.conflated = slowConsumerCounter(meterRegistry, "conflated");
+        this.disconnected = slowConsumerCounter(meterRegistry, "disconnected");
+        Gauge.builder("safetrack.websocket.sessions.throttled", sessions,
+                        s -> s.values().stream().filter(BufferedSessionDecorator::hasBacklog).count())
+                .description("Sesiones con mensajes pendientes en su buffer de envío")
+                .register(meterRegistry);
+        Gauge.builder("safetrack.websocket.sessions.buffered.bytes", sessions,
+                        s -> s.values().stream().mapToInt(BufferedSessionDecorator::bufferedBytes).sum())
+                .description("Bytes pendientes de enviar en todas las sesiones")
+                .register(meterRegistry);
+    }
+
+    private static Counter slowConsumerCounter(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("safetrack.websocket.slow_consumer")
+                .tag("action", action)
+                .description("Acciones aplicadas a sesiones WebSocket que no consumen a tiempo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decorador para registrar con {@code WebSocketTransportRegistration#addDecoratorFactory}.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                BufferedSessionDecorator buffered = new BufferedSessionDecorator(session,
+                        SessionTransport.of(session), SlowConsumerGuard.this);
+                sessions.put(session.getId(), buffered);
+                super.afterConnectionEstablished(buffered);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                BufferedSessionDecorator buffered = sessions.remove(session.getId());
+                super.afterConnectionClosed(buffered != null ? buffered : session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Cierra las sesiones con un envío bloqueado más allá del límite de tiempo.
+     */
+    @Scheduled(fixedDelayString = "${safetrack.websocket.session.watchdog-interval-ms:1000}")
+    void closeStalledSessions() {
+        long now = System.nanoTime();
+        for (BufferedSessionDecorator session : sessions.values()) {
+            if (session.isSendStalled(now, sendTimeLimitNanos)) {
+                session.closeAsSlow("envío bloqueado más allá del límite de tiempo");
+            }
+        }
+    }
+
+    int bufferSizeLimit() {
+        return bufferSizeLimit;
+    }
+
+    SlowConsumerPolicy policy() {
+        return policy;
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void recordConflated() {
+        conflated.increment();
+    }
+
+    void recordDisconnect() {
+        disconnected.increment();
+    }
+}
@@ -0,0 +1,13 @@
+package com.safetrack.websocket;
+
+/**
+ * Qué hacer cuando el buffer de envío de una sesión WebSocket supera su límite.
+ */
+public enum SlowConsumerPolicy {
+    /** Descartar los frames MESSAGE más antiguos del buffer hasta volver al límite; los de control se conservan. */
+    DROP_OLDEST,
+    /** Conservar solo el último mensaje pendiente de cada destino STOMP; si no basta, descartar los MESSAGE más antiguos. */
+    CONFLATE,
+    /** Cerrar la sesión; el cliente se reconectará y recargará su estado. */
+    DISCONNECT
+}
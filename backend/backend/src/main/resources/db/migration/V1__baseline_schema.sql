@@ -0,0 +1,96 @@
+-- Esquema base de SafeTrack, equivalente al que generaba Hibernate con ddl-auto=update.
+-- Con IF NOT EXISTS, en una base ya creada por Hibernate solo se crean las tablas que falten.
+
+CREATE TABLE IF NOT EXISTS users (
+    id                  uuid PRIMARY KEY,
+    name                varchar(255),
+    email               varchar(255) UNIQUE,
+    password            varchar(255),
+    rol                 varchar(255),
+    reset_token         varchar(255),
+    reset_token_expiry  timestamp(6),
+    activo              boolean NOT NULL DEFAULT TRUE,
+    created_at          timestamp(6) with time zone,
+    updated_at          timestamp(6) with time zone
+);
+
+CREATE TABLE IF NOT EXISTS drivers (
+    id                  uuid PRIMARY KEY,
+    nombre              varchar(255) NOT NULL,
+    licencia            varchar(255) NOT NULL UNIQUE,
+    fecha_nacimiento    date,
+    activo              boolean NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS vehicles (
+    id                  uuid PRIMARY KEY,
+    placa               varchar(255) NOT NULL UNIQUE,
+    marca               varchar(255) NOT NULL,
+    modelo              varchar(255),
+    anio                integer,
+    activo              boolean NOT NULL DEFAULT TRUE,
+    driver_id           uuid CONSTRAINT fk_vehicles_driver REFERENCES drivers (id)
+);
+
+CREATE TABLE IF NOT EXISTS rules (
+    id                  bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    rule_name           varchar(255) NOT NULL UNIQUE,
+    value               varchar(255) NOT NULL,
+    description         varchar(512),
+    enabled             boolean NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id                  bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id             uuid NOT NULL CONSTRAINT fk_notifications_user REFERENCES users (id),
+    message             varchar(255) NOT NULL,
+    is_read             boolean NOT NULL DEFAULT FALSE,
+    created_at          timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id                  bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id            uuid,
+    message             varchar(255) NOT NULL,
+    created_at          timestamp(6) with time zone NOT NULL
+);
+
+-- Particionada por mes de timestamp: la clave primaria y la de deduplicación deben incluir la columna de partición.
+-- Las particiones mensuales las crea EventPartitionServiceImpl; la partición por defecto se crea en V2.
+CREATE TABLE IF NOT EXISTS vehicle_events (
+    id                      uuid NOT NULL,
+    driver_id               uuid CONSTRAINT fk_vehicle_events_driver REFERENCES drivers (id),
+    vehicle_id              uuid CONSTRAINT fk_vehicle_events_vehicle REFERENCES vehicles (id),
+    timestamp               timestamp(6) with time zone NOT NULL,
+    fatigue_level           varchar(255) NOT NULL,
+    fatigue_type            varchar(255) NOT NULL,
+    eye_closure_duration    float(53) NOT NULL,
+    yawn_count              integer NOT NULL,
+    blink_rate              float(53) NOT NULL,
+    occurrence_count        integer NOT NULL DEFAULT 1,
+    window_start            timestamp(6) with time zone,
+    window_end              timestamp(6) with time zone,
+    CONSTRAINT vehicle_events_pkey PRIMARY KEY (id, timestamp),
+    CONSTRAINT uk_vehicle_events_dedup UNIQUE (vehicle_id, driver_id, timestamp, fatigue_type)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE IF NOT EXISTS daily_event_rollups (
+    event_date          date NOT NULL,
+    fatigue_type        varchar(255) NOT NULL,
+    fatigue_level       varchar(255) NOT NULL,
+    event_count         bigint NOT NULL,
+    max_eye_closure     float(53) NOT NULL,
+    PRIMARY KEY (event_date, fatigue_type, fatigue_level)
+);
+
+CREATE TABLE IF NOT EXISTS driver_daily_rollups (
+    event_date          date NOT NULL,
+    driver_id           uuid NOT NULL,
+    fatigue_type        varchar(255) NOT NULL,
+    fatigue_level       varchar(255) NOT NULL,
+    event_count         bigint NOT NULL,
+    max_eye_closure     float(53) NOT NULL,
+    last_event_at       timestamp(6) with time zone NOT NULL,
+    last_vehicle_id     uuid,
+    PRIMARY KEY (event_date, driver_id, fatigue_type, fatigue_level)
+);
@@ -0,0 +1,65 @@
+-- Convierte una vehicle_events sin particionar (creada por Hibernate antes de V1) sin copiar filas:
+-- la tabla existente se renombra y se adjunta como partición de todo lo anterior al mes siguiente.
+-- Sus restricciones únicas se recrean en la tabla padre, con la clave primaria ampliada a (id, timestamp).
+-- La tabla antigua pudo acumular copias de un mismo evento reenviadas por el edge antes de existir la restricción
+-- de deduplicación: se borran antes de adjuntarla, conservando la primera escrita, o el ATTACH fallaría.
+-- Una base creada por Hibernate antes de V1 conserva su vehicle_events sin las columnas de agrupación de alertas
+-- (V1 no la toca porque ya existe). Se añaden antes de convertirla: la tabla padre copia las columnas de la antigua.
+-- En una base nueva la tabla ya las tiene y la sentencia no hace nada.
+ALTER TABLE vehicle_events
+    ADD COLUMN IF NOT EXISTS occurrence_count integer NOT NULL DEFAULT 1,
+    ADD COLUMN IF NOT EXISTS window_start timestamp(6) with time zone,
+    ADD COLUMN IF NOT EXISTS window_end timestamp(6) with time zone;
+
+DO $$
+DECLARE
+    legacy_upper_bound timestamptz := (date_trunc('month', now() AT TIME ZONE 'UTC') + interval '1 month') AT TIME ZONE 'UTC';
+    constraint_row record;
+    removed_duplicates bigint;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('vehicle_events')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+
+    LOCK TABLE vehicle_events IN ACCESS EXCLUSIVE MODE;
+    ALTER TABLE vehicle_events RENAME TO vehicle_events_legacy;
+
+    FOR constraint_row IN
+        SELECT conname FROM pg_constraint
+        WHERE conrelid = 'vehicle_events_legacy'::regclass AND contype IN ('p', 'u')
+    LOOP
+        EXECUTE format('ALTER TABLE vehicle_events_legacy DROP CONSTRAINT %I', constraint_row.conname);
+    END LOOP;
+
+    CREATE TABLE vehicle_events (LIKE vehicle_events_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+        PARTITION BY RANGE (timestamp);
+    ALTER TABLE vehicle_events ADD CONSTRAINT vehicle_events_pkey PRIMARY KEY (id, timestamp);
+    ALTER TABLE vehicle_events ADD CONSTRAINT uk_vehicle_events_dedup
+        UNIQUE (vehicle_id, driver_id, timestamp, fatigue_type);
+
+    FOR constraint_row IN
+        SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint
+        WHERE conrelid = 'vehicle_events_legacy'::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE vehicle_events ADD CONSTRAINT %I %s', constraint_row.conname, constraint_row.definition);
+    END LOOP;
+
+    -- Las filas con alguna columna nula no chocan en una restricción única, así que no se tratan como copias.
+    DELETE FROM vehicle_events_legacy duplicate
+    USING (SELECT ctid,
+                  ROW_NUMBER() OVER (PARTITION BY vehicle_id, driver_id, timestamp, fatigue_type ORDER BY ctid) AS copy
+           FROM vehicle_events_legacy
+           WHERE vehicle_id IS NOT NULL AND driver_id IS NOT NULL AND fatigue_type IS NOT NULL) ranked
+    WHERE duplicate.ctid = ranked.ctid AND ranked.copy > 1;
+    GET DIAGNOSTICS removed_duplicates = ROW_COUNT;
+    IF removed_duplicates > 0 THEN
+        RAISE NOTICE 'Borradas % copias duplicadas de eventos antes de adjuntar vehicle_events_legacy', removed_duplicates;
+    END IF;
+
+    EXECUTE format('ALTER TABLE vehicle_events ATTACH PARTITION vehicle_events_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   legacy_upper_bound);
+END
+$$;
+
+-- Eventos de meses sin partición mensual; EventPartitionServiceImpl los mueve a la suya al crearla.
+CREATE TABLE IF NOT EXISTS vehicle_events_default PARTITION OF vehicle_events DEFAULT;
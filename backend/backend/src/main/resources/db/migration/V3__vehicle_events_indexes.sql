@@ -0,0 +1,20 @@
+-- Índices de vehicle_events para las consultas de los repositorios. Se crean sobre la tabla padre,
+-- así que PostgreSQL los replica en cada partición, incluidas las que se creen después.
+-- EventIndexUsageVerifier comprueba al arrancar que las consultas los usan.
+
+-- Rangos de tiempo sin otro filtro (estado de flota y métricas en vivo al arrancar, reconstrucción de agregados).
+-- Los eventos llegan casi en orden de timestamp, así que BRIN ocupa unas pocas páginas por partición.
+CREATE INDEX IF NOT EXISTS idx_vehicle_events_timestamp_brin
+    ON vehicle_events USING brin (timestamp) WITH (pages_per_range = 32);
+
+-- Historial de un conductor o un vehículo en un rango (búsqueda de eventos, reproducción).
+CREATE INDEX IF NOT EXISTS idx_vehicle_events_driver_timestamp
+    ON vehicle_events (driver_id, timestamp);
+CREATE INDEX IF NOT EXISTS idx_vehicle_events_vehicle_timestamp
+    ON vehicle_events (vehicle_id, timestamp);
+
+-- Eventos críticos: una fracción pequeña de las filas que se consulta a menudo.
+CREATE INDEX IF NOT EXISTS idx_vehicle_events_critical_timestamp
+    ON vehicle_events (timestamp) WHERE fatigue_level = 'ALTO';
+CREATE INDEX IF NOT EXISTS idx_vehicle_events_critical_driver_timestamp
+    ON vehicle_events (driver_id, timestamp) WHERE fatigue_level = 'ALTO';
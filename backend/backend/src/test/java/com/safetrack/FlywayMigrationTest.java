@@ -0,0 +1,80 @@
+package com.safetrack;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migra una base con el esquema que generaba Hibernate antes de V1 (vehicle_events sin particionar y sin las
+ * columnas de agrupación de alertas) y comprueba que queda como la espera la entidad.
+ * Necesita Docker; sin él la prueba se omite.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class FlywayMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    /** Tablas que tocan las migraciones de eventos, tal como las creaba Hibernate con ddl-auto=update. */
+    private static final String HIBERNATE_BASELINE_SQL = """
+            CREATE TABLE drivers (
+                id uuid PRIMARY KEY, nombre varchar(255) NOT NULL, licencia varchar(255) NOT NULL UNIQUE,
+                fecha_nacimiento date, activo boolean NOT NULL);
+            CREATE TABLE vehicles (
+                id uuid PRIMARY KEY, placa varchar(255) NOT NULL UNIQUE, marca varchar(255) NOT NULL,
+                modelo varchar(255), anio integer, activo boolean NOT NULL, driver_id uuid REFERENCES drivers (id));
+            CREATE TABLE vehicle_events (
+                id uuid PRIMARY KEY, driver_id uuid REFERENCES drivers (id), vehicle_id uuid REFERENCES vehicles (id),
+                timestamp timestamp(6) with time zone NOT NULL, fatigue_level varchar(255) NOT NULL,
+                fatigue_type varchar(255) NOT NULL, eye_closure_duration float(53) NOT NULL,
+                yawn_count integer NOT NULL, blink_rate float(53) NOT NULL);
+            INSERT INTO drivers VALUES ('00000000-0000-0000-0000-000000000001', 'Ana', 'L-1', NULL, true);
+            INSERT INTO vehicles VALUES ('00000000-0000-0000-0000-000000000002', 'ABC-123', 'Marca', NULL, NULL, true, NULL);
+            INSERT INTO vehicle_events VALUES
+                ('00000000-0000-0000-0000-000000000003', '00000000-0000-0000-0000-000000000001',
+                 '00000000-0000-0000-0000-000000000002', '2025-01-01T10:00:00Z', 'ALTO', 'CABECEO', 1.2, 0, 10),
+                ('00000000-0000-0000-0000-000000000004', '00000000-0000-0000-0000-000000000001',
+                 '00000000-0000-0000-0000-000000000002', '2025-01-01T10:00:00Z', 'ALTO', 'CABECEO', 1.2, 0, 10);
+            """;
+
+    @Test
+    void hibernateBaselineIsUpgradedToTheCurrentSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(HIBERNATE_BASELINE_SQL);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass('vehicle_events')", String.class))
+                .isEqualTo("p");
+        List<String> columns = jdbcTemplate.queryForList("SELECT column_name FROM information_schema.columns " +
+                "WHERE table_name = 'vehicle_events'", String.class);
+        assertThat(columns).contains("occurrence_count", "window_start", "window_end");
+
+        // La copia reenviada se borra al adjuntar la tabla antigua; la original conserva una ocurrencia.
+        List<Map<String, Object>> events = jdbcTemplate.queryForList("SELECT occurrence_count FROM vehicle_events");
+        assertThat(events).singleElement().satisfies(row -> assertThat(row.get("occurrence_count")).isEqualTo(1));
+
+        jdbcTemplate.update("INSERT INTO vehicle_events (id, driver_id, vehicle_id, timestamp, fatigue_level, " +
+                "fatigue_type, eye_closure_duration, yawn_count, blink_rate, occurrence_count, window_start, window_end) " +
+                "VALUES (gen_random_uuid(), NULL, NULL, now(), 'BAJO', 'BOSTEZO', 0, 1, 12, 3, now(), now())");
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(occurrence_count) FROM vehicle_events", Long.class)).isEqualTo(4);
+    }
+}
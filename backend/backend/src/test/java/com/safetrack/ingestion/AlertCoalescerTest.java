@@ -0,0 +1,116 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertCoalescerTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final UUID driverId = UUID.randomUUID();
+    private final UUID vehicleId = UUID.randomUUID();
+
+    @Test
+    void burstIsMergedIntoOneEventWithItsOccurrences() {
+        AlertCoalescer coalescer = coalescer(60_000);
+
+        assertThat(coalescer.offer(event(0, FatigueType.CABECEO, FatigueLevel.MEDIO, 0.4), target("r1"))).isEmpty();
+        assertThat(coalescer.offer(event(1, FatigueType.CABECEO, FatigueLevel.BAJO, 0.9), target("r2"))).isEmpty();
+        assertThat(coalescer.offer(event(2, FatigueType.CABECEO, FatigueLevel.MEDIO, 0.6), null)).isEmpty();
+
+        List<CoalescedEvent> drained = coalescer.drainAll();
+
+        assertThat(drained).singleElement().satisfies(coalesced -> {
+            VehicleEventDTO merged = coalesced.event();
+            assertThat(merged.getOccurrenceCount()).isEqualTo(3);
+            assertThat(merged.getFatigueLevel()).isEqualTo(FatigueLevel.MEDIO);
+            assertThat(merged.getEyeClosureDuration()).isEqualTo(0.9);
+            assertThat(merged.getWindowStart()).isEqualTo(START);
+            assertThat(merged.getWindowEnd()).isEqualTo(START.plusMillis(2));
+            assertThat(coalesced.receipts()).extracting(ReceiptTarget::receiptId).containsExactly("r1", "r2");
+            assertThat(coalesced.keys()).hasSize(3);
+        });
+        assertThat(coalescer.drainAll()).isEmpty();
+    }
+
+    @Test
+    void escalationToHighIsEmittedImmediately() {
+        AlertCoalescer coalescer = coalescer(60_000);
+        coalescer.offer(event(0, FatigueType.MICROSUEÑO, FatigueLevel.MEDIO, 0.5), target("r1"));
+
+        List<CoalescedEvent> ready = coalescer.offer(event(1, FatigueType.MICROSUEÑO, FatigueLevel.ALTO, 1.2), target("r2"));
+
+        assertThat(ready).singleElement().satisfies(coalesced -> {
+            assertThat(coalesced.event().getFatigueLevel()).isEqualTo(FatigueLevel.ALTO);
+            assertThat(coalesced.event().getOccurrenceCount()).isEqualTo(2);
+        });
+        // El resto de la ventana ya escalada se agrupa y sale al cerrarla.
+        assertThat(coalescer.offer(event(2, FatigueType.MICROSUEÑO, FatigueLevel.ALTO, 1.0), target("r3"))).isEmpty();
+        assertThat(coalescer.drainAll()).singleElement()
+                .satisfies(coalesced -> assertThat(coalesced.event().getOccurrenceCount()).isEqualTo(1));
+    }
+
+    @Test
+    void eventsWithoutFatigueAreNotHeld() {
+        AlertCoalescer coalescer = coalescer(60_000);
+
+        List<CoalescedEvent> ready = coalescer.offer(event(0, FatigueType.NINGUNO, FatigueLevel.NINGUNO, 0.0), target("r1"));
+
+        assertThat(ready).singleElement().satisfies(coalesced -> {
+            assertThat(coalesced.event().getOccurrenceCount()).isNull();
+            assertThat(coalesced.receipts()).extracting(ReceiptTarget::receiptId).containsExactly("r1");
+        });
+        assertThat(coalescer.drainAll()).isEmpty();
+    }
+
+    @Test
+    void windowsAreKeptPerFatigueType() {
+        AlertCoalescer coalescer = coalescer(60_000);
+        coalescer.offer(event(0, FatigueType.CABECEO, FatigueLevel.MEDIO, 0.4), null);
+        coalescer.offer(event(1, FatigueType.BOSTEZO, FatigueLevel.BAJO, 0.1), null);
+
+        assertThat(coalescer.drainAll()).extracting(coalesced -> coalesced.event().getFatigueType())
+                .containsExactlyInAnyOrder(FatigueType.CABECEO, FatigueType.BOSTEZO);
+    }
+
+    @Test
+    void expiredWindowIsDrainedAndTheNextEventOpensANewOne() {
+        AlertCoalescer coalescer = coalescer(0);
+        coalescer.offer(event(0, FatigueType.CABECEO, FatigueLevel.MEDIO, 0.4), target("r1"));
+
+        List<CoalescedEvent> ready = coalescer.offer(event(1, FatigueType.CABECEO, FatigueLevel.MEDIO, 0.4), target("r2"));
+
+        assertThat(ready).singleElement()
+                .satisfies(coalesced -> assertThat(coalesced.receipts()).extracting(ReceiptTarget::receiptId).containsExactly("r1"));
+        assertThat(coalescer.drainExpired()).singleElement()
+                .satisfies(coalesced -> assertThat(coalesced.receipts()).extracting(ReceiptTarget::receiptId).containsExactly("r2"));
+    }
+
+    private static AlertCoalescer coalescer(long windowMillis) {
+        return new AlertCoalescer(new SimpleMeterRegistry(), true, windowMillis);
+    }
+
+    private VehicleEventDTO event(long offsetMillis, FatigueType type, FatigueLevel level, double eyeClosure) {
+        return VehicleEventDTO.builder()
+                .driverId(driverId)
+                .vehicleId(vehicleId)
+                .timestamp(START.plusMillis(offsetMillis))
+                .fatigueType(type)
+                .fatigueLevel(level)
+                .eyeClosureDuration(eyeClosure)
+                .build();
+    }
+
+    private static ReceiptTarget target(String receiptId) {
+        return new ReceiptTarget("session-1", receiptId);
+    }
+}
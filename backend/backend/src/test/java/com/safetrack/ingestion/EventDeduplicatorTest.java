@@ -0,0 +1,80 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.ingestion.EventDeduplicator.Admission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventDeduplicatorTest {
+
+    private final EventDeduplicator deduplicator = new EventDeduplicator(new SimpleMeterRegistry(), true, 60_000, 1_000);
+
+    @Test
+    void pendingKeyIsNotADuplicateUntilPersisted() {
+        EventKey key = key();
+        ReceiptTarget copy = new ReceiptTarget("s1", "r2");
+
+        assertThat(deduplicator.admit(key, new ReceiptTarget("s1", "r1"))).isEqualTo(Admission.NEW);
+        assertThat(deduplicator.admit(key, copy)).isEqualTo(Admission.IN_FLIGHT);
+
+        assertThat(deduplicator.markPersisted(List.of(key))).containsExactly(copy);
+        assertThat(deduplicator.admit(key, new ReceiptTarget("s1", "r3"))).isEqualTo(Admission.DUPLICATE);
+    }
+
+    @Test
+    void forgottenKeyIsAdmittedAgain() {
+        EventKey key = key();
+        ReceiptTarget copy = new ReceiptTarget("s1", "r2");
+        deduplicator.admit(key, new ReceiptTarget("s1", "r1"));
+        deduplicator.admit(key, copy);
+
+        assertThat(deduplicator.forget(List.of(key))).containsExactly(copy);
+        assertThat(deduplicator.admit(key, null)).isEqualTo(Admission.NEW);
+    }
+
+    @Test
+    void expiredKeysAreEvicted() {
+        EventDeduplicator shortWindow = new EventDeduplicator(new SimpleMeterRegistry(), true, 0, 1_000);
+        EventKey key = key();
+        shortWindow.admit(key, null);
+        shortWindow.markPersisted(List.of(key));
+        shortWindow.evictExpired();
+
+        assertThat(shortWindow.admit(key, null)).isEqualTo(Admission.NEW);
+    }
+
+    @Test
+    void fullShardsStopRememberingNewKeys() {
+        // Un máximo de 16 claves deja una por shard.
+        EventDeduplicator small = new EventDeduplicator(new SimpleMeterRegistry(), true, 60_000, 16);
+        int remembered = 0;
+        for (int i = 0; i < 200; i++) {
+            EventKey key = key();
+            small.admit(key, null);
+            if (small.admit(key, null) == Admission.IN_FLIGHT) {
+                remembered++;
+            }
+        }
+        assertThat(remembered).isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    void disabledFilterAdmitsEverything() {
+        EventDeduplicator disabled = new EventDeduplicator(new SimpleMeterRegistry(), false, 60_000, 1_000);
+        EventKey key = key();
+        disabled.admit(key, null);
+        disabled.markPersisted(List.of(key));
+
+        assertThat(disabled.admit(key, null)).isEqualTo(Admission.NEW);
+    }
+
+    private static EventKey key() {
+        return new EventKey(UUID.randomUUID(), UUID.randomUUID(), Instant.parse("2025-01-01T10:00:00Z"), FatigueType.CABECEO);
+    }
+}
@@ -0,0 +1,58 @@
+package com.safetrack.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class IngestionAdmissionInterceptorTest {
+
+    private final ThreadPoolTaskExecutor inboundExecutor = mock(ThreadPoolTaskExecutor.class);
+    private final ReceiptSender receiptSender = mock(ReceiptSender.class);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final IngestionAdmissionInterceptor interceptor;
+
+    @SuppressWarnings("unchecked")
+    IngestionAdmissionInterceptorTest() {
+        ObjectProvider<ShardedIngestionDispatcher> dispatcher = mock(ObjectProvider.class);
+        ObjectProvider<ReceiptSender> receipts = mock(ObjectProvider.class);
+        when(receipts.getIfAvailable()).thenReturn(receiptSender);
+        interceptor = new IngestionAdmissionInterceptor(inboundExecutor, dispatcher, receipts, new SimpleMeterRegistry(), 100, 0.9);
+        when(inboundExecutor.getQueueSize()).thenReturn(150);
+    }
+
+    @Test
+    void saturatedQueueShedsIngestionFrames() {
+        Message<?> message = send(IngestionAdmissionInterceptor.INGESTION_DESTINATION);
+
+        assertThat(interceptor.preSend(message, channel)).isNull();
+        verify(receiptSender).retryLater(new ReceiptTarget("session-1", "r1"));
+    }
+
+    @Test
+    void saturatedQueueLetsOtherFramesThrough() {
+        Message<?> message = send("/app/replay/start");
+
+        assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+        verifyNoInteractions(receiptSender);
+    }
+
+    private static Message<?> send(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setSessionId("session-1");
+        accessor.setReceipt("r1");
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,117 @@
+package com.safetrack.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceiptSenderTest {
+
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final MessageChannel channel = (message, timeout) -> sent.add(message);
+
+    @Test
+    void perMessageModeConfirmsEveryFrame() {
+        ReceiptSender sender = sender(ReceiptMode.PER_MESSAGE, 60_000);
+        sender.register(target("r1"));
+
+        sender.acknowledgeBatch(List.of(target("r1"), target("r2")));
+
+        assertThat(receipts()).containsExactly("r1", "r2");
+        assertThat(header(0, ReceiptSender.MODE_HEADER)).isNull();
+    }
+
+    @Test
+    void cumulativeModeWaitsForEarlierFrames() {
+        ReceiptSender sender = sender(ReceiptMode.CUMULATIVE, 60_000);
+        sender.register(target("r1"));
+        sender.register(target("r2"));
+        sender.register(target("r3"));
+
+        sender.acknowledgeBatch(List.of(target("r2"), target("r3")));
+        assertThat(sent).isEmpty();
+
+        sender.acknowledge(target("r1"));
+        assertThat(receipts()).containsExactly("r3");
+        assertThat(header(0, ReceiptSender.MODE_HEADER)).isEqualTo("cumulative");
+        assertThat(header(0, ReceiptSender.FROM_HEADER)).isEqualTo("r1");
+    }
+
+    @Test
+    void returnedFrameSplitsTheCumulativeRange() {
+        ReceiptSender sender = sender(ReceiptMode.CUMULATIVE, 60_000);
+        sender.register(target("r1"));
+        sender.register(target("r2"));
+        sender.register(target("r3"));
+
+        sender.acknowledge(target("r3"));
+        sender.retryLater(target("r2"));
+        sender.acknowledge(target("r1"));
+
+        assertThat(receipts()).containsExactly("r2", "r1", "r3");
+        assertThat(header(0, ReceiptSender.STATUS_HEADER)).isEqualTo("retry");
+        assertThat(header(1, ReceiptSender.FROM_HEADER)).isEqualTo("r1");
+        assertThat(header(2, ReceiptSender.FROM_HEADER)).isEqualTo("r3");
+    }
+
+    @Test
+    void rejectedFrameIsNotRetried() {
+        ReceiptSender sender = sender(ReceiptMode.CUMULATIVE, 60_000);
+        sender.register(target("r1"));
+        sender.register(target("r2"));
+
+        sender.reject(List.of(target("r1")));
+        sender.acknowledge(target("r2"));
+
+        assertThat(receipts()).containsExactly("r1", "r2");
+        assertThat(header(0, ReceiptSender.STATUS_HEADER)).isEqualTo("rejected");
+        assertThat(header(0, ReceiptSender.RETRY_AFTER_HEADER)).isNull();
+        assertThat(header(1, ReceiptSender.FROM_HEADER)).isEqualTo("r2");
+    }
+
+    @Test
+    void unregisteredFrameIsConfirmedOnItsOwn() {
+        ReceiptSender sender = sender(ReceiptMode.CUMULATIVE, 60_000);
+
+        sender.acknowledge(target("r1"));
+
+        assertThat(receipts()).containsExactly("r1");
+        assertThat(header(0, ReceiptSender.MODE_HEADER)).isNull();
+    }
+
+    @Test
+    void stalePendingFramesAreReturned() {
+        ReceiptSender sender = sender(ReceiptMode.CUMULATIVE, -1);
+        sender.register(target("r1"));
+        sender.register(target("r2"));
+        sender.acknowledge(target("r2"));
+
+        sender.expireStalePending();
+
+        assertThat(receipts()).containsExactly("r1", "r2");
+        assertThat(header(0, ReceiptSender.STATUS_HEADER)).isEqualTo("retry");
+        assertThat(header(1, ReceiptSender.FROM_HEADER)).isEqualTo("r2");
+    }
+
+    private ReceiptSender sender(ReceiptMode mode, long pendingTimeoutMillis) {
+        return new ReceiptSender(channel, new SimpleMeterRegistry(), mode, 1000, pendingTimeoutMillis);
+    }
+
+    private static ReceiptTarget target(String receiptId) {
+        return new ReceiptTarget("session-1", receiptId);
+    }
+
+    private List<String> receipts() {
+        return sent.stream().map(message -> StompHeaderAccessor.wrap(message).getReceiptId()).toList();
+    }
+
+    private String header(int index, String name) {
+        return StompHeaderAccessor.wrap(sent.get(index)).getFirstNativeHeader(name);
+    }
+}
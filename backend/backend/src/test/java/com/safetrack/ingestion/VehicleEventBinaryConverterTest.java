@@ -0,0 +1,68 @@
+package com.safetrack.ingestion;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VehicleEventBinaryConverterTest {
+
+    private final VehicleEventBinaryConverter converter = new VehicleEventBinaryConverter();
+
+    @Test
+    void fullEventSurvivesRoundTrip() {
+        VehicleEventDTO event = VehicleEventDTO.builder()
+                .driverId(UUID.randomUUID())
+                .vehicleId(UUID.randomUUID())
+                .timestamp(Instant.parse("2026-01-01T10:00:00.123Z"))
+                .fatigueLevel(FatigueLevel.ALTO)
+                .fatigueType(FatigueType.BOSTEZO)
+                .eyeClosureDuration(1.5)
+                .yawnCount(3)
+                .blinkRate(12.0)
+                .build();
+
+        assertThat(roundTrip(event)).isEqualTo(event);
+    }
+
+    @Test
+    void nullFieldsSurviveRoundTrip() {
+        VehicleEventDTO event = VehicleEventDTO.builder().build();
+
+        VehicleEventDTO decoded = roundTrip(event);
+
+        assertThat(decoded.getDriverId()).isNull();
+        assertThat(decoded.getVehicleId()).isNull();
+        assertThat(decoded.getTimestamp()).isNull();
+        assertThat(decoded.getFatigueLevel()).isNull();
+        assertThat(decoded.getFatigueType()).isNull();
+    }
+
+    @Test
+    void frameOfWrongLengthIsRejected() {
+        Message<byte[]> message = MessageBuilder.withPayload(new byte[10])
+                .setHeader(MessageHeaders.CONTENT_TYPE, VehicleEventBinaryConverter.MIME_TYPE)
+                .build();
+
+        assertThatThrownBy(() -> converter.fromMessage(message, VehicleEventDTO.class))
+                .isInstanceOf(MessageConversionException.class);
+    }
+
+    private VehicleEventDTO roundTrip(VehicleEventDTO event) {
+        Message<?> encoded = converter.toMessage(event, new MessageHeaders(
+                Map.of(MessageHeaders.CONTENT_TYPE, VehicleEventBinaryConverter.MIME_TYPE)));
+        assertThat((byte[]) encoded.getPayload()).hasSize(VehicleEventBinaryConverter.FRAME_LENGTH);
+        return (VehicleEventDTO) converter.fromMessage(encoded, VehicleEventDTO.class);
+    }
+}
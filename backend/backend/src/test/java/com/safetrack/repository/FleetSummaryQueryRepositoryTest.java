@@ -0,0 +1,58 @@
+package com.safetrack.repository;
+
+import com.safetrack.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class FleetSummaryQueryRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 1);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final FleetSummaryQueryRepository repository = new FleetSummaryQueryRepository(jdbcTemplate);
+
+    @Test
+    void allowedPropertiesAreTranslatedToTheirColumns() {
+        String sql = querySortedBy(Sort.by(Sort.Order.desc("riskScore"), Sort.Order.asc("driverName")));
+
+        assertThat(sql).contains("ORDER BY risk_points DESC, d.nombre ASC, s.driver_id LIMIT");
+    }
+
+    @Test
+    void unsortedPageUsesAlertCountWithStableTieBreak() {
+        String sql = querySortedBy(Sort.unsorted());
+
+        assertThat(sql).contains("ORDER BY s.alert_count DESC, s.driver_id LIMIT");
+    }
+
+    @Test
+    void unknownPropertyIsRejectedWithoutQuerying() {
+        PageRequest injected = PageRequest.of(0, 10, Sort.by("alert_count; DROP TABLE drivers"));
+
+        assertThatThrownBy(() -> repository.findSummaryPage(DAY, DAY, injected))
+                .isInstanceOf(BadRequestException.class);
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private String querySortedBy(Sort sort) {
+        repository.findSummaryPage(DAY, DAY, PageRequest.of(0, 10, sort));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), any(Object[].class));
+        return sql.getValue();
+    }
+}
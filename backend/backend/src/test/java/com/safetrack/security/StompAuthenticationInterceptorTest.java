@@ -0,0 +1,103 @@
+package com.safetrack.security;
+
+import com.safetrack.domain.entity.User;
+import com.safetrack.domain.enums.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StompAuthenticationInterceptorTest {
+
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+    private final StompAuthenticationInterceptor interceptor = new StompAuthenticationInterceptor(jwtUtils, userDetailsService);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void connectWithValidTokenSetsTheUser() {
+        User user = user(Role.GESTOR);
+        when(jwtUtils.extractUsername("token")).thenReturn(user.getEmail());
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        when(jwtUtils.isTokenValid("token", user)).thenReturn(true);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setNativeHeader(StompAuthenticationInterceptor.AUTHORIZATION_HEADER, "Bearer token");
+        accessor.setLeaveMutable(true);
+
+        Message<?> result = interceptor.preSend(message(accessor), channel);
+
+        assertThat(StompHeaderAccessor.wrap(result).getUser()).isInstanceOf(UsernamePasswordAuthenticationToken.class);
+        assertThat(StompHeaderAccessor.wrap(result).getUser().getName()).isEqualTo(user.getEmail());
+    }
+
+    @Test
+    void connectWithInvalidTokenIsRejected() {
+        User user = user(Role.GESTOR);
+        when(jwtUtils.extractUsername("token")).thenReturn(user.getEmail());
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setNativeHeader(StompAuthenticationInterceptor.AUTHORIZATION_HEADER, "Bearer token");
+
+        assertThatThrownBy(() -> interceptor.preSend(message(accessor), channel))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void replayWithoutUserIsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(send("/app/replay/start", null), channel))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void replayWithUnauthorizedRoleIsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(send("/app/replay/start", authentication(Role.CONDUCTOR)), channel))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void replayWithAuthorizedRolePasses() {
+        Message<?> message = send("/app/replay/start", authentication(Role.AUDITOR));
+
+        assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+    }
+
+    @Test
+    void otherFramesPassWithoutUser() {
+        Message<?> message = send("/app/vehicle-event", null);
+
+        assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+    }
+
+    private static Message<?> send(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setSessionId("session-1");
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        return message(accessor);
+    }
+
+    private static Message<?> message(StompHeaderAccessor accessor) {
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(Role role) {
+        User user = user(role);
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    private static User user(Role role) {
+        return User.builder().email("usuario@safetrack.com").rol(role).build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.event.AnalyticsDataChangedEvent;
+import com.safetrack.domain.event.RemoteAnalyticsDataChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingAnalyticsServiceTest {
+
+    private static final int MAX_TRACKED_DAYS = 10;
+    private static final LocalDate JANUARY_1 = LocalDate.of(2020, 1, 1);
+    private static final LocalDate JANUARY_31 = LocalDate.of(2020, 1, 31);
+
+    private final AnalyticsServiceImpl delegate = mock(AnalyticsServiceImpl.class);
+    private final CachingAnalyticsService cache = new CachingAnalyticsService(
+            delegate, new SimpleMeterRegistry(), true, 100, MAX_TRACKED_DAYS, false);
+
+    {
+        when(delegate.getAlertDistribution(any(), any())).thenReturn(Map.of());
+    }
+
+    @Test
+    void closedRangeIsServedUntilOneOfItsDaysChanges() {
+        cache.getAlertDistribution(JANUARY_1, JANUARY_31);
+        cache.onDataChanged(new AnalyticsDataChangedEvent(LocalDate.of(2020, 2, 1), LocalDate.of(2020, 2, 3)));
+        cache.getAlertDistribution(JANUARY_1, JANUARY_31);
+        verify(delegate, times(1)).getAlertDistribution(JANUARY_1, JANUARY_31);
+
+        cache.onRemoteDataChanged(new RemoteAnalyticsDataChangedEvent("node-b", JANUARY_31, JANUARY_31));
+        cache.getAlertDistribution(JANUARY_1, JANUARY_31);
+        verify(delegate, times(2)).getAlertDistribution(JANUARY_1, JANUARY_31);
+    }
+
+    @Test
+    void changeLongerThanTheTrackedDaysInvalidatesEverything() {
+        cache.getAlertDistribution(JANUARY_1, JANUARY_31);
+        cache.onDataChanged(new AnalyticsDataChangedEvent(LocalDate.of(1900, 1, 1), LocalDate.of(2999, 12, 31)));
+        cache.getAlertDistribution(JANUARY_1, JANUARY_31);
+
+        verify(delegate, times(2)).getAlertDistribution(JANUARY_1, JANUARY_31);
+    }
+
+    @Test
+    void prunedStampsStillInvalidateOlderEntries() {
+        cache.getAlertDistribution(JANUARY_1, JANUARY_31);
+        // Cambios en días sueltos fuera del rango hasta superar el límite de marcas guardadas.
+        for (int i = 0; i <= MAX_TRACKED_DAYS; i++) {
+            LocalDate day = LocalDate.of(2021, 1, 1).plusDays(i);
+            cache.onDataChanged(new AnalyticsDataChangedEvent(day, day));
+        }
+        cache.onDataChanged(new AnalyticsDataChangedEvent(JANUARY_1, JANUARY_1));
+        cache.getAlertDistribution(JANUARY_1, JANUARY_31);
+
+        verify(delegate, times(2)).getAlertDistribution(JANUARY_1, JANUARY_31);
+    }
+}
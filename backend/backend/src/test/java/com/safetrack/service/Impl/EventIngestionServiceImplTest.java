@@ -0,0 +1,51 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.ingestion.AlertCoalescer;
+import com.safetrack.ingestion.EventDeduplicator;
+import com.safetrack.ingestion.ReceiptSender;
+import com.safetrack.ingestion.ReceiptTarget;
+import com.safetrack.ingestion.WriteBehindEventBuffer;
+import com.safetrack.mapper.VehicleEventMapper;
+import com.safetrack.service.EventService;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class EventIngestionServiceImplTest {
+
+    private final EventService eventService = mock(EventService.class);
+    private final WriteBehindEventBuffer writeBehindBuffer = mock(WriteBehindEventBuffer.class);
+    private final EventDeduplicator eventDeduplicator = mock(EventDeduplicator.class);
+    private final ReceiptSender receiptSender = mock(ReceiptSender.class);
+    private final AlertCoalescer alertCoalescer = mock(AlertCoalescer.class);
+    private final EventIngestionServiceImpl ingestion = new EventIngestionServiceImpl(eventService, writeBehindBuffer,
+            mock(VehicleEventMapper.class), eventDeduplicator, receiptSender, alertCoalescer);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"timestamp", "fatigueLevel", "fatigueType"})
+    void eventWithoutRequiredFieldIsRejectedBeforePersisting(String missing) {
+        VehicleEventDTO event = VehicleEventDTO.builder()
+                .driverId(UUID.randomUUID())
+                .vehicleId(UUID.randomUUID())
+                .timestamp(missing.equals("timestamp") ? null : Instant.parse("2026-01-01T00:00:00Z"))
+                .fatigueLevel(missing.equals("fatigueLevel") ? null : FatigueLevel.ALTO)
+                .fatigueType(missing.equals("fatigueType") ? null : FatigueType.values()[0])
+                .build();
+        ReceiptTarget receipt = new ReceiptTarget("session-1", "receipt-1");
+
+        assertThat(ingestion.ingest(event, receipt)).isEmpty();
+
+        verify(receiptSender).reject(receipt);
+        verifyNoInteractions(eventDeduplicator, alertCoalescer, writeBehindBuffer, eventService);
+    }
+}
@@ -0,0 +1,78 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.entity.Driver;
+import com.safetrack.domain.event.FleetDirectoryChangedEvent;
+import com.safetrack.domain.event.FleetDirectoryChangedEvent.EntryType;
+import com.safetrack.domain.event.RemoteFleetDirectoryChangedEvent;
+import com.safetrack.repository.DriverRepository;
+import com.safetrack.repository.VehicleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FleetDirectoryServiceImplTest {
+
+    private final DriverRepository driverRepository = mock(DriverRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final FleetDirectoryServiceImpl directory = new FleetDirectoryServiceImpl(
+            driverRepository, mock(VehicleRepository.class), eventPublisher, new SimpleMeterRegistry(), 100);
+
+    private final UUID driverId = UUID.randomUUID();
+
+    @Test
+    void slowLoadDoesNotOverwriteNewerSave() {
+        // La carga lee la fila antigua y, antes de terminar, se confirma una modificación.
+        when(driverRepository.findById(driverId)).thenAnswer(invocation -> {
+            directory.driverSaved(driver("Nombre nuevo"));
+            return Optional.of(driver("Nombre antiguo"));
+        });
+
+        directory.findDriver(driverId);
+
+        assertThat(directory.driverName(driverId, null)).isEqualTo("Nombre nuevo");
+    }
+
+    @Test
+    void loadRacingARemoteChangeIsNotKept() {
+        when(driverRepository.findById(driverId)).thenAnswer(invocation -> {
+            directory.onRemoteChanged(new RemoteFleetDirectoryChangedEvent("node-b", EntryType.DRIVER, driverId));
+            return Optional.of(driver("Nombre antiguo"));
+        });
+
+        directory.findDriver(driverId);
+        directory.findDriver(driverId);
+
+        verify(driverRepository, times(2)).findById(driverId);
+    }
+
+    @Test
+    void remoteChangeEvictsTheEntry() {
+        directory.driverSaved(driver("Nombre antiguo"));
+        when(driverRepository.findById(driverId)).thenReturn(Optional.of(driver("Nombre nuevo")));
+
+        directory.onRemoteChanged(new RemoteFleetDirectoryChangedEvent("node-b", EntryType.DRIVER, driverId));
+
+        assertThat(directory.driverName(driverId, null)).isEqualTo("Nombre nuevo");
+    }
+
+    @Test
+    void localChangesAreAnnouncedForOtherNodes() {
+        directory.driverSaved(driver("Nombre"));
+        directory.driverDeleted(driverId);
+
+        verify(eventPublisher, times(2)).publishEvent(new FleetDirectoryChangedEvent(EntryType.DRIVER, driverId));
+    }
+
+    private Driver driver(String nombre) {
+        return Driver.builder().id(driverId).nombre(nombre).licencia("L-1").build();
+    }
+}
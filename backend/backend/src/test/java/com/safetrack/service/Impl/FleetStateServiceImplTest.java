@@ -0,0 +1,77 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.dto.response.FleetStateDelta;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.domain.event.RemoteVehicleEventsReceivedEvent;
+import com.safetrack.mapper.VehicleEventMapper;
+import com.safetrack.repository.VehicleEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class FleetStateServiceImplTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final FleetStateServiceImpl fleetState = new FleetStateServiceImpl(mock(VehicleEventRepository.class),
+            mock(VehicleEventMapper.class), messagingTemplate, 16);
+
+    private final List<Long> published = new CopyOnWriteArrayList<>();
+
+    @Test
+    void slowPublicationDoesNotBlockWritersAndKeepsVersionOrder() throws Exception {
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstSend = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            FleetStateDelta delta = invocation.getArgument(1);
+            if (delta.version() == 1) {
+                firstSendStarted.countDown();
+                releaseFirstSend.await(5, TimeUnit.SECONDS);
+            }
+            published.add(delta.version());
+            return null;
+        }).when(messagingTemplate).convertAndSend(eq(FleetStateServiceImpl.DELTA_DESTINATION), any(Object.class));
+
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> fleetState.onRemoteEvents(remote(event())));
+        assertThat(firstSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Mientras el primer envío está bloqueado, otra escritura se aplica y vuelve sin esperarlo.
+        CompletableFuture.runAsync(() -> fleetState.onRemoteEvents(remote(event(), event())))
+                .get(5, TimeUnit.SECONDS);
+        assertThat(fleetState.getSnapshot().version()).isEqualTo(3);
+        assertThat(published).isEmpty();
+
+        releaseFirstSend.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+
+        assertThat(published).containsExactly(1L, 2L, 3L);
+    }
+
+    private static RemoteVehicleEventsReceivedEvent remote(VehicleEventDTO... events) {
+        return new RemoteVehicleEventsReceivedEvent("node-b", List.of(events));
+    }
+
+    private static VehicleEventDTO event() {
+        return VehicleEventDTO.builder()
+                .vehicleId(UUID.randomUUID())
+                .driverId(UUID.randomUUID())
+                .timestamp(Instant.now())
+                .fatigueLevel(FatigueLevel.ALTO)
+                .fatigueType(FatigueType.values()[0])
+                .build();
+    }
+}
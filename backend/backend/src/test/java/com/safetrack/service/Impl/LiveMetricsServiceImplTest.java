@@ -0,0 +1,125 @@
+package com.safetrack.service.Impl;
+
+import com.safetrack.domain.dto.VehicleEventDTO;
+import com.safetrack.domain.dto.response.TopDriverResponse;
+import com.safetrack.domain.entity.VehicleEvent;
+import com.safetrack.domain.enums.FatigueLevel;
+import com.safetrack.domain.enums.FatigueType;
+import com.safetrack.domain.event.RemoteVehicleEventsReceivedEvent;
+import com.safetrack.domain.event.VehicleEventsPersistedEvent;
+import com.safetrack.repository.VehicleEventRepository;
+import com.safetrack.service.FleetDirectoryService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveMetricsServiceImplTest {
+
+    private static final int RING_MINUTES = 3;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T10:00:30Z"));
+    private final LiveMetricsServiceImpl liveMetrics = new LiveMetricsServiceImpl(
+            mock(VehicleEventRepository.class), directory(), RING_MINUTES, clock);
+
+    @Test
+    void coalescedEventsCountTheirOccurrences() {
+        UUID driverId = UUID.randomUUID();
+        liveMetrics.onEventsPersisted(new VehicleEventsPersistedEvent(List.of(event(driverId, clock.instant(), 5))));
+        liveMetrics.onRemoteEvents(new RemoteVehicleEventsReceivedEvent("node-b", List.of(
+                VehicleEventDTO.builder().driverId(driverId).timestamp(clock.instant())
+                        .fatigueType(FatigueType.CABECEO).fatigueLevel(FatigueLevel.ALTO).occurrenceCount(2).build(),
+                VehicleEventDTO.builder().driverId(driverId).timestamp(clock.instant())
+                        .fatigueType(FatigueType.CABECEO).fatigueLevel(FatigueLevel.ALTO).build())));
+
+        assertThat(liveMetrics.getSummary(1).total()).isEqualTo(8);
+        assertThat(liveMetrics.getTimeline(1)).singleElement().satisfies(point -> assertThat(point.critical()).isEqualTo(8));
+        assertThat(liveMetrics.getTopDrivers(1, 1)).extracting(TopDriverResponse::getAlertCount).containsExactly(8L);
+    }
+
+    @Test
+    void reusedSlotStartsFromZero() {
+        Instant first = clock.instant();
+        liveMetrics.onEventsPersisted(new VehicleEventsPersistedEvent(List.of(event(UUID.randomUUID(), first, 1))));
+
+        // Tras dar la vuelta al anillo, el minuto nuevo ocupa la posición del primero.
+        clock.advance(RING_MINUTES);
+        liveMetrics.onEventsPersisted(new VehicleEventsPersistedEvent(List.of(event(UUID.randomUUID(), clock.instant(), 1))));
+
+        assertThat(liveMetrics.getSummary(RING_MINUTES).total()).isEqualTo(1);
+        assertThat(liveMetrics.getTimeline(RING_MINUTES)).extracting(point -> point.total()).containsExactly(0L, 0L, 1L);
+    }
+
+    @Test
+    void eventsOlderThanTheRingAreIgnored() {
+        Instant tooOld = clock.instant().minus(RING_MINUTES, ChronoUnit.MINUTES);
+        liveMetrics.onEventsPersisted(new VehicleEventsPersistedEvent(List.of(event(UUID.randomUUID(), tooOld, 1))));
+
+        assertThat(liveMetrics.getSummary(RING_MINUTES).total()).isZero();
+    }
+
+    @Test
+    void lateEventDoesNotOverwriteNewerMinuteInItsSlot() {
+        Instant old = clock.instant();
+        clock.advance(RING_MINUTES);
+        liveMetrics.onEventsPersisted(new VehicleEventsPersistedEvent(List.of(event(UUID.randomUUID(), clock.instant(), 1))));
+        liveMetrics.onEventsPersisted(new VehicleEventsPersistedEvent(List.of(event(UUID.randomUUID(), old, 1))));
+
+        assertThat(liveMetrics.getSummary(1).total()).isEqualTo(1);
+    }
+
+    private static VehicleEvent event(UUID driverId, Instant timestamp, int occurrences) {
+        VehicleEvent event = new VehicleEvent();
+        event.setDriverId(driverId);
+        event.setVehicleId(UUID.randomUUID());
+        event.setTimestamp(timestamp);
+        event.setFatigueType(FatigueType.CABECEO);
+        event.setFatigueLevel(FatigueLevel.ALTO);
+        event.setOccurrenceCount(occurrences);
+        return event;
+    }
+
+    private static FleetDirectoryService directory() {
+        FleetDirectoryService directory = mock(FleetDirectoryService.class);
+        when(directory.driverName(any(), anyString())).thenReturn("Conductor");
+        return directory;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(long minutes) {
+            now = now.plus(minutes, ChronoUnit.MINUTES);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
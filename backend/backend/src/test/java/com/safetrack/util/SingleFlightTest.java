@@ -0,0 +1,80 @@
+package com.safetrack.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<SingleFlight.Result<Integer>> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            AtomicReference<Thread> secondThread = new AtomicReference<>();
+            Future<SingleFlight.Result<Integer>> second = executor.submit(() -> {
+                secondThread.set(Thread.currentThread());
+                return singleFlight.execute("key", executions::incrementAndGet);
+            });
+            // Se libera el primero solo cuando el segundo ya espera su resultado.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((secondThread.get() == null || secondThread.get().getState() != Thread.State.WAITING)
+                    && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(new SingleFlight.Result<>(1, false));
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(new SingleFlight.Result<>(1, true));
+            assertThat(executions).hasValue(1);
+            assertThat(singleFlight.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyIsReleasedAfterTheExecution() {
+        assertThat(singleFlight.execute("key", () -> 1)).isEqualTo(new SingleFlight.Result<>(1, false));
+        assertThat(singleFlight.execute("key", () -> 2)).isEqualTo(new SingleFlight.Result<>(2, false));
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    void failureIsRethrownAndReleasesTheKey() {
+        IllegalStateException failure = new IllegalStateException("fallo");
+
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw failure;
+        })).isSameAs(failure);
+        assertThat(singleFlight.size()).isZero();
+        assertThat(singleFlight.execute("key", () -> 3).value()).isEqualTo(3);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.safetrack.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BufferedSessionDecoratorTest {
+
+    private static final TextMessage CONNECTED = new TextMessage("CONNECTED\nversion:1.2\n\n\u0000");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebSocketSession delegate = mock(WebSocketSession.class);
+    private final StalledTransport transport = new StalledTransport();
+
+    @Test
+    void dropOldestNeverDropsControlFrames() throws Exception {
+        BufferedSessionDecorator session = decorator(SlowConsumerPolicy.DROP_OLDEST, 100);
+        session.sendMessage(CONNECTED);
+        TextMessage receipt = receipt("r1");
+        session.sendMessage(receipt);
+        session.sendMessage(message("/topic/a", "1"));
+        session.sendMessage(message("/topic/a", "2"));
+        session.sendMessage(message("/topic/a", "3"));
+
+        transport.completeAll();
+
+        assertThat(transport.sent).containsExactly(CONNECTED, receipt, message("/topic/a", "3"));
+        assertThat(counter("dropped")).isEqualTo(2);
+    }
+
+    @Test
+    void conflateKeepsTheLatestMessagePerDestination() throws Exception {
+        BufferedSessionDecorator session = decorator(SlowConsumerPolicy.CONFLATE, 120);
+        session.sendMessage(CONNECTED);
+        session.sendMessage(message("/topic/a", "1"));
+        session.sendMessage(message("/topic/b", "1"));
+        session.sendMessage(message("/topic/a", "2"));
+
+        transport.completeAll();
+
+        assertThat(transport.sent).containsExactly(CONNECTED, message("/topic/b", "1"), message("/topic/a", "2"));
+        assertThat(counter("conflated")).isEqualTo(1);
+    }
+
+    @Test
+    void disconnectClosesAndCountsOnlyOnce() throws Exception {
+        doThrow(new IllegalStateException("envío en curso")).when(delegate).close(any(CloseStatus.class));
+        BufferedSessionDecorator session = decorator(SlowConsumerPolicy.DISCONNECT, 10);
+        session.sendMessage(CONNECTED);
+        session.sendMessage(message("/topic/a", "1"));
+        session.closeAsSlow("envío bloqueado");
+        session.sendMessage(message("/topic/a", "2"));
+
+        verify(delegate, times(1)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(counter("disconnected")).isEqualTo(1);
+        assertThat(session.bufferedBytes()).isZero();
+    }
+
+    @Test
+    void inlineCompletionsSendEverythingInOrder() throws Exception {
+        List<WebSocketMessage<?>> sent = new ArrayList<>();
+        BufferedSessionDecorator session = new BufferedSessionDecorator(delegate, (message, onComplete) -> {
+            sent.add(message);
+            onComplete.accept(null);
+        }, guard(SlowConsumerPolicy.DROP_OLDEST, 1_000_000));
+        for (int i = 0; i < 10_000; i++) {
+            session.sendMessage(message("/topic/a", String.valueOf(i)));
+        }
+
+        assertThat(sent).hasSize(10_000);
+        assertThat(sent.get(9_999)).isEqualTo(message("/topic/a", "9999"));
+        assertThat(session.hasBacklog()).isFalse();
+    }
+
+    @Test
+    void stalledSendIsDetected() throws Exception {
+        BufferedSessionDecorator session = decorator(SlowConsumerPolicy.DROP_OLDEST, 1_000);
+        session.sendMessage(CONNECTED);
+
+        assertThat(session.isSendStalled(System.nanoTime() + 2_000_000_000L, 1_000_000_000L)).isTrue();
+        transport.completeAll();
+        assertThat(session.isSendStalled(System.nanoTime() + 2_000_000_000L, 1_000_000_000L)).isFalse();
+    }
+
+    private BufferedSessionDecorator decorator(SlowConsumerPolicy policy, int bufferSizeLimit) {
+        return new BufferedSessionDecorator(delegate, transport, guard(policy, bufferSizeLimit));
+    }
+
+    private SlowConsumerGuard guard(SlowConsumerPolicy policy, int bufferSizeLimit) {
+        return new SlowConsumerGuard(meterRegistry, bufferSizeLimit, 10_000, policy);
+    }
+
+    private double counter(String action) {
+        return meterRegistry.get("safetrack.websocket.slow_consumer").tag("action", action).counter().count();
+    }
+
+    private static TextMessage receipt(String id) {
+        return new TextMessage("RECEIPT\nreceipt-id:" + id + "\n\n\u0000");
+    }
+
+    private static TextMessage message(String destination, String body) {
+        return new TextMessage("MESSAGE\ndestination:" + destination + "\nsubscription:0\n\n" + body + "\u0000");
+    }
+
+    /**
+     * Transporte que deja cada envío en curso hasta que la prueba lo completa.
+     */
+    private static final class StalledTransport implements SessionTransport {
+        private final List<WebSocketMessage<?>> sent = new ArrayList<>();
+        private final Deque<Consumer<Throwable>> pending = new ArrayDeque<>();
+
+        @Override
+        public void send(WebSocketMessage<?> message, Consumer<Throwable> onComplete) {
+            sent.add(message);
+            pending.add(onComplete);
+        }
+
+        void completeAll() {
+            while (!pending.isEmpty()) {
+                pending.poll().accept(null);
+            }
+        }
+    }
+}
@@ -7,6 +7,8 @@ import socket
 import uuid
 import collections
 
+from .wire_format import CONTENT_TYPE as BINARY_CONTENT_TYPE, encode_event
+
 class StompWebSocketClient(threading.Thread):
     """
     Cliente STOMP sobre WebSocket que corre en su propio hilo.
@@ -28,6 +30,15 @@ class StompWebSocketClient(threading.Thread):
         os.makedirs('reports', exist_ok=True)
         self.offline_path = os.path.join('reports', 'offline_queue.jsonl')
         self._base_backoff = 1.0
+        # Eventos enviados y aún sin confirmar (RECEIPT), en orden de envío.
+        # Un RECEIPT confirma solo su evento, salvo que el servidor indique receipt-mode:cumulative
+        # (ver _handle_receipt_frame).
+        self.in_flight = collections.OrderedDict()
+        # Instante (time.time) antes del cual no se envía nada tras un RECEIPT con status:retry
+        self._retry_not_before = 0.0
+        self.max_in_flight = int(os.getenv('EDGE_MAX_IN_FLIGHT', '500'))
+        # 'json' (por defecto) o 'binary' (62 bytes por evento, útil en enlaces móviles)
+        self.wire_format = os.getenv('EDGE_WIRE_FORMAT', 'json').lower()
 
     def _create_stomp_frame(self, command, headers=None, body=None):
         """Crea un frame STOMP básico"""
@@ -53,7 +64,7 @@ class StompWebSocketClient(threading.Thread):
         print(f"[THREAD-DEBUG] Enviando CONNECT frame: {repr(connect_frame)}")
         self.ws.send(connect_frame)
 
-    def _send_stomp_message(self, destination, message_body):
+    def _send_stomp_message(self, destination, message_body, receipt=None):
         """Envía un mensaje STOMP"""
         body_bytes = message_body.encode('utf-8')
         headers = {
@@ -61,9 +72,24 @@ class StompWebSocketClient(threading.Thread):
             'content-type': 'application/json; charset=utf-8',
             'content-length': str(len(body_bytes))
         }
+        if receipt:
+            headers['receipt'] = receipt
         send_frame = self._create_stomp_frame('SEND', headers, message_body)
         self.ws.send(send_frame)
 
+    def _send_stomp_binary_message(self, destination, payload, receipt=None):
+        """Envía un mensaje STOMP con cuerpo binario en un frame WebSocket binario."""
+        headers = [
+            'SEND',
+            f'destination:{destination}',
+            f'content-type:{BINARY_CONTENT_TYPE}',
+            f'content-length:{len(payload)}',
+        ]
+        if receipt:
+            headers.append(f'receipt:{receipt}')
+        frame = ('\n'.join(headers) + '\n\n').encode('utf-8') + payload + b'\x00'
+        self.ws.send_binary(frame)
+
     def _persist_offline(self, data):
         """Guarda el evento en un archivo JSONL cuando no hay conexión."""
         try:
@@ -72,6 +98,75 @@ class StompWebSocketClient(threading.Thread):
         except Exception as e:
             print(f"[THREAD-ERROR] No se pudo persistir offline: {e}")
 
+    def _parse_headers(self, frame):
+        """Devuelve el comando y las cabeceras de un frame STOMP."""
+        lines = frame.split('\n')
+        headers = {}
+        for line in lines[1:]:
+            if not line:
+                break
+            key, _, value = line.partition(':')
+            headers.setdefault(key, value)
+        return lines[0], headers
+
+    def _handle_receipt_frame(self, headers):
+        """
+        Procesa un RECEIPT según lo que anuncia el servidor:
+        - status:retry -> el evento no se persistió; se vuelve a encolar y se espera retry-after-ms.
+        - status:rejected -> el evento nunca podrá persistirse (datos no válidos); se descarta.
+        - receipt-mode:cumulative -> confirma los eventos enviados desde receipt-from hasta receipt-id.
+        - en otro caso -> confirma solo el evento de receipt-id.
+        """
+        receipt_id = headers.get('receipt-id')
+        if receipt_id not in self.in_flight:
+            return
+        if headers.get('status') == 'retry':
+            item = self.in_flight.pop(receipt_id)
+            self._retry_later(item, headers.get('retry-after-ms'))
+            return
+        if headers.get('status') == 'rejected':
+            item = self.in_flight.pop(receipt_id)
+            print(f"[THREAD-ERROR] El servidor rechazó el evento por datos no válidos: {item}")
+            return
+        if headers.get('receipt-mode') != 'cumulative':
+            del self.in_flight[receipt_id]
+            return
+        receipt_from = headers.get('receipt-from', receipt_id)
+        keys = list(self.in_flight)
+        start = keys.index(receipt_from) if receipt_from in self.in_flight else keys.index(receipt_id)
+        for key in keys[start:keys.index(receipt_id) + 1]:
+            del self.in_flight[key]
+
+    def _retry_later(self, item, retry_after_ms):
+        """Vuelve a poner un evento rechazado temporalmente al principio de la cola de envío."""
+        try:
+            delay = max(0.0, int(retry_after_ms) / 1000.0)
+        except (TypeError, ValueError):
+            delay = self._base_backoff
+        self._retry_not_before = max(self._retry_not_before, time.time() + delay)
+        with self.lock:
+            if len(self.data_to_send) < self.data_to_send.maxlen:
+                self.data_to_send.appendleft(item)
+            else:
+                self._persist_offline(item)
+
+    def _handle_error_frame(self, frame, headers):
+        """
+        El servidor responde con un frame ERROR a un frame que no puede procesar y cierra la sesión
+        (la saturación llega como RECEIPT con status:retry, ver _handle_receipt_frame).
+        Los eventos sin confirmar se recuperan al reconectar (ver _requeue_in_flight).
+        """
+        print(f"[THREAD-ERROR] El servidor rechazó un mensaje: {repr(frame)}")
+
+    def _requeue_in_flight(self):
+        """
+        Guarda offline los eventos enviados que el servidor no llegó a confirmar, para reenviarlos
+        tras reconectar. Los que sí se hubieran persistido los descarta la deduplicación del backend.
+        """
+        while self.in_flight:
+            _, item = self.in_flight.popitem(last=False)
+            self._persist_offline(item)
+
     def _load_offline_queue(self):
         """Carga eventos persistidos al iniciar/conectar y limpia el archivo."""
         try:
@@ -152,36 +247,58 @@ class StompWebSocketClient(threading.Thread):
                 self._load_offline_queue()
 
                 # Loop principal no bloqueante
-                self.ws.settimeout(0.1)
                 backoff = self._base_backoff  # reset backoff al conectar
                 while self.connected and not self._stop:
-                    # Enviar datos pendientes
+                    # Enviar datos pendientes, sin superar la ventana de eventos sin confirmar
                     item = None
+                    can_send = len(self.in_flight) < self.max_in_flight and time.time() >= self._retry_not_before
                     with self.lock:
-                        if self.data_to_send:
+                        if self.data_to_send and can_send:
                             item = self.data_to_send.popleft()
                     if item is not None:
                         try:
-                            json_data = json.dumps(item, ensure_ascii=False)
-                            self._send_stomp_message(self.destination, json_data)
-                            print(f"[THREAD] Datos enviados: {json_data}")
+                            receipt = uuid.uuid4().hex
+                            if self.wire_format == 'binary':
+                                self._send_stomp_binary_message(self.destination, encode_event(item), receipt)
+                            else:
+                                self._send_stomp_message(self.destination, json.dumps(item, ensure_ascii=False), receipt)
+                            self.in_flight[receipt] = item
+                            print(f"[THREAD] Datos enviados: {item}")
                         except Exception as e:
                             print(f"[THREAD-ERROR] Fallo al enviar mensaje: {e}")
                             # Persistir y forzar reconexión
                             self._persist_offline(item)
                             break
 
-                    # Leer datos del servidor (si los hay)
+                    # Leer datos del servidor (si los hay); un mensaje puede traer varios frames.
+                    # Mientras haya eventos por enviar la lectura apenas espera.
+                    pending = bool(self.data_to_send) and can_send
+                    self.ws.settimeout(0.001 if pending else 0.1)
                     try:
                         response = self.ws.recv()
-                        if response:
-                            print(f"[THREAD-DEBUG] Mensaje del servidor: {repr(response)}")
+                        rejected = False
+                        for frame in (response or '').split('\x00'):
+                            frame = frame.lstrip('\r\n')
+                            if not frame:
+                                continue
+                            command, headers = self._parse_headers(frame)
+                            if command == 'RECEIPT':
+                                self._handle_receipt_frame(headers)
+                            elif command == 'ERROR':
+                                self._handle_error_frame(frame, headers)
+                                rejected = True
+                            else:
+                                print(f"[THREAD-DEBUG] Mensaje del servidor: {repr(frame)}")
+                        if rejected:
+                            break
                     except websocket.WebSocketTimeoutException:
                         pass
                     except Exception as e:
                         print(f"[THREAD-ERROR] Error leyendo del WebSocket: {e}")
                         break
 
+                    if pending:
+                        continue
                     time.sleep(0.05)
 
             except Exception as e:
@@ -202,6 +319,7 @@ class StompWebSocketClient(threading.Thread):
                         pass
                     self.ws = None
                 self.connected = False
+                self._requeue_in_flight()
                 print("[THREAD] Conexión finalizada. Intentando reconectar...")
 
                 # Backoff exponencial con límite
@@ -0,0 +1,48 @@
+"""
+Codificación binaria compacta de eventos de fatiga (content-type application/x-safetrack-event).
+Debe coincidir con VehicleEventBinaryConverter del backend: 62 bytes, big-endian.
+"""
+import struct
+import uuid
+from datetime import datetime, timezone
+
+CONTENT_TYPE = 'application/x-safetrack-event'
+
+# El orden es el de los enums del backend (FatigueLevel / FatigueType)
+FATIGUE_LEVELS = ['NINGUNO', 'BAJO', 'MEDIO', 'ALTO']
+FATIGUE_TYPES = ['NINGUNO', 'MICROSUEÑO', 'CABECEO', 'BOSTEZO', 'CANSANCIO_VISUAL']
+
+_NULL_ORDINAL = 0xFF
+_LAYOUT = struct.Struct('>16s16sqBBdid')
+
+
+def _uuid_bytes(value):
+    return uuid.UUID(str(value)).bytes if value else bytes(16)
+
+
+def _ordinal(values, name):
+    return values.index(name) if name in values else _NULL_ORDINAL
+
+
+def _epoch_millis(timestamp):
+    """Milisegundos desde epoch; 0 representa la ausencia de marca de tiempo. Sin zona horaria se entiende UTC."""
+    if not timestamp:
+        return 0
+    moment = datetime.fromisoformat(str(timestamp).replace('Z', '+00:00'))
+    if moment.tzinfo is None:
+        moment = moment.replace(tzinfo=timezone.utc)
+    return int(moment.timestamp() * 1000)
+
+
+def encode_event(data):
+    """Codifica un evento (dict con las claves del JSON) en el formato binario de 62 bytes."""
+    return _LAYOUT.pack(
+        _uuid_bytes(data.get('driverId')),
+        _uuid_bytes(data.get('vehicleId')),
+        _epoch_millis(data.get('timestamp')),
+        _ordinal(FATIGUE_LEVELS, data.get('fatigueLevel')),
+        _ordinal(FATIGUE_TYPES, data.get('fatigueType')),
+        float(data.get('eyeClosureDuration', 0.0)),
+        int(data.get('yawnCount', 0)),
+        float(data.get('blinkRate', 0.0)),
+    )
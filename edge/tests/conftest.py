@@ -0,0 +1,5 @@
+import os
+import sys
+
+# Permite importar el paquete src desde las pruebas (python -m pytest desde edge/)
+sys.path.insert(0, os.path.abspath(os.path.join(os.path.dirname(__file__), '..')))
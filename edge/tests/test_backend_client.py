@@ -0,0 +1,53 @@
+import pytest
+
+from src.backend_client import StompWebSocketClient
+
+
+@pytest.fixture
+def client(tmp_path, monkeypatch):
+    monkeypatch.chdir(tmp_path)
+    c = StompWebSocketClient()
+    for receipt in ['r1', 'r2', 'r3', 'r4']:
+        c.in_flight[receipt] = {'receipt': receipt}
+    return c
+
+
+def test_per_message_receipt_confirms_only_its_event(client):
+    client._handle_receipt_frame({'receipt-id': 'r3'})
+
+    assert list(client.in_flight) == ['r1', 'r2', 'r4']
+
+
+def test_cumulative_receipt_confirms_its_range(client):
+    client._handle_receipt_frame({'receipt-id': 'r3', 'receipt-mode': 'cumulative', 'receipt-from': 'r2'})
+
+    assert list(client.in_flight) == ['r1', 'r4']
+
+
+def test_cumulative_receipt_skips_events_returned_for_retry(client):
+    client._handle_receipt_frame({'receipt-id': 'r2', 'status': 'retry', 'retry-after-ms': '0'})
+    client._handle_receipt_frame({'receipt-id': 'r3', 'receipt-mode': 'cumulative', 'receipt-from': 'r3'})
+
+    assert list(client.in_flight) == ['r1', 'r4']
+    assert list(client.data_to_send) == [{'receipt': 'r2'}]
+
+
+def test_retry_receipt_delays_next_send(client):
+    client._handle_receipt_frame({'receipt-id': 'r1', 'status': 'retry', 'retry-after-ms': '60000'})
+
+    assert 'r1' not in client.in_flight
+    assert client.data_to_send[0] == {'receipt': 'r1'}
+    assert client._retry_not_before > 0
+
+
+def test_rejected_receipt_drops_the_event(client):
+    client._handle_receipt_frame({'receipt-id': 'r2', 'status': 'rejected'})
+
+    assert list(client.in_flight) == ['r1', 'r3', 'r4']
+    assert not client.data_to_send
+
+
+def test_unknown_receipt_is_ignored(client):
+    client._handle_receipt_frame({'receipt-id': 'otro', 'receipt-mode': 'cumulative', 'receipt-from': 'r1'})
+
+    assert list(client.in_flight) == ['r1', 'r2', 'r3', 'r4']
@@ -0,0 +1,54 @@
+import struct
+import uuid
+
+from src.wire_format import FATIGUE_LEVELS, FATIGUE_TYPES, encode_event
+
+FRAME = struct.Struct('>16s16sqBBdid')
+
+
+def decode(frame):
+    return FRAME.unpack(frame)
+
+
+def test_event_is_encoded_in_62_bytes():
+    driver_id = uuid.uuid4()
+    frame = encode_event({
+        'driverId': str(driver_id),
+        'vehicleId': None,
+        'timestamp': '2026-01-01T10:00:00Z',
+        'fatigueLevel': 'ALTO',
+        'fatigueType': 'BOSTEZO',
+        'eyeClosureDuration': 1.5,
+        'yawnCount': 3,
+        'blinkRate': 12.0,
+    })
+
+    assert len(frame) == 62
+    driver, vehicle, millis, level, fatigue_type, eye_closure, yawns, blink_rate = decode(frame)
+    assert driver == driver_id.bytes
+    assert vehicle == bytes(16)
+    assert millis == 1767261600000
+    assert FATIGUE_LEVELS[level] == 'ALTO'
+    assert FATIGUE_TYPES[fatigue_type] == 'BOSTEZO'
+    assert (eye_closure, yawns, blink_rate) == (1.5, 3, 12.0)
+
+
+def test_naive_timestamp_is_utc():
+    naive = decode(encode_event({'timestamp': '2026-01-01T10:00:00'}))[2]
+    explicit = decode(encode_event({'timestamp': '2026-01-01T10:00:00+00:00'}))[2]
+
+    assert naive == explicit == 1767261600000
+
+
+def test_offset_timestamp_keeps_its_offset():
+    millis = decode(encode_event({'timestamp': '2026-01-01T12:00:00+02:00'}))[2]
+
+    assert millis == 1767261600000
+
+
+def test_missing_values_use_the_null_markers():
+    _, _, millis, level, fatigue_type, _, _, _ = decode(encode_event({'fatigueLevel': 'DESCONOCIDO'}))
+
+    assert millis == 0
+    assert level == 0xFF
+    assert fatigue_type == 0xFF
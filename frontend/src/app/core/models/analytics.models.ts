@@ -1,4 +1,5 @@
 import { FatigueLevel, FatigueType } from './enums';
+import { Page } from './event.models';
 
 /**
  * Representa el objeto de filtros para las consultas de analítica.
@@ -44,6 +45,17 @@ export interface FleetSummaryDataPoint {
   distractionCount: number;
   criticalEventsCount: number;
   riskScore: 'Alto' | 'Medio' | 'Bajo' | string;
+  riskPoints: number;
 }
 
-
+/**
+ * Respuesta del endpoint compuesto del panel: las cuatro secciones en una sola petición.
+ * Una sección que falla o agota su tiempo llega como null y su motivo aparece en `errors`.
+ */
+export interface DashboardResponse {
+  alertDistribution: AlertDistributionResponse | null;
+  topDrivers: TopDriver[] | null;
+  criticalEventsTimeline: TimelineDataPoint[] | null;
+  fleetSummary: Page<FleetSummaryDataPoint> | null;
+  errors: Record<string, string>;
+}
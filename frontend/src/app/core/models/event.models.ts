@@ -16,6 +16,10 @@ export interface FatigueEvent {
   eyeClosureDuration: number;
   yawnCount: number;
   blinkRate: number;
+  // Eventos agrupados en una ráfaga (1 si no se agrupó) y límites de la ventana
+  occurrenceCount?: number;
+  windowStart?: string | null;
+  windowEnd?: string | null;
 
   driverName: string;
   vehicleIdentifier: string;
@@ -53,8 +53,12 @@ export class NotificationService {
 
       // Update unread count
       this.unreadCount.next(this.unreadCount.value + 1);
+    });
 
-      // Signal that a new notification has arrived
+    // Notifications are created asynchronously by the backend outbox,
+    // so the panel is refreshed once they actually exist.
+    this.webSocketService.notificationsDispatched$.subscribe(() => {
+      this.getUnreadNotificationsCount().subscribe();
       this._notificationReceived.next();
     });
   }
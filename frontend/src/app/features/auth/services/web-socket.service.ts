@@ -1,6 +1,6 @@
 import { Injectable, NgZone } from '@angular/core';
-import { Client, IMessage } from '@stomp/stompjs';
-import { Subject } from 'rxjs';
+import { Client, IMessage, StompSubscription } from '@stomp/stompjs';
+import { Observable, Subject } from 'rxjs';
 import { FatigueEvent } from '../../../core/models/event.models';
 import { environment } from '../../../../environments/environment';
 
@@ -17,6 +17,14 @@ export class WebSocketService {
 
   public fatigueEvent$ = this.fatigueEventSubject.asObservable();
 
+  // Subject para avisar de que el backend ha creado nuevas notificaciones
+  private notificationsDispatchedSubject = new Subject<void>();
+
+  public notificationsDispatched$ = this.notificationsDispatchedSubject.asObservable();
+
+  // Se emite en cada (re)conexión para rehacer las suscripciones por vehículo/conductor
+  private connectedSubject = new Subject<void>();
+
   constructor(private ngZone: NgZone) {
     // crear la instancia de Stomp
     this.stompClient = new Client({
@@ -30,6 +38,12 @@ export class WebSocketService {
       },
       // intentar reconectar cada 5 segundos si la conexión se cierra
       reconnectDelay: 5000,
+
+      // el backend identifica al usuario en el frame CONNECT con el mismo JWT que la API REST
+      beforeConnect: () => {
+        const token = localStorage.getItem('accessToken');
+        this.stompClient.connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
+      },
     });
 
     this.stompClient.onConnect = (freame) => {
@@ -38,14 +52,25 @@ export class WebSocketService {
       // suscribirse al topic
       this.stompClient.subscribe('/topic/vehicle-event', (message: IMessage) => {
 
-        // convertir el mensaje en un objeto FatigueEvent
-        const event = JSON.parse(message.body) as FatigueEvent;
-        // emitir el evento dentro de la zona de Angular
+        // convertir el mensaje en eventos: un objeto FatigueEvent o, si el backend agrupa
+        // los frames (conflation), un array con los eventos del intervalo
+        const body = JSON.parse(message.body) as FatigueEvent | FatigueEvent[];
+        const events = Array.isArray(body) ? body : [body];
+        // emitir los eventos dentro de la zona de Angular, en una sola detección de cambios
+        this.ngZone.run(() => {
+          events.forEach(event => this.fatigueEventSubject.next(event));
+        });
+      });
+
+      // las notificaciones se crean de forma asíncrona (outbox); el backend avisa cuando ya existen
+      this.stompClient.subscribe('/topic/notifications', () => {
         this.ngZone.run(() => {
-          this.fatigueEventSubject.next(event);
+          this.notificationsDispatchedSubject.next();
         });
       });
 
+      this.connectedSubject.next();
+
     };
 
 
@@ -68,6 +93,40 @@ export class WebSocketService {
     }
   }
 
+  // Eventos de un solo conductor: el broker filtra y solo envía los de /topic/drivers/{id}.
+  public watchDriver(driverId: string): Observable<FatigueEvent> {
+    return this.watchTopic(`/topic/drivers/${driverId}`);
+  }
+
+  // Eventos de un solo vehículo (/topic/vehicles/{id}).
+  public watchVehicle(vehicleId: string): Observable<FatigueEvent> {
+    return this.watchTopic(`/topic/vehicles/${vehicleId}`);
+  }
+
+  private watchTopic(destination: string): Observable<FatigueEvent> {
+    return new Observable<FatigueEvent>(observer => {
+      let subscription: StompSubscription | undefined;
+      const subscribe = () => {
+        subscription = this.stompClient.subscribe(destination, (message: IMessage) => {
+          const event = JSON.parse(message.body) as FatigueEvent;
+          this.ngZone.run(() => observer.next(event));
+        });
+      };
+
+      if (this.stompClient.connected) {
+        subscribe();
+      }
+      const reconnections = this.connectedSubject.subscribe(() => subscribe());
+
+      return () => {
+        reconnections.unsubscribe();
+        if (this.stompClient.connected) {
+          subscription?.unsubscribe();
+        }
+      };
+    });
+  }
+
   // Método para cerrar la conexión cuando ya no la necesitemos (ej. al hacer logout).
   public disconnect(): void {
     if (this.stompClient.active) {
@@ -1,11 +1,11 @@
 import { CommonModule } from '@angular/common';
 import { Component, inject, ViewChild, computed, signal, Signal } from '@angular/core';
 import { ApexChart, ApexDataLabels, ApexNonAxisChartSeries, ApexPlotOptions, ApexStroke, ApexTooltip, ChartComponent, NgApexchartsModule } from 'ng-apexcharts';
-import { AnalyticsService } from '../../../shared/services/analytics.service';
 import { FatigueType } from '../../../../core/models/enums';
-import { DashboardFilter } from '../../services/dashboard-filter.service';
-import { toSignal, toObservable } from '@angular/core/rxjs-interop';
-import { switchMap } from 'rxjs';
+import { AlertDistributionResponse } from '../../../../core/models/analytics.models';
+import { DashboardData } from '../../services/dashboard-data.service';
+import { toSignal } from '@angular/core/rxjs-interop';
+import { map } from 'rxjs';
 
 
 
@@ -35,8 +35,7 @@ export class AlertDistributionChart {
 
   @ViewChild("chart") chart!: ChartComponent;
 
-  private analyticsService = inject(AnalyticsService);
-  private filterService = inject(DashboardFilter);
+  private dashboardData = inject(DashboardData);
 
   private colorsSignal = signal<Record<FatigueType, string> | null>(null);
 
@@ -129,13 +128,10 @@ export class AlertDistributionChart {
     }
   };
 
-  // Convertir el signal de filtros a un observable y obtener los datos
+  // Sección del panel compartido; si el backend no pudo calcularla se muestra sin datos
   private _alertData = toSignal(
-    toObservable(this.filterService.filter$).pipe(
-      switchMap(filters => {
-        console.log('AlertDistributionChart - Filtros cambiados:', filters);
-        return this.analyticsService.getAlertDistribution(filters);
-      })
+    this.dashboardData.dashboard$.pipe(
+      map(dashboard => dashboard ? dashboard.alertDistribution ?? {} as AlertDistributionResponse : null)
     ),
     { initialValue: null }
   );
@@ -13,10 +13,10 @@ import {
   ChartComponent,
   NgApexchartsModule
 } from 'ng-apexcharts';
-import { AnalyticsService } from '../../../shared/services/analytics.service';
 import { DashboardFilter } from '../../services/dashboard-filter.service';
-import { toObservable, toSignal } from '@angular/core/rxjs-interop';
-import { switchMap, tap } from 'rxjs';
+import { DashboardData } from '../../services/dashboard-data.service';
+import { toSignal } from '@angular/core/rxjs-interop';
+import { map, tap } from 'rxjs';
 import { TimelineDataPoint } from '../../../../core/models/analytics.models';
 
 export type ChartOptions = {
@@ -45,13 +45,13 @@ export class CriticalEventsTimeline {
   @ViewChild("chart") chart!: ChartComponent;
 
 
-  private analyticsService = inject(AnalyticsService);
   private filterService = inject(DashboardFilter);
+  private dashboardData = inject(DashboardData);
 
+  // Sección del panel compartido; si el backend no pudo calcularla se muestra vacía
   private timelineData = toSignal(
-    toObservable(this.filterService.filter$).pipe(
-      tap(filters => console.log('critical-events-timeline - Filtros aplicados:', filters)),
-      switchMap(filters => this.analyticsService.getCriticalEventsTimeline(filters)),
+    this.dashboardData.dashboard$.pipe(
+      map(dashboard => dashboard?.criticalEventsTimeline ?? []),
       tap(data => console.log('critical-events-timeline - Datos obtenidos:', data))
     ),
     { initialValue: [] as TimelineDataPoint[] }
@@ -2,7 +2,8 @@ import { Component, computed, inject, signal, effect, ChangeDetectionStrategy }
 import { toSignal, toObservable } from '@angular/core/rxjs-interop';
 import { AnalyticsService } from '../../../shared/services/analytics.service';
 import { DashboardFilter } from '../../services/dashboard-filter.service';
-import { switchMap, startWith, catchError } from 'rxjs';
+import { DashboardData, FLEET_PAGE_SIZE } from '../../services/dashboard-data.service';
+import { switchMap, startWith, catchError, map } from 'rxjs';
 import { Page } from '../../../../core/models/event.models';
 import { FleetSummaryDataPoint } from '../../../../core/models/analytics.models';
 import { CommonModule } from '@angular/common';
@@ -21,6 +22,7 @@ import { Router } from '@angular/router';
 export class FleetSummaryTable {
   private analyticsService = inject(AnalyticsService);
   private filterService = inject(DashboardFilter);
+  private dashboardData = inject(DashboardData);
   private router = inject(Router);
 
   // ✅ 1. Estado local — señal pura y reactiva
@@ -35,8 +37,10 @@ export class FleetSummaryTable {
   // ✅ 3. Estado derivado — combina filtros + página
   public fleetSummaryPage = toSignal<Page<FleetSummaryDataPoint> | null>(
     toObservable(this.queryParams).pipe(
-      switchMap(({ filters, page }) =>
-        this.analyticsService.getFleetSummary(filters, page, 5)
+      // La primera página llega con el panel compartido; las siguientes se piden al paginar
+      switchMap(({ filters, page }) => page === 0
+        ? this.dashboardData.dashboard$.pipe(map(dashboard => dashboard?.fleetSummary ?? null))
+        : this.analyticsService.getFleetSummary(filters, page, FLEET_PAGE_SIZE)
       ),
       startWith(null),
       catchError((err) => {
@@ -13,10 +13,9 @@ import {
   ChartComponent,
   NgApexchartsModule
 } from 'ng-apexcharts';
-import { AnalyticsService } from '../../../shared/services/analytics.service';
-import { DashboardFilter } from '../../services/dashboard-filter.service';
-import { toSignal, toObservable } from '@angular/core/rxjs-interop';
-import { switchMap, tap } from 'rxjs';
+import { DashboardData } from '../../services/dashboard-data.service';
+import { toSignal } from '@angular/core/rxjs-interop';
+import { map, tap } from 'rxjs';
 
 
 export type ChartOptions = {
@@ -42,8 +41,7 @@ export type ChartOptions = {
 export class TopDriversChart {
   @ViewChild('chart') chart!: ChartComponent;
 
-  private analyticsService = inject(AnalyticsService);
-  private filterService = inject(DashboardFilter);
+  private dashboardData = inject(DashboardData);
 
 
   // Configuración base del gráfico
@@ -112,11 +110,10 @@ export class TopDriversChart {
     },
   };
 
-  // Convertir el signal de filtros a un observable y obtener los datos
+  // Sección del panel compartido; si el backend no pudo calcularla se muestra sin datos
   private driversData = toSignal(
-    toObservable(this.filterService.filter$).pipe(
-      tap(filters => console.log('TopDriversChart - Filtros cambiados:', filters)),
-      switchMap(filters => this.analyticsService.getTopDriversByAlerts(filters)),
+    this.dashboardData.dashboard$.pipe(
+      map(dashboard => dashboard ? dashboard.topDrivers ?? [] : null),
       tap(data => console.log('TopDriversChart - Datos recibidos del API:', data))
     ),
     { initialValue: null }
@@ -0,0 +1,33 @@
+import { inject, Injectable } from '@angular/core';
+import { toObservable } from '@angular/core/rxjs-interop';
+import { catchError, Observable, of, shareReplay, switchMap } from 'rxjs';
+import { DashboardResponse } from '../../../core/models/analytics.models';
+import { AnalyticsService } from '../../shared/services/analytics.service';
+import { DashboardFilter } from './dashboard-filter.service';
+
+/** Tamaño de página del resumen de flota del panel. */
+export const FLEET_PAGE_SIZE = 5;
+
+@Injectable({
+  providedIn: 'root'
+})
+export class DashboardData {
+
+  private analyticsService = inject(AnalyticsService);
+  private filterService = inject(DashboardFilter);
+
+  /**
+   * Panel completo para los filtros actuales: una sola petición por cambio de filtros, compartida por todos los
+   * gráficos en lugar de una por gráfico. Incluye la primera página del resumen de flota.
+   * Emite null si la petición falla; las secciones que el backend no pudo calcular llegan a null.
+   */
+  public readonly dashboard$: Observable<DashboardResponse | null> = toObservable(this.filterService.filter$).pipe(
+    switchMap(filters => this.analyticsService.getDashboard(filters, 0, FLEET_PAGE_SIZE).pipe(
+      catchError(err => {
+        console.error('Error al cargar el panel de analíticas:', err);
+        return of(null);
+      })
+    )),
+    shareReplay({ bufferSize: 1, refCount: true })
+  );
+}
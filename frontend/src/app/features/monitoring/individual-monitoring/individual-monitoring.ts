@@ -64,15 +64,15 @@ export class IndividualMonitoring {
     { initialValue: null }
   );
 
-  private fatigueEvent = toSignal(this.webSocketService.fatigueEvent$);
-
-  // 4. SIGNAL DERIVADO: Eventos en tiempo real para este conductor.
-  public liveEvent = computed(() => {
-    const lastEvent = this.fatigueEvent();
-    const currentDriverId = this.driverId();
-    // Filtramos para mostrar solo si el evento es de este conductor
-    return lastEvent?.driverId === currentDriverId ? lastEvent : null;
-  });
+  // 4. Eventos en tiempo real para este conductor: suscripción a su propio tema,
+  // el servidor solo envía los eventos de este conductor.
+  public liveEvent = toSignal(
+    toObservable(this.driverId).pipe(
+      filter((id): id is string => !!id),
+      switchMap(id => this.webSocketService.watchDriver(id))
+    ),
+    { initialValue: null }
+  );
 
   // --- Métodos de Paginación ---
   nextPage(): void {
@@ -2,7 +2,7 @@ import { HttpClient, HttpParams } from '@angular/common/http';
 import { inject, Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
 import { environment } from '../../../../environments/environment';
-import { AlertDistributionResponse, AnalyticsFilterRequest, FleetSummaryDataPoint, TimelineDataPoint, TopDriver } from '../../../core/models/analytics.models';
+import { AlertDistributionResponse, AnalyticsFilterRequest, DashboardResponse, FleetSummaryDataPoint, TimelineDataPoint, TopDriver } from '../../../core/models/analytics.models';
 import { Page } from '../../../core/models/event.models';
 
 @Injectable({
@@ -67,18 +67,20 @@ export class AnalyticsService {
    * @param filters - Filtros de fecha, etc. (opcional).
    * @param page - El número de página a solicitar.
    * @param size - El tamaño de la página.
+   * @param sort - Orden en formato 'propiedad,dirección' (p. ej. 'riskScore,desc'); lo aplica el backend.
    * @returns Un Observable que emite una respuesta paginada del resumen de la flota.
    */
   getFleetSummary(
     filters: AnalyticsFilterRequest = {},
     page: number = 0,
-    size: number = 10
+    size: number = 10,
+    sort: string = 'alertCount,desc'
   ): Observable<Page<FleetSummaryDataPoint>> {
 
     let params = new HttpParams()
       .set('page', page.toString())
       .set('size', size.toString())
-      .set('sort', 'alertCount,desc'); // Orden por defecto
+      .set('sort', sort);
 
     if (filters.startDate) {
       params = params.set('startDate', filters.startDate);
@@ -90,5 +92,33 @@ export class AnalyticsService {
     return this.http.get<Page<FleetSummaryDataPoint>>(`${this.apiUrl}/fleet-summary`, { params });
   }
 
+  /**
+   * Obtiene todas las secciones del panel en una sola petición, calculadas en paralelo por el backend.
+   * @param filters - Filtros de fecha, etc. (opcional).
+   * @param page - Página del resumen de flota.
+   * @param size - Tamaño de página del resumen de flota.
+   * @param sort - Orden del resumen de flota en formato 'propiedad,dirección'.
+   * @returns Un Observable con las secciones del panel y los errores de las que no se pudieron calcular.
+   */
+  getDashboard(
+    filters: AnalyticsFilterRequest = {},
+    page: number = 0,
+    size: number = 10,
+    sort: string = 'alertCount,desc'
+  ): Observable<DashboardResponse> {
+
+    let params = new HttpParams()
+      .set('page', page.toString())
+      .set('size', size.toString())
+      .set('sort', sort);
 
+    if (filters.startDate) {
+      params = params.set('startDate', filters.startDate);
+    }
+    if (filters.endDate) {
+      params = params.set('endDate', filters.endDate);
+    }
+
+    return this.http.get<DashboardResponse>(`${this.apiUrl}/dashboard`, { params });
+  }
 }